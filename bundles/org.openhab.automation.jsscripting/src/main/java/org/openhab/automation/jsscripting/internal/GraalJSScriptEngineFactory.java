@@ -19,13 +19,18 @@ import java.util.Map;
 
 import javax.script.ScriptEngine;
 
+import org.graalvm.polyglot.Engine;
+import org.openhab.automation.jsscripting.internal.fs.ModuleSourceCache;
 import org.openhab.core.automation.module.script.ScriptEngineFactory;
 import org.openhab.core.config.core.ConfigurableService;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of {@link ScriptEngineFactory} with customizations for GraalJS ScriptEngines.
@@ -38,8 +43,16 @@ import org.osgi.service.component.annotations.Modified;
 @ConfigurableService(category = "automation", label = "JS Scripting", description_uri = "automation:jsscripting")
 public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
     private static final String CFG_INJECTION_ENABLED = "injectionEnabled";
+    private static final String CFG_SHARED_ENGINE = "sharedEngine";
     private static final String INJECTION_CODE = "Object.assign(this, require('openhab'));";
+
+    private final Logger logger = LoggerFactory.getLogger(GraalJSScriptEngineFactory.class);
+
+    private final ModuleSourceCache sourceCache = new ModuleSourceCache();
     private boolean injectionEnabled = true;
+    private boolean sharedEngine = true;
+    // created on first use, shared by all script engines while engine sharing is enabled
+    private Engine engine;
 
     public static final String MIME_TYPE = "application/javascript;version=ECMAScript-2021";
 
@@ -70,8 +83,15 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
 
     @Override
     public ScriptEngine createScriptEngine(String scriptType) {
-        return new DebuggingGraalScriptEngine<>(
-                new OpenhabGraalJSScriptEngine(injectionEnabled ? INJECTION_CODE : null));
+        return new DebuggingGraalScriptEngine<>(new OpenhabGraalJSScriptEngine(
+                injectionEnabled ? INJECTION_CODE : null, sharedEngine ? getSharedEngine() : null, sourceCache));
+    }
+
+    private synchronized Engine getSharedEngine() {
+        if (engine == null) {
+            engine = OpenhabGraalJSScriptEngine.createEngine();
+        }
+        return engine;
     }
 
     @Activate
@@ -79,9 +99,24 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
         modified(config);
     }
 
+    @Deactivate
+    protected synchronized void deactivate() {
+        if (engine != null) {
+            try {
+                engine.close();
+            } catch (IllegalStateException e) {
+                logger.debug("Could not close shared engine while scripts are still running: {}", e.getMessage());
+            }
+            engine = null;
+        }
+        sourceCache.clear();
+    }
+
     @Modified
     protected void modified(Map<String, ?> config) {
         Object injectionEnabled = config.get(CFG_INJECTION_ENABLED);
         this.injectionEnabled = injectionEnabled == null || (Boolean) injectionEnabled;
+        Object sharedEngine = config.get(CFG_SHARED_ENGINE);
+        this.sharedEngine = sharedEngine == null || (Boolean) sharedEngine;
     }
 }
@@ -15,7 +15,8 @@ package org.openhab.automation.jsscripting.internal;
 import static org.openhab.core.automation.module.script.ScriptEngineFactory.*;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
 import java.nio.file.FileSystems;
@@ -43,6 +44,7 @@ import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.Value;
 import org.openhab.automation.jsscripting.internal.fs.DelegatingFileSystem;
+import org.openhab.automation.jsscripting.internal.fs.ModuleSourceCache;
 import org.openhab.automation.jsscripting.internal.fs.PrefixedSeekableByteChannel;
 import org.openhab.automation.jsscripting.internal.fs.ReadOnlySeekableByteArrayChannel;
 import org.openhab.automation.jsscripting.internal.fs.watch.JSDependencyTracker;
@@ -67,6 +69,23 @@ public class OpenhabGraalJSScriptEngine
     private static final String REQUIRE_WRAPPER_NAME = "__wraprequire__";
     // final CommonJS search path for our library
     private static final Path NODE_DIR = Paths.get("node_modules");
+    private static final Path LIB_DIR = Paths.get(JSDependencyTracker.LIB_PATH).toAbsolutePath().normalize();
+
+    // Custom translate JS Objects - > Java Objects
+    // contexts sharing a polyglot engine must use the very same host access configuration
+    private static final HostAccess HOST_ACCESS = HostAccess.newBuilder(HostAccess.ALL)
+            // Translate JS-Joda ZonedDateTime to java.time.ZonedDateTime
+            .targetTypeMapping(Value.class, ZonedDateTime.class, (v) -> v.hasMember("withFixedOffsetZone"), v -> {
+                return ZonedDateTime.parse(v.invokeMember("withFixedOffsetZone").invokeMember("toString").asString());
+            }, HostAccess.TargetMappingPrecedence.LOW)
+
+            // Translate JS-Joda Duration to java.time.Duration
+            .targetTypeMapping(Value.class, Duration.class,
+                    // picking two members to check as Duration has many common function names
+                    (v) -> v.hasMember("minusDuration") && v.hasMember("toNanos"), v -> {
+                        return Duration.ofNanos(v.invokeMember("toNanos").asLong());
+                    }, HostAccess.TargetMappingPrecedence.LOW)
+            .build();
 
     // these fields start as null because they are populated on first use
     private @NonNullByDefault({}) String engineIdentifier;
@@ -74,35 +93,26 @@ public class OpenhabGraalJSScriptEngine
 
     private boolean initialized = false;
     private String globalScript;
+    private final ModuleSourceCache sourceCache;
+    private final long creationTime = System.nanoTime();
 
     /**
      * Creates an implementation of ScriptEngine (& Invocable), wrapping the contained engine, that tracks the script
      * lifecycle and provides hooks for scripts to do so too.
+     *
+     * @param injectionCode code to evaluate when the script engine is initialized
+     * @param engine the polyglot engine shared with other scripts, or <code>null</code> to create an own engine
+     * @param sourceCache cache for the content of library modules
      */
-    public OpenhabGraalJSScriptEngine(@Nullable String injectionCode) {
+    public OpenhabGraalJSScriptEngine(@Nullable String injectionCode, @Nullable Engine engine,
+            ModuleSourceCache sourceCache) {
         super(null); // delegate depends on fields not yet initialised, so we cannot set it immediately
         this.globalScript = GLOBAL_REQUIRE + (injectionCode != null ? injectionCode : "");
+        this.sourceCache = sourceCache;
 
-        // Custom translate JS Objects - > Java Objects
-        HostAccess hostAccess = HostAccess.newBuilder(HostAccess.ALL)
-                // Translate JS-Joda ZonedDateTime to java.time.ZonedDateTime
-                .targetTypeMapping(Value.class, ZonedDateTime.class, (v) -> v.hasMember("withFixedOffsetZone"), v -> {
-                    return ZonedDateTime
-                            .parse(v.invokeMember("withFixedOffsetZone").invokeMember("toString").asString());
-                }, HostAccess.TargetMappingPrecedence.LOW)
-
-                // Translate JS-Joda Duration to java.time.Duration
-                .targetTypeMapping(Value.class, Duration.class,
-                        // picking two members to check as Duration has many common function names
-                        (v) -> v.hasMember("minusDuration") && v.hasMember("toNanos"), v -> {
-                            return Duration.ofNanos(v.invokeMember("toNanos").asLong());
-                        }, HostAccess.TargetMappingPrecedence.LOW)
-                .build();
-
-        delegate = GraalJSScriptEngine.create(
-                Engine.newBuilder().allowExperimentalOptions(true).option("engine.WarnInterpreterOnly", "false")
-                        .build(),
-                Context.newBuilder("js").allowExperimentalOptions(true).allowAllAccess(true).allowHostAccess(hostAccess)
+        delegate = GraalJSScriptEngine.create(engine != null ? engine : createEngine(),
+                Context.newBuilder("js").allowExperimentalOptions(true).allowAllAccess(true)
+                        .allowHostAccess(HOST_ACCESS)
                         .option("js.commonjs-require-cwd", JSDependencyTracker.LIB_PATH)
                         .option("js.nashorn-compat", "true") // to ease migration
                         .option("js.ecmascript-version", "2021") // nashorn compat will enforce es5 compatibility, we
@@ -120,11 +130,13 @@ public class OpenhabGraalJSScriptEngine
                                 if (path.toString().endsWith(".js")) {
                                     SeekableByteChannel sbc = null;
                                     if (isRootNodePath(path)) {
-                                        InputStream is = getClass().getResourceAsStream(nodeFileToResource(path));
-                                        if (is == null) {
+                                        byte[] content = sourceCache.getResource(nodeFileToResource(path));
+                                        if (content == null) {
                                             throw new IOException("Could not read " + path.toString());
                                         }
-                                        sbc = new ReadOnlySeekableByteArrayChannel(is.readAllBytes());
+                                        sbc = new ReadOnlySeekableByteArrayChannel(content);
+                                    } else if (isLibraryPath(path)) {
+                                        sbc = new ReadOnlySeekableByteArrayChannel(sourceCache.getFile(path));
                                     } else {
                                         sbc = super.newByteChannel(path, options, attrs);
                                     }
@@ -166,12 +178,27 @@ public class OpenhabGraalJSScriptEngine
                         }));
     }
 
+    /**
+     * Creates a polyglot engine. Script engines sharing an engine also share the parsed and compiled code of identical
+     * sources, like the modules of the openHAB JS library.
+     *
+     * @return a new engine
+     */
+    public static Engine createEngine() {
+        return Engine.newBuilder().allowExperimentalOptions(true).option("engine.WarnInterpreterOnly", "false")
+                .build();
+    }
+
     @Override
     protected void beforeInvocation() {
         if (initialized) {
             return;
         }
 
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memoryBean.getHeapMemoryUsage().getUsed();
+        long initStart = System.nanoTime();
+
         ScriptContext ctx = delegate.getContext();
 
         // these are added post-construction, so we need to fetch them late
@@ -210,6 +237,14 @@ public class OpenhabGraalJSScriptEngine
         } catch (ScriptException e) {
             LOGGER.error("Could not inject global script", e);
         }
+
+        if (LOGGER.isDebugEnabled()) {
+            long now = System.nanoTime();
+            // the heap usage is only an estimate, it is affected by other threads and garbage collection
+            LOGGER.debug("Initialized script engine {} in {} ms ({} ms since creation), heap grew by ~{} KB",
+                    engineIdentifier, (now - initStart) / 1_000_000, (now - creationTime) / 1_000_000,
+                    (memoryBean.getHeapMemoryUsage().getUsed() - heapBefore) / 1024);
+        }
     }
 
     /**
@@ -222,6 +257,16 @@ public class OpenhabGraalJSScriptEngine
         return path.startsWith(path.getRoot().resolve(NODE_DIR));
     }
 
+    /**
+     * Tests if this is a file of the user library in the `automation/js/node_modules` folder
+     *
+     * @param path
+     * @return
+     */
+    private boolean isLibraryPath(Path path) {
+        return path.isAbsolute() && path.normalize().startsWith(LIB_DIR);
+    }
+
     /**
      * Converts a root node path to a class resource path for loading local modules
      * Ex: C:\node_modules\foo.js -> /node_modules/foo.js
@@ -67,7 +67,7 @@ public class ScriptExtensionModuleProvider {
             symbols = scriptExtensionAccessor.findPreset(name, scriptIdentifier);
         }
 
-        return Optional.of(symbols).map(this::processValues).map(v -> toValue(ctx, v));
+        return Optional.of(symbols).map(values -> processValues(values, scriptIdentifier)).map(v -> toValue(ctx, v));
     }
 
     private Value toValue(Context ctx, Map<String, Object> map) {
@@ -86,15 +86,16 @@ public class ScriptExtensionModuleProvider {
      * Some specific objects need wrapping when exposed to a GraalJS environment. This method does this.
      *
      * @param values the map of names to values of things to process
+     * @param scriptIdentifier identifier of the script the values are exposed to
      * @return a map of the processed keys and values
      */
-    private Map<String, Object> processValues(Map<String, Object> values) {
+    private Map<String, Object> processValues(Map<String, Object> values, String scriptIdentifier) {
         Map<String, Object> rv = new HashMap<>(values);
 
         for (Map.Entry<String, Object> entry : rv.entrySet()) {
             if (entry.getValue() instanceof ScriptedAutomationManager) {
                 entry.setValue(new ThreadsafeWrappingScriptedAutomationManagerDelegate(
-                        (ScriptedAutomationManager) entry.getValue()));
+                        (ScriptedAutomationManager) entry.getValue(), scriptIdentifier));
             }
         }
 
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Caches the content of library modules, so each script engine doesn't read them again when they are required.
+ * Together with a shared {@link org.graalvm.polyglot.Engine} identical module sources are only parsed once.
+ *
+ * Resources bundled with the add-on never change. Files from the user library are re-read when their size or
+ * modification time changes.
+ *
+ * @author Jonathan Gilbert - Initial contribution
+ */
+@NonNullByDefault
+public class ModuleSourceCache {
+
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+    private final Map<Path, CachedFile> files = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the content of a resource bundled with the add-on.
+     *
+     * @param resource the resource name
+     * @return the content or <code>null</code> if the resource does not exist
+     * @throws IOException if the resource can't be read
+     */
+    public byte @Nullable [] getResource(String resource) throws IOException {
+        byte[] content = resources.get(resource);
+        if (content == null) {
+            try (InputStream is = ModuleSourceCache.class.getResourceAsStream(resource)) {
+                if (is == null) {
+                    return null;
+                }
+                content = is.readAllBytes();
+            }
+            resources.put(resource, content);
+        }
+        return content;
+    }
+
+    /**
+     * Returns the content of a file, reading it only if it changed since it has been cached.
+     *
+     * @param path the file
+     * @return the content
+     * @throws IOException if the file can't be read
+     */
+    public byte[] getFile(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        CachedFile cached = files.get(path);
+        if (cached != null && cached.lastModified == lastModified && cached.content.length == size) {
+            return cached.content;
+        }
+        byte[] content = Files.readAllBytes(path);
+        files.put(path, new CachedFile(lastModified, content));
+        return content;
+    }
+
+    public void clear() {
+        resources.clear();
+        files.clear();
+    }
+
+    private static class CachedFile {
+        private final long lastModified;
+        private final byte[] content;
+
+        private CachedFile(long lastModified, byte[] content) {
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes the rule executions of one script, as the GraalJS context of a script must not be entered by several
+ * threads at once. The lock is fair, so executions run in the order they were requested and a busy rule can't starve
+ * the other rules of the script. The time executions wait in the queue is recorded, reported with the warning logged
+ * for executions that had to wait long and summarized at debug level every {@value #STATISTICS_EXECUTIONS} executions.
+ *
+ * @author Jonathan Gilbert - Initial contribution
+ */
+@NonNullByDefault
+public class ScriptLock {
+
+    private static final long SLOW_WAIT_MILLIS = 5000;
+    private static final long STATISTICS_EXECUTIONS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ScriptLock.class);
+
+    private final String scriptIdentifier;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param scriptIdentifier identifier of the script for logging
+     */
+    public ScriptLock(String scriptIdentifier) {
+        this.scriptIdentifier = scriptIdentifier;
+    }
+
+    /**
+     * Runs the given execution once all executions requested before have finished.
+     *
+     * @param name name of the execution for logging
+     * @param execution the execution
+     * @return the result of the execution
+     */
+    public <T> T execute(String name, Supplier<T> execution) {
+        long requested = System.nanoTime();
+        lock.lock();
+        try {
+            long waitNanos = System.nanoTime() - requested;
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            long count = executions.incrementAndGet();
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+            if (waitMillis >= SLOW_WAIT_MILLIS) {
+                logger.warn(
+                        "'{}' waited {} ms for other rules of script '{}' to finish ({} executions so far, average wait {} ms, max {} ms)",
+                        name, waitMillis, scriptIdentifier, count, getAverageWaitTime(), getMaxWaitTime());
+            } else {
+                logger.trace("'{}' waited {} ms, {} executions queued", name, waitMillis, lock.getQueueLength());
+            }
+            if (count % STATISTICS_EXECUTIONS == 0) {
+                logStatistics();
+            }
+            return execution.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs the number of executions and their waiting times at debug level.
+     */
+    private void logStatistics() {
+        logger.debug("Script '{}' ran {} rule executions, average wait {} ms, max wait {} ms", scriptIdentifier,
+                getExecutionCount(), getAverageWaitTime(), getMaxWaitTime());
+    }
+
+    /**
+     * @return number of executions
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * @return average time executions waited in the queue, in milliseconds
+     */
+    public long getAverageWaitTime() {
+        long count = executions.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+    }
+
+    /**
+     * @return longest time an execution waited in the queue, in milliseconds
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * @return number of executions currently waiting
+     */
+    int getQueueLength() {
+        return lock.getQueueLength();
+    }
+}
@@ -38,16 +38,16 @@ import org.openhab.core.config.core.Configuration;
 @NonNullByDefault
 class ThreadsafeSimpleRuleDelegate implements Rule, SimpleRuleActionHandler {
 
-    private final Object lock;
+    private final ScriptLock lock;
     private final SimpleRule delegate;
 
     /**
      * Constructor requires a lock object and delegate to forward invocations to.
      *
-     * @param lock rule executions will synchronize on this object
+     * @param lock rule executions will be serialized by this lock
      * @param delegate the delegate to forward invocations to
      */
-    ThreadsafeSimpleRuleDelegate(Object lock, SimpleRule delegate) {
+    ThreadsafeSimpleRuleDelegate(ScriptLock lock, SimpleRule delegate) {
         this.lock = lock;
         this.delegate = delegate;
     }
@@ -55,9 +55,7 @@ class ThreadsafeSimpleRuleDelegate implements Rule, SimpleRuleActionHandler {
     @Override
     @NonNullByDefault({})
     public Object execute(Action module, Map<String, ?> inputs) {
-        synchronized (lock) {
-            return delegate.execute(module, inputs);
-        }
+        return lock.execute(getUID(), () -> delegate.execute(module, inputs));
     }
 
     @Override
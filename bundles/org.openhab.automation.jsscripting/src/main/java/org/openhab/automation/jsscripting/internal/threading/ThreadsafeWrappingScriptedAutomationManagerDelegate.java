@@ -36,10 +36,12 @@ import org.openhab.core.automation.type.TriggerType;
 public class ThreadsafeWrappingScriptedAutomationManagerDelegate {
 
     private ScriptedAutomationManager delegate;
-    private Object lock = new Object();
+    private final ScriptLock lock;
 
-    public ThreadsafeWrappingScriptedAutomationManagerDelegate(ScriptedAutomationManager delegate) {
+    public ThreadsafeWrappingScriptedAutomationManagerDelegate(ScriptedAutomationManager delegate,
+            String scriptIdentifier) {
         this.delegate = delegate;
+        this.lock = new ScriptLock(scriptIdentifier);
     }
 
     public void removeModuleType(String UID) {
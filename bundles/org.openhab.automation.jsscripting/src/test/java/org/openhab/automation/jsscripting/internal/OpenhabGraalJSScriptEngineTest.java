@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Value;
+import org.junit.jupiter.api.Test;
+import org.openhab.automation.jsscripting.internal.fs.ModuleSourceCache;
+
+/**
+ * Tests for {@link OpenhabGraalJSScriptEngine} instances sharing one polyglot engine.
+ *
+ * @author Jonathan Gilbert - Initial contribution
+ */
+@NonNullByDefault
+public class OpenhabGraalJSScriptEngineTest {
+
+    /**
+     * Evaluates code directly in the polyglot context, without initializing the openHAB globals.
+     */
+    private static class TestScriptEngine extends OpenhabGraalJSScriptEngine {
+        private TestScriptEngine(Engine engine, ModuleSourceCache sourceCache) {
+            super(null, engine, sourceCache);
+        }
+
+        private Value evalInContext(String source) {
+            return delegate.getPolyglotContext().eval("js", source);
+        }
+    }
+
+    @Test
+    public void scriptEnginesShareOneEngine() throws Exception {
+        Engine engine = OpenhabGraalJSScriptEngine.createEngine();
+        ModuleSourceCache sourceCache = new ModuleSourceCache();
+        try (TestScriptEngine first = new TestScriptEngine(engine, sourceCache);
+                TestScriptEngine second = new TestScriptEngine(engine, sourceCache)) {
+            assertEquals(2, first.evalInContext("1 + 1").asInt());
+            assertEquals(3, second.evalInContext("1 + 2").asInt());
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    public void typeMappingsApplyToAllScriptEnginesOfAnEngine() throws Exception {
+        Engine engine = OpenhabGraalJSScriptEngine.createEngine();
+        ModuleSourceCache sourceCache = new ModuleSourceCache();
+        String jsZonedDateTime = "({ withFixedOffsetZone: () => ({ toString: () => '2022-01-01T12:00Z' }) })";
+        try (TestScriptEngine first = new TestScriptEngine(engine, sourceCache);
+                TestScriptEngine second = new TestScriptEngine(engine, sourceCache)) {
+            ZonedDateTime expected = ZonedDateTime.parse("2022-01-01T12:00Z");
+            assertEquals(expected, first.evalInContext(jsZonedDateTime).as(ZonedDateTime.class));
+            assertEquals(expected, second.evalInContext(jsZonedDateTime).as(ZonedDateTime.class));
+        } finally {
+            engine.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests for {@link ScriptLock}.
+ *
+ * @author Jonathan Gilbert - Initial contribution
+ */
+@NonNullByDefault
+@Timeout(10)
+public class ScriptLockTest {
+
+    private final ScriptLock lock = new ScriptLock("test.js");
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    @Test
+    public void executionsRunInRequestOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdLock(release);
+
+        for (String name : List.of("b", "c", "d", "e")) {
+            int queued = lock.getQueueLength();
+            start(() -> lock.execute(name, () -> executed.add(name)));
+            awaitQueueLength(queued + 1);
+        }
+
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), executed);
+        assertFalse(holder.isAlive());
+    }
+
+    @Test
+    public void queuedExecutionWaitsForRunningExecution() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        holdLock(release);
+
+        Thread waiting = start(() -> lock.execute("b", () -> executed.add("b")));
+        awaitQueueLength(1);
+
+        assertEquals(List.of("a"), executed);
+        assertTrue(waiting.isAlive());
+
+        release.countDown();
+        waiting.join();
+
+        assertEquals(List.of("a", "b"), executed);
+        assertEquals(0, lock.getQueueLength());
+    }
+
+    @Test
+    public void waitingTimesAreRecorded() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        holdLock(release);
+
+        Thread waiting = start(() -> lock.execute("b", () -> executed.add("b")));
+        awaitQueueLength(1);
+        Thread.sleep(200);
+        release.countDown();
+        waiting.join();
+
+        assertEquals(2, lock.getExecutionCount());
+        assertTrue(lock.getMaxWaitTime() >= 200);
+        assertTrue(lock.getAverageWaitTime() >= 100);
+        assertTrue(lock.getAverageWaitTime() <= lock.getMaxWaitTime());
+    }
+
+    @Test
+    public void nestedExecutionOnSameThreadDoesNotBlock() {
+        String result = lock.execute("outer", () -> lock.execute("inner", () -> "done"));
+
+        assertEquals("done", result);
+    }
+
+    @Test
+    public void failingExecutionReleasesLock() throws InterruptedException {
+        assertThrows(IllegalStateException.class, () -> lock.execute("failing", () -> {
+            throw new IllegalStateException();
+        }));
+
+        Thread other = start(() -> lock.execute("b", () -> executed.add("b")));
+        other.join();
+
+        assertEquals(List.of("b"), executed);
+    }
+
+    /**
+     * Starts an execution "a" which holds the lock until the latch is released and waits until it is running.
+     */
+    private Thread holdLock(CountDownLatch release) throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        Thread holder = start(() -> lock.execute("a", () -> {
+            executed.add("a");
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        running.await();
+        return holder;
+    }
+
+    private Thread start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    private void awaitQueueLength(int length) {
+        while (lock.getQueueLength() < length) {
+            Thread.yield();
+        }
+    }
+}
@@ -13,6 +13,10 @@
 package org.openhab.binding.knx.internal.client;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -90,6 +94,11 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> connectJob;
 
     private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
+    /**
+     * Listeners indexed by the group addresses they are interested in. The map is rebuilt on every (un)registration
+     * and replaced as a whole, so telegram dispatch can read it without locking.
+     */
+    private volatile Map<GroupAddress, List<GroupAddressListener>> groupAddressIndex = Map.of();
     private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
 
     @FunctionalInterface
@@ -257,11 +266,27 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
+        for (GroupAddressListener listener : getGroupAddressListeners(destination)) {
+            knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * @return the registered listeners interested in the given group address
+     */
+    List<GroupAddressListener> getGroupAddressListeners(GroupAddress destination) {
+        return groupAddressIndex.getOrDefault(destination, List.of());
+    }
+
+    private synchronized void rebuildGroupAddressIndex() {
+        Map<GroupAddress, List<GroupAddressListener>> index = new HashMap<>();
         for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+            for (GroupAddress groupAddress : listener.getGroupAddresses()) {
+                index.computeIfAbsent(groupAddress, ga -> new ArrayList<>(1)).add(listener);
             }
         }
+        index.replaceAll((ga, listeners) -> List.copyOf(listeners));
+        groupAddressIndex = Map.copyOf(index);
     }
 
     /**
@@ -391,12 +416,19 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     @Override
     public final boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.add(listener);
+        boolean added = groupAddressListeners.add(listener);
+        // rebuild even if the listener was already known, its group addresses might have changed
+        rebuildGroupAddressIndex();
+        return added;
     }
 
     @Override
     public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.remove(listener);
+        boolean removed = groupAddressListeners.remove(listener);
+        if (removed) {
+            rebuildGroupAddressIndex();
+        }
+        return removed;
     }
 
     @Override
@@ -25,6 +25,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.openhab.core.library.types.DateTimeType;
@@ -98,6 +101,12 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     private static final String TIME_FORMAT = new String("HH:mm:ss");
     private static final String DATE_FORMAT = new String("yyyy-MM-dd");
 
+    /**
+     * Translators are stateful and not thread-safe, but expensive to create for every telegram.
+     * Idle translators are therefore kept in a pool per datapoint type, owned by this mapper.
+     */
+    private final Map<String, Queue<DPTXlator>> translatorPool = new ConcurrentHashMap<>();
+
     /**
      * stores the openHAB type class for (supported) KNX datapoint types in a generic way.
      * dptTypeMap stores more specific type class and exceptions.
@@ -749,8 +758,12 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         }
 
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
+            DPTXlator translator = acquireTranslator(mainNumber, dptID);
+            try {
+                dpt = translator.getType();
+            } finally {
+                releaseTranslator(dptID, translator);
+            }
         } catch (KNXException e) {
             return null;
         }
@@ -839,8 +852,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        DPTXlator translator = null;
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            translator = acquireTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
             String value = translator.getValue();
 
@@ -1021,6 +1035,10 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     datapoint.getDPT());
         } catch (KNXException e) {
             logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+        } finally {
+            if (translator != null) {
+                releaseTranslator(datapoint.getDPT(), translator);
+            }
         }
 
         return null;
@@ -1153,6 +1171,31 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return result;
     }
 
+    /**
+     * Takes an idle translator for the given datapoint type from the pool, or creates one if there is none.
+     * It must be given back with {@link #releaseTranslator(String, DPTXlator)} once it is not used anymore.
+     *
+     * @param mainNumber the main number of the datapoint type, or 0 to take it from the ID
+     * @param dptID the datapoint type ID
+     * @return the translator
+     * @throws KNXException if there is no translator for the datapoint type
+     */
+    private DPTXlator acquireTranslator(int mainNumber, String dptID) throws KNXException {
+        Queue<DPTXlator> translators = translatorPool.get(dptID);
+        DPTXlator translator = translators != null ? translators.poll() : null;
+        return translator != null ? translator : TranslatorTypes.createTranslator(mainNumber, dptID);
+    }
+
+    /**
+     * Returns a translator to the pool.
+     *
+     * @param dptID the datapoint type ID the translator was acquired for
+     * @param translator the translator
+     */
+    private void releaseTranslator(String dptID, DPTXlator translator) {
+        translatorPool.computeIfAbsent(dptID, id -> new ConcurrentLinkedQueue<>()).offer(translator);
+    }
+
     /**
      * Retrieves main number from a DTP ID such as "14.001"
      *
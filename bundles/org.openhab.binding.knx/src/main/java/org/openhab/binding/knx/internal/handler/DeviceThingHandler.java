@@ -69,7 +69,10 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private final Logger logger = LoggerFactory.getLogger(DeviceThingHandler.class);
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
-    private final Set<GroupAddress> groupAddresses = new HashSet<>();
+    /**
+     * Replaced as a whole, as the client reads it on other threads when (un)registering handlers.
+     */
+    private volatile Set<GroupAddress> groupAddresses = Set.of();
     private final Set<GroupAddress> groupAddressesWriteBlockedOnce = new HashSet<>();
     private final Set<OutboundSpec> groupAddressesRespondingSpec = new HashSet<>();
     private final Map<GroupAddress, ScheduledFuture<?>> readFutures = new HashMap<>();
@@ -82,18 +85,21 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
 
     @Override
     public void initialize() {
-        super.initialize();
         DeviceConfig config = getConfigAs(DeviceConfig.class);
         readInterval = config.getReadInterval().intValue();
         initializeGroupAddresses();
+        // register with the client only once the group addresses are known, they are indexed on registration
+        super.initialize();
     }
 
     private void initializeGroupAddresses() {
+        Set<GroupAddress> addresses = new HashSet<>();
         forAllChannels((selector, channelConfiguration) -> {
-            groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
+            addresses.addAll(selector.getReadAddresses(channelConfiguration));
+            addresses.addAll(selector.getWriteAddresses(channelConfiguration));
+            addresses.addAll(selector.getListenAddresses(channelConfiguration));
         });
+        groupAddresses = Set.copyOf(addresses);
     }
 
     @Override
@@ -113,7 +119,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     }
 
     private void freeGroupAdresses() {
-        groupAddresses.clear();
+        groupAddresses = Set.of();
         groupAddressesWriteBlockedOnce.clear();
         groupAddressesRespondingSpec.clear();
     }
@@ -216,6 +222,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         return groupAddresses.contains(destination);
     }
 
+    @Override
+    public Set<GroupAddress> getGroupAddresses() {
+        return groupAddresses;
+    }
+
     /** KNXIO remember controls, removeIf may be null */
     @SuppressWarnings("null")
     private void rememberRespondingSpec(OutboundSpec commandSpec, boolean add) {
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.knx.internal.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
@@ -33,4 +35,10 @@ public interface GroupAddressListener extends BusMessageListener {
      * @param destination
      */
     public boolean listensTo(GroupAddress destination);
+
+    /**
+     * Returns all GroupAddresses the GroupAddressListener has an interest in. Used by the client to route incoming
+     * telegrams, so it is queried whenever the listener is (re-)registered.
+     */
+    public Set<GroupAddress> getGroupAddresses();
 }
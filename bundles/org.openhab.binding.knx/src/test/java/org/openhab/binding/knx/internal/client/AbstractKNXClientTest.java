@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+import org.openhab.core.thing.ThingUID;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+
+/**
+ * Tests the group address index of the {@link AbstractKNXClient}.
+ *
+ * @author Simon Kaufmann - Initial contribution
+ */
+@NonNullByDefault
+public class AbstractKNXClientTest {
+
+    private static final GroupAddress GA_1 = new GroupAddress(1, 2, 3);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 2, 4);
+    private static final GroupAddress GA_3 = new GroupAddress(4, 5, 6);
+
+    private @NonNullByDefault({}) AbstractKNXClient client;
+
+    @BeforeEach
+    public void setUp() {
+        client = new AbstractKNXClient(0, new ThingUID("knx", "ip", "test"), 0, 0, 0,
+                mock(ScheduledExecutorService.class), mock(StatusUpdateCallback.class)) {
+            @Override
+            protected KNXNetworkLink establishConnection() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Test
+    public void testRegisteredListenerIsIndexedByItsGroupAddresses() {
+        GroupAddressListener listener = listener(GA_1, GA_2);
+
+        assertTrue(client.registerGroupAddressListener(listener));
+
+        assertEquals(List.of(listener), client.getGroupAddressListeners(GA_1));
+        assertEquals(List.of(listener), client.getGroupAddressListeners(GA_2));
+        assertEquals(List.of(), client.getGroupAddressListeners(GA_3));
+    }
+
+    @Test
+    public void testGroupAddressWithMultipleListeners() {
+        GroupAddressListener first = listener(GA_1, GA_2);
+        GroupAddressListener second = listener(GA_1, GA_3);
+
+        client.registerGroupAddressListener(first);
+        client.registerGroupAddressListener(second);
+
+        List<GroupAddressListener> listeners = client.getGroupAddressListeners(GA_1);
+        assertEquals(2, listeners.size());
+        assertTrue(listeners.containsAll(List.of(first, second)));
+        assertEquals(List.of(first), client.getGroupAddressListeners(GA_2));
+        assertEquals(List.of(second), client.getGroupAddressListeners(GA_3));
+    }
+
+    @Test
+    public void testUnregisteredListenerIsRemovedFromIndex() {
+        GroupAddressListener first = listener(GA_1, GA_2);
+        GroupAddressListener second = listener(GA_1);
+        client.registerGroupAddressListener(first);
+        client.registerGroupAddressListener(second);
+
+        assertTrue(client.unregisterGroupAddressListener(first));
+        assertFalse(client.unregisterGroupAddressListener(first));
+
+        assertEquals(List.of(second), client.getGroupAddressListeners(GA_1));
+        assertEquals(List.of(), client.getGroupAddressListeners(GA_2));
+
+        client.unregisterGroupAddressListener(second);
+
+        assertEquals(List.of(), client.getGroupAddressListeners(GA_1));
+    }
+
+    @Test
+    public void testRegisteringAgainUpdatesGroupAddresses() {
+        GroupAddressListener listener = listener(GA_1);
+        client.registerGroupAddressListener(listener);
+
+        when(listener.getGroupAddresses()).thenReturn(Set.of(GA_2));
+        assertFalse(client.registerGroupAddressListener(listener));
+
+        assertEquals(List.of(), client.getGroupAddressListeners(GA_1));
+        assertEquals(List.of(listener), client.getGroupAddressListeners(GA_2));
+    }
+
+    private static GroupAddressListener listener(GroupAddress... groupAddresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(Set.of(groupAddresses));
+        return listener;
+    }
+}
@@ -14,11 +14,24 @@ package org.openhab.binding.knx.internal.dpt;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.types.Type;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
 
 /**
  *
@@ -278,4 +291,68 @@ public class KNXCoreTypeMapperTest {
         assertEquals("42.0", new KNXCoreTypeMapper().toDPTValue(new QuantityType<>("42 VAh"), "29.011"));
         assertEquals("42.0", new KNXCoreTypeMapper().toDPTValue(new QuantityType<>("42 varh"), "29.012"));
     }
+
+    @Test
+    @SuppressWarnings("null")
+    public void testToTypeTelegramReplay() {
+        // translators are reused across telegrams, interleave datapoint types as they appear on a real bus
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint switchDp = new CommandDP(new GroupAddress(1, 0, 1), "switch", 0, "1.001");
+        Datapoint scalingDp = new CommandDP(new GroupAddress(1, 0, 2), "scaling", 0, "5.001");
+        Datapoint temperatureDp = new CommandDP(new GroupAddress(1, 0, 3), "temperature", 0, "9.001");
+
+        for (int i = 0; i < 1000; i++) {
+            Type onOff = mapper.toType(switchDp, new byte[] { (byte) (i % 2) });
+            assertEquals(i % 2 == 1 ? OnOffType.ON : OnOffType.OFF, onOff);
+
+            Type percent = mapper.toType(scalingDp, new byte[] { (byte) (i % 2 == 0 ? 0xFF : 0x80) });
+            assertEquals(i % 2 == 0 ? 100 : 50, ((PercentType) percent).intValue());
+
+            // 0x0C1A encodes 21.0 °C, 0x0000 encodes 0 °C
+            byte[] temperatureData = i % 3 == 0 ? new byte[] { 0x0C, 0x1A } : new byte[] { 0x00, 0x00 };
+            Type temperature = mapper.toType(temperatureDp, temperatureData);
+            assertEquals(i % 3 == 0 ? 21.0 : 0.0, ((DecimalType) temperature).doubleValue(), 0.001);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    public void testToTypeAfterInvalidTelegram() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint temperatureDp = new CommandDP(new GroupAddress(1, 0, 3), "temperature", 0, "9.001");
+
+        assertEquals(21.0, ((DecimalType) mapper.toType(temperatureDp, new byte[] { 0x0C, 0x1A })).doubleValue(),
+                0.001);
+        assertNull(mapper.toType(temperatureDp, new byte[] { 0x0C }));
+        assertEquals(0.0, ((DecimalType) mapper.toType(temperatureDp, new byte[] { 0x00, 0x00 })).doubleValue(),
+                0.001);
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    public void testToTypeConcurrently() throws Exception {
+        // threads decoding the same datapoint type must not share a translator
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint temperatureDp = new CommandDP(new GroupAddress(1, 0, 3), "temperature", 0, "9.001");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                // 0x0C1A encodes 21.0 °C, 0x0000 encodes 0 °C
+                final byte[] temperatureData = t % 2 == 0 ? new byte[] { 0x0C, 0x1A } : new byte[] { 0x00, 0x00 };
+                final double expected = t % 2 == 0 ? 21.0 : 0.0;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        Type temperature = mapper.toType(temperatureDp, temperatureData);
+                        assertEquals(expected, ((DecimalType) temperature).doubleValue(), 0.001);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
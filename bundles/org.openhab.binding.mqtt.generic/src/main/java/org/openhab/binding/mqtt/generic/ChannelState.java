@@ -12,7 +12,6 @@
  */
 package org.openhab.binding.mqtt.generic;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.IllegalFormatException;
 import java.util.List;
@@ -26,6 +25,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.values.TextValue;
 import org.openhab.binding.mqtt.generic.values.Value;
+import org.openhab.binding.mqtt.handler.MqttTopicDispatcher;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.library.types.StringType;
@@ -55,6 +55,8 @@ public class ChannelState implements MqttMessageSubscriber {
 
     // Runtime variables
     private @Nullable MqttBrokerConnection connection;
+    private @Nullable MqttTopicDispatcher topicDispatcher;
+    private @Nullable PayloadContextCache payloadContextCache;
     protected final List<ChannelStateTransformation> transformationsIn = new ArrayList<>();
     protected final List<ChannelStateTransformation> transformationsOut = new ArrayList<>();
     private @Nullable ChannelStateUpdateListener channelStateUpdateListener;
@@ -169,10 +171,15 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
-        // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
+        // String value: Apply transformations. The first one works on the payload text shared by all channels.
+        final PayloadContextCache payloadContextCache = this.payloadContextCache;
+        PayloadContext payloadContext = payloadContextCache != null ? payloadContextCache.get(topic, payload)
+                : new PayloadContext(payload);
+        String strValue = payloadContext.getText();
+        boolean first = true;
         for (ChannelStateTransformation t : transformationsIn) {
-            String transformedValue = t.processValue(strValue);
+            String transformedValue = first ? payloadContext.transform(t) : t.processValue(strValue);
+            first = false;
             if (transformedValue != null) {
                 strValue = transformedValue;
             } else {
@@ -259,7 +266,11 @@ public class ChannelState implements MqttMessageSubscriber {
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
         if (connection != null && !config.stateTopic.isBlank()) {
-            return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+            final MqttTopicDispatcher topicDispatcher = dispatcherFor(connection);
+            CompletableFuture<Boolean> unsubscribed = topicDispatcher != null
+                    ? topicDispatcher.unsubscribe(config.stateTopic, this)
+                    : connection.unsubscribe(config.stateTopic, this);
+            return unsubscribed.thenRun(this::internalStop);
         } else {
             internalStop();
             return CompletableFuture.completedFuture(null);
@@ -319,7 +330,11 @@ public class ChannelState implements MqttMessageSubscriber {
 
             this.future = new CompletableFuture<>();
         }
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        final MqttTopicDispatcher topicDispatcher = dispatcherFor(connection);
+        CompletableFuture<Boolean> subscribed = topicDispatcher != null
+                ? topicDispatcher.subscribe(config.stateTopic, this, !config.trigger)
+                : connection.subscribe(config.stateTopic, this);
+        subscribed.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -331,6 +346,30 @@ public class ChannelState implements MqttMessageSubscriber {
         return future;
     }
 
+    private @Nullable MqttTopicDispatcher dispatcherFor(MqttBrokerConnection connection) {
+        final MqttTopicDispatcher topicDispatcher = this.topicDispatcher;
+        return topicDispatcher != null && topicDispatcher.getConnection() == connection ? topicDispatcher : null;
+    }
+
+    /**
+     * Sets the dispatcher to subscribe with instead of subscribing to the broker connection directly. It is only used
+     * if it belongs to the connection given to {@link #start(MqttBrokerConnection, ScheduledExecutorService, int)}.
+     *
+     * @param topicDispatcher The topic dispatcher of the broker, or null to subscribe to the connection directly
+     */
+    public void setTopicDispatcher(@Nullable MqttTopicDispatcher topicDispatcher) {
+        this.topicDispatcher = topicDispatcher;
+    }
+
+    /**
+     * Sets the cache to share decoded messages and transformation results with other channel states.
+     *
+     * @param payloadContextCache The cache of the thing handler, or null to decode every message on its own
+     */
+    public void setPayloadContextCache(@Nullable PayloadContextCache payloadContextCache) {
+        this.payloadContextCache = payloadContextCache;
+    }
+
     /**
      * Return true if this channel has subscribed to its MQTT topics.
      * You need to call {@link #start(MqttBrokerConnection, ScheduledExecutorService, int)} and
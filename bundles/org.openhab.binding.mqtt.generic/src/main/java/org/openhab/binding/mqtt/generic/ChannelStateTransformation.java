@@ -13,6 +13,7 @@
 package org.openhab.binding.mqtt.generic;
 
 import java.lang.ref.WeakReference;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -28,6 +29,8 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class ChannelStateTransformation {
+    private static final Set<String> CACHEABLE_SERVICES = Set.of("JSONPATH", "REGEX");
+
     private final Logger logger = LoggerFactory.getLogger(ChannelStateTransformation.class);
     private final TransformationServiceProvider provider;
     private WeakReference<@Nullable TransformationService> transformationService = new WeakReference<>(null);
@@ -70,6 +73,14 @@ public class ChannelStateTransformation {
         this.provider = provider;
     }
 
+    /**
+     * Returns true if this transformation has no side effects and its result only depends on the pattern and the
+     * value, so that one result can be shared by all channels receiving the same message.
+     */
+    public boolean isCacheable() {
+        return CACHEABLE_SERVICES.contains(serviceName);
+    }
+
     /**
      * Will be called by the {@link ChannelState} for each incoming MQTT value.
      *
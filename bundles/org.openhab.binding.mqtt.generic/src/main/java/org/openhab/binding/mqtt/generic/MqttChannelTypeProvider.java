@@ -114,6 +114,17 @@ public class MqttChannelTypeProvider implements ThingTypeProvider, ChannelGroupT
         types.put(uid, type);
     }
 
+    /**
+     * Adds or replaces many channel group types and channel types in one update.
+     *
+     * @param groupTypes The channel group types
+     * @param channelTypes The channel types
+     */
+    public void setTypes(Collection<ChannelGroupType> groupTypes, Collection<ChannelType> channelTypes) {
+        groupTypes.forEach(type -> groups.put(type.getUID(), type));
+        channelTypes.forEach(type -> types.put(type.getUID(), type));
+    }
+
     public void removeThingType(ThingTypeUID uid) {
         things.remove(uid);
     }
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The decoded form of one received MQTT message, shared by all {@link ChannelState}s subscribed to its topic.
+ *
+ * The broker connection hands the same payload array to every subscriber of a topic. With a
+ * {@link PayloadContextCache}, the first channel state decodes it, the others reuse the text and the results of
+ * side-effect free transformations (see {@link ChannelStateTransformation#isCacheable()}). Passing the very same
+ * string instance to the transformation services also lets their own caches, like the parsed documents of JSONPATH,
+ * hit without comparing the content.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class PayloadContext {
+    private final byte[] payload;
+    private final String text;
+    private final Map<String, Optional<String>> transformationResults = new ConcurrentHashMap<>();
+    private final @Nullable PayloadContextCache cache;
+
+    /**
+     * Creates the context of a received message. Use a {@link PayloadContextCache} to share it between channels.
+     *
+     * @param payload The payload of the message
+     */
+    public PayloadContext(byte[] payload) {
+        this(payload, null);
+    }
+
+    /**
+     * Creates the context of a received message that is shared through a cache.
+     *
+     * @param payload The payload of the message
+     * @param cache The cache that counts the shared transformation results, or null
+     */
+    PayloadContext(byte[] payload, @Nullable PayloadContextCache cache) {
+        this.payload = payload;
+        this.text = new String(payload, StandardCharsets.UTF_8);
+        this.cache = cache;
+    }
+
+    /**
+     * @return The payload this context was created for
+     */
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return The payload decoded as UTF-8 text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Applies a transformation to the text of this message. Results of cacheable transformations are shared with
+     * the other channel states receiving this message.
+     *
+     * @param transformation The transformation
+     * @return The transformed value or null if the transformation failed
+     */
+    public @Nullable String transform(ChannelStateTransformation transformation) {
+        if (!transformation.isCacheable()) {
+            return transformation.processValue(text);
+        }
+        String key = transformation.serviceName + ":" + transformation.pattern;
+        Optional<String> result = transformationResults.get(key);
+        if (result == null) {
+            result = Optional.ofNullable(transformation.processValue(text));
+            transformationResults.put(key, result);
+        } else {
+            final PayloadContextCache cache = this.cache;
+            if (cache != null) {
+                cache.transformationAvoided();
+            }
+        }
+        return result.orElse(null);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Keeps the {@link PayloadContext} of the last message of each topic, so that the {@link ChannelState}s sharing this
+ * cache decode a message and apply its cacheable transformations only once. A thing handler owns one cache for its
+ * channel states.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class PayloadContextCache {
+    private static final int MAX_TOPICS = 256;
+
+    private final Map<String, PayloadContext> lastContextByTopic = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, PayloadContext> eldest) {
+            return size() > MAX_TOPICS;
+        }
+    };
+    private final AtomicLong decodesAvoided = new AtomicLong();
+    private final AtomicLong transformationsAvoided = new AtomicLong();
+
+    /**
+     * Returns the context of a received message. It is shared as long as the same payload array is passed in.
+     *
+     * @param topic The topic the message was received on
+     * @param payload The payload of the message
+     * @return The context for this message
+     */
+    public PayloadContext get(String topic, byte[] payload) {
+        synchronized (lastContextByTopic) {
+            PayloadContext context = lastContextByTopic.get(topic);
+            if (context != null && context.getPayload() == payload) {
+                decodesAvoided.incrementAndGet();
+                return context;
+            }
+        }
+        // decode outside of the lock
+        PayloadContext context = new PayloadContext(payload, this);
+        synchronized (lastContextByTopic) {
+            lastContextByTopic.put(topic, context);
+        }
+        return context;
+    }
+
+    void transformationAvoided() {
+        transformationsAvoided.incrementAndGet();
+    }
+
+    /**
+     * @return The number of times a payload did not need to be decoded again
+     */
+    public long getDecodesAvoided() {
+        return decodesAvoided.get();
+    }
+
+    /**
+     * @return The number of times a transformation result was shared instead of being evaluated again
+     */
+    public long getTransformationsAvoided() {
+        return transformationsAvoided.get();
+    }
+
+    /**
+     * Removes all cached messages. The counters are kept.
+     */
+    public void clear() {
+        synchronized (lastContextByTopic) {
+            lastContextByTopic.clear();
+        }
+    }
+}
@@ -18,6 +18,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -27,10 +29,13 @@ import org.openhab.binding.mqtt.generic.ChannelConfig;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
+import org.openhab.binding.mqtt.generic.PayloadContextCache;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.binding.mqtt.generic.values.ValueFactory;
+import org.openhab.binding.mqtt.handler.AbstractBrokerHandler;
+import org.openhab.binding.mqtt.handler.MqttTopicDispatcher;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
@@ -49,10 +54,14 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements ChannelStateUpdateListener {
+    private static final int PAYLOAD_STATISTICS_INTERVAL = 5; /* interval in minutes */
+
     private final Logger logger = LoggerFactory.getLogger(GenericMQTTThingHandler.class);
     final Map<ChannelUID, ChannelState> channelStateByChannelUID = new HashMap<>();
     protected final MqttChannelStateDescriptionProvider stateDescProvider;
     protected final TransformationServiceProvider transformationServiceProvider;
+    private final PayloadContextCache payloadContexts = new PayloadContextCache();
+    private @Nullable ScheduledFuture<?> payloadStatisticsJob;
 
     /**
      * Creates a new Thing handler for generic MQTT channels.
@@ -85,16 +94,45 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
         // availability topics are also started asynchronously, so no problem here
         clearAllAvailabilityTopics();
         initializeAvailabilityTopicsFromConfig();
-        return channelStateByChannelUID.values().stream().map(c -> c.start(connection, scheduler, 0))
-                .collect(FutureCollector.allOf()).thenRun(this::calculateThingStatus);
+        final AbstractBrokerHandler bridgeHandler = getBridgeHandler();
+        final MqttTopicDispatcher topicDispatcher = bridgeHandler != null ? bridgeHandler.getTopicDispatcher() : null;
+        cancelPayloadStatisticsJob();
+        payloadStatisticsJob = scheduler.scheduleWithFixedDelay(this::logPayloadStatistics,
+                PAYLOAD_STATISTICS_INTERVAL, PAYLOAD_STATISTICS_INTERVAL, TimeUnit.MINUTES);
+        return channelStateByChannelUID.values().stream().map(c -> {
+            c.setTopicDispatcher(topicDispatcher);
+            c.setPayloadContextCache(payloadContexts);
+            return c.start(connection, scheduler, 0);
+        }).collect(FutureCollector.allOf()).thenRun(this::calculateThingStatus);
     }
 
     @Override
     protected void stop() {
+        cancelPayloadStatisticsJob();
         channelStateByChannelUID.values().forEach(c -> c.getCache().resetState());
+        payloadContexts.clear();
         super.stop();
     }
 
+    private void cancelPayloadStatisticsJob() {
+        final ScheduledFuture<?> payloadStatisticsJob = this.payloadStatisticsJob;
+        if (payloadStatisticsJob != null) {
+            payloadStatisticsJob.cancel(false);
+            this.payloadStatisticsJob = null;
+        }
+    }
+
+    /**
+     * Logs how many payload decodes and transformations the channels of this thing shared, if debug logging is
+     * enabled.
+     */
+    private void logPayloadStatistics() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Thing {}: {} payload decodes and {} transformations avoided by sharing received messages",
+                    thing.getUID(), payloadContexts.getDecodesAvoided(), payloadContexts.getTransformationsAvoided());
+        }
+    }
+
     @Override
     public void dispose() {
         // Remove all state descriptions of this handler
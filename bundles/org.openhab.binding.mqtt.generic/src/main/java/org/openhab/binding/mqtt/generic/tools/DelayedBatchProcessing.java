@@ -13,59 +13,118 @@
 package org.openhab.binding.mqtt.generic.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Collects objects over time until a specified delay passed by.
+ * Collects objects over time until a specified delay passed by without a new object.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * <p>
+ * Objects are collected in a lock-free queue and at most one timer is pending at any time: Instead of rescheduling
+ * the timer for every object, the timer checks on expiry whether objects arrived in the meantime and, if so, waits
+ * for the remaining delay. A burst of many objects therefore costs a handful of scheduler operations. To not
+ * postpone the delivery forever while objects keep arriving, a batch is delivered after a maximum latency at the
+ * latest.
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
  */
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
-    private final int delay;
+    /** The default maximum latency of a batch, as a multiple of the delay */
+    public static final int DEFAULT_MAX_LATENCY_FACTOR = 10;
+
+    private final long delayNanos;
+    private final long maxLatencyNanos;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
     private final ScheduledExecutorService executor;
+    private final LongSupplier nanoClock;
     protected final AtomicReference<@Nullable ScheduledFuture<?>> futureRef = new AtomicReference<>();
 
+    private volatile long batchStartNanos;
+    private volatile long lastAcceptNanos;
+
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} with a maximum latency of {@link #DEFAULT_MAX_LATENCY_FACTOR} times
+     * the delay.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
-        this.delay = delay;
-        this.consumer = consumer;
-        this.executor = executor;
+        this(delay, (long) delay * DEFAULT_MAX_LATENCY_FACTOR, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxLatency The maximum time in milliseconds from the first object of a batch until it is delivered
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, long maxLatency, Consumer<List<T>> consumer,
+            ScheduledExecutorService executor) {
+        this(delay, maxLatency, consumer, executor, System::nanoTime);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing} that measures time with the given clock.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxLatency The maximum time in milliseconds from the first object of a batch until it is delivered
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     * @param nanoClock A monotonic clock in nanoseconds, like {@link System#nanoTime()}
+     */
+    DelayedBatchProcessing(int delay, long maxLatency, Consumer<List<T>> consumer, ScheduledExecutorService executor,
+            LongSupplier nanoClock) {
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxLatency < delay) {
+            throw new IllegalArgumentException("The maximum latency must not be smaller than the delay!");
+        }
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatency);
+        this.consumer = consumer;
+        this.executor = executor;
+        this.nanoClock = nanoClock;
     }
 
     /**
      * Add new object to the batch process list. Every time a new object is received,
-     * the delay timer is rescheduled.
+     * the delivery is postponed by the delay, but not beyond the maximum latency.
      *
      * @param t An object
      */
     @Override
     public void accept(T t) {
         queue.add(t);
-        cancel(futureRef.getAndSet(executor.schedule(this::run, delay, TimeUnit.MILLISECONDS)));
+        long now = nanoClock.getAsLong();
+        lastAcceptNanos = now;
+        if (futureRef.get() == null) {
+            batchStartNanos = now;
+            ScheduledFuture<?> future = executor.schedule(this::timerExpired, delayNanos, TimeUnit.NANOSECONDS);
+            if (!futureRef.compareAndSet(null, future)) {
+                // another thread armed the timer concurrently
+                future.cancel(false);
+            }
+        }
     }
 
     /**
@@ -75,12 +134,7 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      */
     public List<T> join() {
         cancel(futureRef.getAndSet(null));
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
-        }
-        return lqueue;
+        return drain();
     }
 
     /**
@@ -99,18 +153,37 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
         run();
     }
 
-    private void run() {
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+    private void timerExpired() {
+        long now = nanoClock.getAsLong();
+        long remainingDelay = delayNanos - (now - lastAcceptNanos);
+        long remainingLatency = maxLatencyNanos - (now - batchStartNanos);
+        if (remainingDelay > 0 && remainingLatency > 0) {
+            // objects arrived after the timer was armed, wait for the rest of the delay
+            futureRef.set(executor.schedule(this::timerExpired, Math.min(remainingDelay, remainingLatency),
+                    TimeUnit.NANOSECONDS));
+            return;
         }
+        // objects accepted from now on arm a new timer
+        futureRef.set(null);
+        run();
+    }
 
+    private void run() {
+        List<T> lqueue = drain();
         if (!lqueue.isEmpty()) {
             consumer.accept(lqueue);
         }
     }
 
+    private List<T> drain() {
+        List<T> lqueue = new ArrayList<>();
+        T t;
+        while ((t = queue.poll()) != null) {
+            lqueue.add(t);
+        }
+        return lqueue;
+    }
+
     private static void cancel(@Nullable ScheduledFuture<?> future) {
         if (future != null) {
             future.cancel(false);
@@ -30,6 +30,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.openhab.binding.mqtt.generic.internal.handler.GenericMQTTThingHandler;
+import org.openhab.binding.mqtt.generic.values.TextValue;
 import org.openhab.binding.mqtt.handler.AbstractBrokerHandler;
 import org.openhab.core.config.core.Configuration;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -120,4 +121,55 @@ public class ChannelStateTransformationTests {
         verify(callbackMock).stateUpdated(eq(TEXT_CHANNEL_UID), argThat(arg -> "23.2".equals(arg.toString())));
         assertThat(channelConfig.getCache().getChannelState().toString(), is("23.2"));
     }
+
+    @Test
+    public void sharePayloadContextAcrossChannels() throws Exception {
+        when(jsonPathServiceMock.transform(JSON_PATH_PATTERN, JSON_PATH_JSON)).thenReturn("23.2");
+        ChannelStateUpdateListener listener = mock(ChannelStateUpdateListener.class);
+        ChannelConfig config = ChannelConfigBuilder.create("sharedtopic", null).build();
+        ChannelState first = new ChannelState(config, TEXT_CHANNEL_UID, new TextValue(), listener);
+        ChannelState second = new ChannelState(config, TEXT_CHANNEL_UID, new TextValue(), listener);
+        first.addTransformation(
+                new ChannelStateTransformation("JSONPATH", JSON_PATH_PATTERN, transformationServiceProviderMock));
+        second.addTransformation(
+                new ChannelStateTransformation("JSONPATH", JSON_PATH_PATTERN, transformationServiceProviderMock));
+        PayloadContextCache payloadContexts = new PayloadContextCache();
+        first.setPayloadContextCache(payloadContexts);
+        second.setPayloadContextCache(payloadContexts);
+
+        byte[] payload = JSON_PATH_JSON.getBytes();
+        first.processMessage("sharedtopic", payload);
+        second.processMessage("sharedtopic", payload);
+
+        verify(jsonPathServiceMock, times(1)).transform(JSON_PATH_PATTERN, JSON_PATH_JSON);
+        assertThat(second.getCache().getChannelState().toString(), is("23.2"));
+        assertThat(payloadContexts.getDecodesAvoided(), is(1L));
+        assertThat(payloadContexts.getTransformationsAvoided(), is(1L));
+
+        // a new message is decoded and transformed again
+        first.processMessage("sharedtopic", JSON_PATH_JSON.getBytes());
+        verify(jsonPathServiceMock, times(2)).transform(JSON_PATH_PATTERN, JSON_PATH_JSON);
+        assertThat(payloadContexts.getDecodesAvoided(), is(1L));
+        assertThat(payloadContexts.getTransformationsAvoided(), is(1L));
+    }
+
+    @Test
+    public void transformEachMessageWithoutPayloadContextCache() throws Exception {
+        when(jsonPathServiceMock.transform(JSON_PATH_PATTERN, JSON_PATH_JSON)).thenReturn("23.2");
+        ChannelStateUpdateListener listener = mock(ChannelStateUpdateListener.class);
+        ChannelConfig config = ChannelConfigBuilder.create("sharedtopic", null).build();
+        ChannelState first = new ChannelState(config, TEXT_CHANNEL_UID, new TextValue(), listener);
+        ChannelState second = new ChannelState(config, TEXT_CHANNEL_UID, new TextValue(), listener);
+        first.addTransformation(
+                new ChannelStateTransformation("JSONPATH", JSON_PATH_PATTERN, transformationServiceProviderMock));
+        second.addTransformation(
+                new ChannelStateTransformation("JSONPATH", JSON_PATH_PATTERN, transformationServiceProviderMock));
+
+        byte[] payload = JSON_PATH_JSON.getBytes();
+        first.processMessage("sharedtopic", payload);
+        second.processMessage("sharedtopic", payload);
+
+        verify(jsonPathServiceMock, times(2)).transform(JSON_PATH_PATTERN, JSON_PATH_JSON);
+        assertThat(second.getCache().getChannelState().toString(), is("23.2"));
+    }
 }
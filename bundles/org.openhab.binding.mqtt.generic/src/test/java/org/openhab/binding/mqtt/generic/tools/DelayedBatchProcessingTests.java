@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests cases for {@link DelayedBatchProcessing}. Time is simulated: the timer is scheduled on a mocked executor and
+ * run by {@link #advanceTo(long)} once the simulated clock reaches its due time.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class DelayedBatchProcessingTests {
+    private static final int BURST_SIZE = 10_000;
+
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private long nowNanos;
+    private @Nullable Runnable timer;
+    private long timerDueNanos;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            assertNull(timer, "only one timer may be pending");
+            timer = invocation.getArgument(0);
+            timerDueNanos = nowNanos + invocation.<TimeUnit> getArgument(2).toNanos(invocation.<Long> getArgument(1));
+            return mock(ScheduledFuture.class);
+        });
+    }
+
+    private DelayedBatchProcessing<Integer> createProcessing(int delay, long maxLatency) {
+        return new DelayedBatchProcessing<>(delay, maxLatency, batches::add, scheduler, () -> nowNanos);
+    }
+
+    /**
+     * Moves the simulated clock forward and runs the timer if it is due.
+     */
+    private void advanceTo(long millis) {
+        nowNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        Runnable dueTimer = timer;
+        while (dueTimer != null && timerDueNanos <= nowNanos) {
+            timer = null;
+            dueTimer.run();
+            dueTimer = timer;
+        }
+    }
+
+    @Test
+    public void burstIsDeliveredAsOneBatch() {
+        DelayedBatchProcessing<Integer> processing = createProcessing(200, 2000);
+
+        for (int i = 0; i < BURST_SIZE; i++) {
+            processing.accept(i);
+        }
+        assertTrue(processing.isArmed());
+        // the whole burst arms the timer once
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        advanceTo(199);
+        assertThat(batches.size(), is(0));
+
+        advanceTo(200);
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).size(), is(BURST_SIZE));
+        assertThat(batches.get(0).get(BURST_SIZE - 1), is(BURST_SIZE - 1));
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void lateObjectPostponesDeliveryByRemainingDelay() {
+        DelayedBatchProcessing<Integer> processing = createProcessing(200, 2000);
+
+        processing.accept(1);
+        advanceTo(150);
+        processing.accept(2);
+
+        // the timer expires and waits for the rest of the delay after the second object
+        advanceTo(200);
+        assertThat(batches.size(), is(0));
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.MILLISECONDS.toNanos(150)),
+                eq(TimeUnit.NANOSECONDS));
+
+        advanceTo(349);
+        assertThat(batches.size(), is(0));
+        advanceTo(350);
+        assertThat(batches, is(List.of(List.of(1, 2))));
+
+        // the next object arms a new timer
+        processing.accept(3);
+        assertNotNull(timer);
+    }
+
+    @Test
+    public void continuousObjectsAreDeliveredAfterMaxLatency() {
+        DelayedBatchProcessing<Integer> processing = createProcessing(100, 300);
+
+        // an object every 50 ms never leaves a gap of the delay
+        for (int t = 0; t < 300; t += 50) {
+            advanceTo(t);
+            processing.accept(t);
+        }
+        assertThat(batches.size(), is(0));
+
+        advanceTo(300);
+        assertThat(batches, is(List.of(List.of(0, 50, 100, 150, 200, 250))));
+    }
+
+    @Test
+    public void joinReturnsQueuedObjects() {
+        DelayedBatchProcessing<Integer> processing = createProcessing(10_000, 100_000);
+        processing.accept(1);
+        processing.accept(2);
+
+        assertThat(processing.join(), is(List.of(1, 2)));
+        assertThat(processing.isArmed(), is(false));
+        processing.forceProcessNow();
+        assertThat(batches.size(), is(0));
+    }
+}
@@ -102,6 +102,10 @@ public class ComponentChannel {
         return channelState.start(connection, scheduler, timeout);
     }
 
+    public ChannelType getType() {
+        return type;
+    }
+
     public void addChannelTypes(MqttChannelTypeProvider channelTypeProvider) {
         channelTypeProvider.setChannelType(channelTypeUID, type);
     }
@@ -68,6 +68,17 @@ public class DiscoverComponents implements MqttMessageSubscriber {
      */
     public static interface ComponentDiscovered {
         void componentDiscovered(HaID homeAssistantTopicID, AbstractComponent<?> component);
+
+        /**
+         * Called before a received configuration is parsed.
+         *
+         * @param homeAssistantTopicID The component ID
+         * @param configHash The hash of the configuration, see {@link AbstractComponent#getConfigHash()}
+         * @return true if a component with this configuration is already known and parsing it can be skipped
+         */
+        default boolean isComponentKnown(HaID homeAssistantTopicID, int configHash) {
+            return false;
+        }
     }
 
     /**
@@ -99,6 +110,11 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         AbstractComponent<?> component = null;
 
         if (config.length() > 0) {
+            final ComponentDiscovered discoveredListener = this.discoveredListener;
+            if (discoveredListener != null && discoveredListener.isComponentKnown(haID, config.hashCode())) {
+                logger.trace("Skipping unchanged HomeAssistant thing {} component {}", haID.objectID, haID.component);
+                return;
+            }
             try {
                 component = ComponentFactory.createComponent(thingUID, haID, config, updateListener, tracker, scheduler,
                         gson, transformationServiceProvider);
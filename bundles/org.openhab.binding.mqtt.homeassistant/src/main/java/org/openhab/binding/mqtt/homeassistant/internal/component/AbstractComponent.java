@@ -38,6 +38,7 @@ import org.openhab.core.thing.type.ChannelGroupDefinition;
 import org.openhab.core.thing.type.ChannelGroupType;
 import org.openhab.core.thing.type.ChannelGroupTypeBuilder;
 import org.openhab.core.thing.type.ChannelGroupTypeUID;
+import org.openhab.core.thing.type.ChannelType;
 
 /**
  * A HomeAssistant component is comparable to a channel group.
@@ -138,6 +139,14 @@ public abstract class AbstractComponent<C extends AbstractChannelConfiguration>
         channels.values().forEach(v -> v.addChannelTypes(channelTypeProvider));
     }
 
+    /**
+     * Returns the channel types of all channels of this component. Use this to register the types of many
+     * components at once instead of calling {@link #addChannelTypes(MqttChannelTypeProvider)} for each.
+     */
+    public List<ChannelType> getChannelTypes() {
+        return channels.values().stream().map(ComponentChannel::getType).collect(Collectors.toList());
+    }
+
     /**
      * Removes all channels from the channel type provider.
      * Call this if the corresponding Thing handler gets disposed.
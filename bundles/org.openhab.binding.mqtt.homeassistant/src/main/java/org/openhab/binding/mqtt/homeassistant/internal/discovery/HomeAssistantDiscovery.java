@@ -22,8 +22,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -31,6 +29,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.discovery.AbstractMQTTDiscovery;
 import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryService;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
+import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
 import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
@@ -41,6 +40,7 @@ import org.openhab.core.config.discovery.DiscoveryResult;
 import org.openhab.core.config.discovery.DiscoveryResultBuilder;
 import org.openhab.core.config.discovery.DiscoveryService;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.storage.StorageService;
 import org.openhab.core.thing.ThingTypeUID;
 import org.openhab.core.thing.ThingUID;
 import org.openhab.core.thing.type.ThingType;
@@ -67,8 +67,9 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     protected final Map<String, ThingUID> thingIDPerTopic = new TreeMap<>();
     protected final Map<String, DiscoveryResult> results = new ConcurrentHashMap<>();
 
-    private @Nullable ScheduledFuture<?> future;
+    private final DelayedBatchProcessing<String> delayedPublishing;
     private final Gson gson;
+    private HomeAssistantDiscoveryCache discoveryCache = new HomeAssistantDiscoveryCache(null);
 
     public static final Map<String, String> HA_COMP_TO_NAME = new TreeMap<>();
     {
@@ -85,6 +86,8 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     }
 
     static final String BASE_TOPIC = "homeassistant";
+    static final int PUBLISH_DELAY = 2000; /* milliseconds */
+    static final String DISCOVERY_CACHE_STORAGE = "mqtt.homeassistant.discovery";
 
     @NonNullByDefault({})
     protected MqttChannelTypeProvider typeProvider;
@@ -95,6 +98,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     public HomeAssistantDiscovery() {
         super(null, 3, true, BASE_TOPIC + "/#");
         this.gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
+        this.delayedPublishing = new DelayedBatchProcessing<>(PUBLISH_DELAY, topics -> publishResults(), scheduler);
     }
 
     @Reference
@@ -112,6 +116,16 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         return mqttTopicDiscovery;
     }
 
+    @Reference
+    protected void setStorageService(StorageService storageService) {
+        discoveryCache = new HomeAssistantDiscoveryCache(storageService.getStorage(DISCOVERY_CACHE_STORAGE,
+                HomeAssistantDiscoveryCache.Entry.class.getClassLoader()));
+    }
+
+    protected void unsetStorageService(StorageService storageService) {
+        discoveryCache = new HomeAssistantDiscoveryCache(null);
+    }
+
     @Reference
     protected void setTypeProvider(MqttChannelTypeProvider provider) {
         this.typeProvider = provider;
@@ -121,6 +135,33 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         this.typeProvider = null;
     }
 
+    HomeAssistantDiscoveryCache getDiscoveryCache() {
+        return discoveryCache;
+    }
+
+    @Override
+    protected void startScan() {
+        if (!isBackgroundDiscoveryEnabled()) {
+            discoveryCache.startRun();
+        }
+        super.startScan();
+    }
+
+    @Override
+    protected synchronized void stopScan() {
+        super.stopScan();
+        int removed = discoveryCache.finishRun();
+        if (removed > 0) {
+            logger.debug("Removed {} vanished config topics from the discovery cache", removed);
+        }
+    }
+
+    @Override
+    protected void startBackgroundDiscovery() {
+        discoveryCache.startRun();
+        super.startBackgroundDiscovery();
+    }
+
     @Override
     public Set<ThingTypeUID> getSupportedThingTypes() {
         return typeProvider.getThingTypeUIDs();
@@ -139,13 +180,9 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
             return;
         }
 
-        // Reset the found-component timer.
+        // Postpone publishing the found components.
         // We will collect components for the thing label description for another 2 seconds.
-        final ScheduledFuture<?> future = this.future;
-        if (future != null) {
-            future.cancel(false);
-        }
-        this.future = scheduler.schedule(this::publishResults, 2, TimeUnit.SECONDS);
+        delayedPublishing.accept(topic);
 
         // We will of course find multiple of the same unique Thing IDs, for each different component another one.
         // Therefore the components are assembled into a list and given to the DiscoveryResult label for the user to
@@ -153,10 +190,21 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         HaID haID = new HaID(topic);
 
         try {
-            AbstractChannelConfiguration config = AbstractChannelConfiguration
-                    .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+            // Retained config messages rarely change, only parse new or modified ones
+            final String hash = HomeAssistantDiscoveryCache.hash(payload);
+            HomeAssistantDiscoveryCache.Entry cached = discoveryCache.get(connectionBridge, topic, hash);
+            if (cached == null) {
+                AbstractChannelConfiguration config = AbstractChannelConfiguration
+                        .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+                Map<String, String> configProperties = new HashMap<>();
+                config.appendToProperties(new HashMap<>())
+                        .forEach((key, value) -> configProperties.put(key, value.toString()));
+                cached = new HomeAssistantDiscoveryCache.Entry(hash, config.getThingId(haID.objectID),
+                        config.getThingName(), configProperties);
+                discoveryCache.put(connectionBridge, topic, cached);
+            }
 
-            final String thingID = config.getThingId(haID.objectID);
+            final String thingID = cached.thingId;
 
             final ThingTypeUID typeID = new ThingTypeUID(MqttBindingConstants.BINDING_ID,
                     MqttBindingConstants.HOMEASSISTANT_MQTT_THING.getId() + "_" + thingID);
@@ -177,14 +225,14 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
             Map<String, Object> properties = new HashMap<>();
             HandlerConfiguration handlerConfig = new HandlerConfiguration(haID.baseTopic, topics);
             properties = handlerConfig.appendToProperties(properties);
-            properties = config.appendToProperties(properties);
+            properties.putAll(cached.properties);
             properties.put("deviceId", thingID);
 
             // Because we need the new properties map with the updated "components" list
             results.put(thingUID.getAsString(),
                     DiscoveryResultBuilder.create(thingUID).withProperties(properties)
                             .withRepresentationProperty("deviceId").withBridge(connectionBridge)
-                            .withLabel(config.getThingName() + " (" + componentNames + ")").build());
+                            .withLabel(cached.thingName + " (" + componentNames + ")").build());
         } catch (ConfigurationException e) {
             logger.warn("HomeAssistant discover error: invalid configuration of thing {} component {}: {}",
                     haID.objectID, haID.component, e.getMessage());
@@ -213,6 +261,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
+        discoveryCache.remove(connectionBridge, topic);
         if (thingIDPerTopic.containsKey(topic)) {
             ThingUID thingUID = thingIDPerTopic.remove(topic);
             final String thingID = thingUID.getId();
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal.discovery;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Remembers what was extracted from each HomeAssistant discovery config message, keyed by a hash of its payload.
+ * Retained config messages are delivered again on every start, but rarely change. Unchanged messages are answered
+ * from this cache instead of being parsed again. If a {@link Storage} is given, the cache survives restarts.
+ *
+ * Entries of config topics which vanished while openHAB was not running are pruned at the end of a discovery run, see
+ * {@link #startRun()}.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class HomeAssistantDiscoveryCache {
+    private final @Nullable Storage<Entry> storage;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> seenBridges = ConcurrentHashMap.newKeySet();
+    private volatile boolean runActive;
+
+    /**
+     * The information the discovery needs from one config message.
+     */
+    public static class Entry {
+        public String hash = "";
+        public String thingId = "";
+        public String thingName = "";
+        public Map<String, String> properties = new HashMap<>();
+
+        Entry() {
+            // for deserialization
+        }
+
+        public Entry(String hash, String thingId, String thingName, Map<String, String> properties) {
+            this.hash = hash;
+            this.thingId = thingId;
+            this.thingName = thingName;
+            this.properties = properties;
+        }
+    }
+
+    public HomeAssistantDiscoveryCache(@Nullable Storage<Entry> storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the cached entry for a topic if it was created from a payload with the given hash.
+     *
+     * @param bridgeUID The broker the message was received from
+     * @param topic The config topic
+     * @param hash The hash of the payload, see {@link #hash(byte[])}
+     * @return The entry or null if the payload is unknown or has changed
+     */
+    public @Nullable Entry get(ThingUID bridgeUID, String topic, String hash) {
+        String key = key(bridgeUID, topic);
+        markSeen(bridgeUID, key);
+        Entry entry = entries.get(key);
+        final Storage<Entry> storage = this.storage;
+        if (entry == null && storage != null) {
+            entry = storage.get(key);
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+        if (entry != null && entry.hash.equals(hash)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(ThingUID bridgeUID, String topic, Entry entry) {
+        String key = key(bridgeUID, topic);
+        markSeen(bridgeUID, key);
+        entries.put(key, entry);
+        final Storage<Entry> storage = this.storage;
+        if (storage != null) {
+            storage.put(key, entry);
+        }
+    }
+
+    public void remove(ThingUID bridgeUID, String topic) {
+        String key = key(bridgeUID, topic);
+        entries.remove(key);
+        final Storage<Entry> storage = this.storage;
+        if (storage != null) {
+            storage.remove(key);
+        }
+    }
+
+    /**
+     * Starts a discovery run. Call this before subscribing to the config topics, the broker then delivers all retained
+     * config messages.
+     */
+    public void startRun() {
+        seenKeys.clear();
+        seenBridges.clear();
+        runActive = true;
+    }
+
+    /**
+     * Ends a discovery run and removes the entries of all config topics which were not received during the run. Only
+     * entries of brokers which delivered messages during the run are removed, as other brokers may not be connected.
+     * Does nothing if no run was started, e.g. because a single new config message ended a scan.
+     *
+     * @return The number of removed entries
+     */
+    public int finishRun() {
+        if (!runActive) {
+            return 0;
+        }
+        runActive = false;
+        Set<String> keys = new HashSet<>(entries.keySet());
+        final Storage<Entry> storage = this.storage;
+        if (storage != null) {
+            keys.addAll(storage.getKeys());
+        }
+        int removed = 0;
+        for (String key : keys) {
+            if (!seenKeys.contains(key) && seenBridges.contains(bridgeOf(key))) {
+                entries.remove(key);
+                if (storage != null) {
+                    storage.remove(key);
+                }
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private void markSeen(ThingUID bridgeUID, String key) {
+        if (runActive) {
+            seenBridges.add(bridgeUID.getAsString());
+            seenKeys.add(key);
+        }
+    }
+
+    /**
+     * @return The number of config messages that did not need to be parsed
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of config messages that were new or changed
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static String key(ThingUID bridgeUID, String topic) {
+        return bridgeUID.getAsString() + "#" + topic;
+    }
+
+    private static String bridgeOf(String key) {
+        int index = key.indexOf('#');
+        return index < 0 ? key : key.substring(0, index);
+    }
+
+    /**
+     * Calculates the content hash of a payload.
+     *
+     * @param payload The payload
+     * @return The hex encoded SHA-256 hash
+     */
+    public static String hash(byte[] payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload);
+            StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
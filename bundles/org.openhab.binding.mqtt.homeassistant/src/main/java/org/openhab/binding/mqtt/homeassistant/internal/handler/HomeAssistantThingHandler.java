@@ -12,7 +12,7 @@
  */
 package org.openhab.binding.mqtt.homeassistant.internal.handler;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -250,9 +250,26 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         delayedProcessing.accept(component);
     }
 
+    /**
+     * Callback of {@link DiscoverComponents}. Skips parsing configurations of already known components.
+     */
+    @Override
+    public boolean isComponentKnown(HaID homeAssistantTopicID, int configHash) {
+        synchronized (haComponents) { // sync whenever discoverComponents is started
+            for (AbstractComponent<?> known : haComponents.values()) {
+                if (known.getConfigHash() == configHash && known.getHaID().equals(homeAssistantTopicID)) {
+                    known.setConfigSeen();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Callback of {@link DelayedBatchProcessing}.
      * Add all newly discovered components to the Thing and start the components.
+     * The types and channels of the whole batch are registered at once.
      */
     @SuppressWarnings("null")
     @Override
@@ -263,6 +280,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         }
 
         synchronized (haComponents) { // sync whenever discoverComponents is started
+            List<AbstractComponent<?>> added = new ArrayList<>();
             for (AbstractComponent<?> discovered : discoveredComponentsList) {
                 AbstractComponent<?> known = haComponents.get(discovered.getGroupUID().getId());
                 // Is component already known?
@@ -276,21 +294,32 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                         continue;
                     }
                 }
-
-                // Add channel and group types to the types registry
-                discovered.addChannelTypes(channelTypeProvider);
                 // Add component to the component map
                 haComponents.put(discovered.getGroupUID().getId(), discovered);
+                added.add(discovered);
+            }
+            if (added.isEmpty()) {
+                return;
+            }
+
+            // Add channel and group types to the types registry
+            channelTypeProvider.setTypes(
+                    added.stream().map(AbstractComponent::getType).collect(Collectors.toList()),
+                    added.stream().map(AbstractComponent::getChannelTypes).flatMap(List::stream)
+                            .collect(Collectors.toList()));
+
+            List<Channel> channels = new ArrayList<>();
+            for (AbstractComponent<?> discovered : added) {
                 // Start component / Subscribe to channel topics
                 discovered.start(connection, scheduler, 0).exceptionally(e -> {
                     logger.warn("Failed to start component {}", discovered.getGroupUID(), e);
                     return null;
                 });
-
-                Collection<Channel> channels = discovered.getChannelMap().values().stream()
-                        .map(ComponentChannel::getChannel).collect(Collectors.toList());
-                ThingHelper.addChannelsToThing(thing, channels);
+                discovered.getChannelMap().values().stream().map(ComponentChannel::getChannel)
+                        // channels of a replaced component are already part of the Thing
+                        .filter(channel -> thing.getChannel(channel.getUID()) == null).forEach(channels::add);
             }
+            ThingHelper.addChannelsToThing(thing, channels);
         }
 
         updateThingType();
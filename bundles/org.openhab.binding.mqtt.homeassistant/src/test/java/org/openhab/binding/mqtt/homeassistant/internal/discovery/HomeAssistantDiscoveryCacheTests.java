@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.mqtt.homeassistant.internal.discovery.HomeAssistantDiscoveryCache.Entry;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Tests for {@link HomeAssistantDiscoveryCache}
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class HomeAssistantDiscoveryCacheTests {
+    private static final ThingUID BROKER = new ThingUID("mqtt", "broker", "first");
+    private static final ThingUID OTHER_BROKER = new ThingUID("mqtt", "broker", "second");
+    private static final String LIGHT = "homeassistant/light/lamp/config";
+    private static final String SWITCH = "homeassistant/switch/plug/config";
+
+    @Test
+    public void testEntriesNotSeenDuringRunArePruned() {
+        HomeAssistantDiscoveryCache cache = new HomeAssistantDiscoveryCache(null);
+        cache.put(BROKER, LIGHT, entry("a"));
+        cache.put(BROKER, SWITCH, entry("b"));
+
+        cache.startRun();
+        assertThat(cache.get(BROKER, LIGHT, "a"), is(notNullValue()));
+
+        assertThat(cache.finishRun(), is(1));
+        assertThat(cache.get(BROKER, LIGHT, "a"), is(notNullValue()));
+        assertThat(cache.get(BROKER, SWITCH, "b"), is(nullValue()));
+    }
+
+    @Test
+    public void testEntriesOfSilentBrokersAreKept() {
+        HomeAssistantDiscoveryCache cache = new HomeAssistantDiscoveryCache(null);
+        cache.put(BROKER, LIGHT, entry("a"));
+        cache.put(OTHER_BROKER, SWITCH, entry("b"));
+
+        cache.startRun();
+        cache.get(BROKER, LIGHT, "a");
+
+        assertThat(cache.finishRun(), is(0));
+        assertThat(cache.get(OTHER_BROKER, SWITCH, "b"), is(notNullValue()));
+    }
+
+    @Test
+    public void testNothingIsPrunedWithoutRun() {
+        HomeAssistantDiscoveryCache cache = new HomeAssistantDiscoveryCache(null);
+        cache.put(BROKER, LIGHT, entry("a"));
+        cache.put(BROKER, SWITCH, entry("b"));
+
+        cache.get(BROKER, LIGHT, "a");
+
+        assertThat(cache.finishRun(), is(0));
+        assertThat(cache.get(BROKER, SWITCH, "b"), is(notNullValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStoredEntriesNotSeenDuringRunArePruned() {
+        Storage<Entry> storage = mock(Storage.class);
+        String lightKey = BROKER.getAsString() + "#" + LIGHT;
+        String switchKey = BROKER.getAsString() + "#" + SWITCH;
+        when(storage.get(lightKey)).thenReturn(entry("a"));
+        when(storage.getKeys()).thenReturn(List.of(lightKey, switchKey));
+        HomeAssistantDiscoveryCache cache = new HomeAssistantDiscoveryCache(storage);
+
+        // the switch vanished while openHAB was not running
+        cache.startRun();
+        cache.get(BROKER, LIGHT, "a");
+
+        assertThat(cache.finishRun(), is(1));
+        verify(storage).remove(switchKey);
+        verify(storage, never()).remove(lightKey);
+    }
+
+    private static Entry entry(String hash) {
+        return new Entry(hash, "thing", "Thing", Map.of());
+    }
+}
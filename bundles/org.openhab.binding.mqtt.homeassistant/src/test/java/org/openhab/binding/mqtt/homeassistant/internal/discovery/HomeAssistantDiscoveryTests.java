@@ -83,6 +83,27 @@ public class HomeAssistantDiscoveryTests extends AbstractHomeAssistantTests {
                 "climate/0x847127fffe11dd6a_climate_zigbee2mqtt", "switch/0x847127fffe11dd6a_auto_lock_zigbee2mqtt"));
     }
 
+    @Test
+    public void testUnchangedConfigIsNotParsedAgain() throws Exception {
+        var discoveryListener = new LatchDiscoveryListener();
+        var latch = discoveryListener.createWaitForThingsDiscoveredLatch(1);
+        discovery.addDiscoveryListener(discoveryListener);
+
+        // When the same retained config is received twice
+        var topic = "homeassistant/climate/0x847127fffe11dd6a_climate_zigbee2mqtt/config";
+        discovery.receivedMessage(HA_UID, bridgeConnection, topic,
+                getResourceAsByteArray("component/configTS0601ClimateThermostat.json"));
+        discovery.receivedMessage(HA_UID, bridgeConnection, topic,
+                getResourceAsByteArray("component/configTS0601ClimateThermostat.json"));
+
+        // Then it is parsed only once, but still results in the same thing
+        assertThat(discovery.getDiscoveryCache().getMisses(), is(1L));
+        assertThat(discovery.getDiscoveryCache().getHits(), is(1L));
+        assert latch.await(3, TimeUnit.SECONDS);
+        var result = discoveryListener.getDiscoveryResults().get(0);
+        assertThat(result.getProperties().get(Thing.PROPERTY_VENDOR), is("TuYa"));
+    }
+
     private static class TestHomeAssistantDiscovery extends HomeAssistantDiscovery {
         public TestHomeAssistantDiscovery(MqttChannelTypeProvider typeProvider) {
             this.typeProvider = typeProvider;
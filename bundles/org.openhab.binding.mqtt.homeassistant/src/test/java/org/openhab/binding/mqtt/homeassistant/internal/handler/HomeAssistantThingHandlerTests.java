@@ -102,8 +102,8 @@ public class HomeAssistantThingHandlerTests extends AbstractHomeAssistantTests {
 
         thingHandler.delayedProcessing.forceProcessNow();
         assertThat(haThing.getChannels().size(), CoreMatchers.is(6));
-        verify(channelTypeProvider, times(6)).setChannelType(any(), any());
-        verify(channelTypeProvider, times(1)).setChannelGroupType(any(), any());
+        verify(channelTypeProvider, times(1)).setTypes(argThat(groupTypes -> groupTypes.size() == 1),
+                argThat(channelTypes -> channelTypes.size() == 6));
 
         configTopic = "homeassistant/switch/0x847127fffe11dd6a_auto_lock_zigbee2mqtt/config";
         thingHandler.discoverComponents.processMessage(configTopic,
@@ -113,8 +113,29 @@ public class HomeAssistantThingHandlerTests extends AbstractHomeAssistantTests {
 
         thingHandler.delayedProcessing.forceProcessNow();
         assertThat(haThing.getChannels().size(), CoreMatchers.is(7));
-        verify(channelTypeProvider, times(7)).setChannelType(any(), any());
-        verify(channelTypeProvider, times(2)).setChannelGroupType(any(), any());
+        verify(channelTypeProvider, times(2)).setTypes(any(), any());
+        verify(channelTypeProvider, times(1)).setTypes(argThat(groupTypes -> groupTypes.size() == 1),
+                argThat(channelTypes -> channelTypes.size() == 1));
+    }
+
+    @Test
+    public void testUnchangedComponentIsSkipped() {
+        thingHandler.initialize();
+
+        var configTopic = "homeassistant/climate/0x847127fffe11dd6a_climate_zigbee2mqtt/config";
+        thingHandler.discoverComponents.processMessage(configTopic,
+                getResourceAsByteArray("component/configTS0601ClimateThermostat.json"));
+        thingHandler.delayedProcessing.forceProcessNow();
+        assertThat(haThing.getChannels().size(), CoreMatchers.is(6));
+
+        // The same retained configuration again is not parsed again
+        thingHandler.discoverComponents.processMessage(configTopic,
+                getResourceAsByteArray("component/configTS0601ClimateThermostat.json"));
+        verify(thingHandler, times(2)).isComponentKnown(eq(new HaID(configTopic)), anyInt());
+        verify(thingHandler, times(1)).componentDiscovered(any(), any());
+        thingHandler.delayedProcessing.forceProcessNow();
+        assertThat(haThing.getChannels().size(), CoreMatchers.is(6));
+        verify(channelTypeProvider, times(1)).setTypes(any(), any());
     }
 
     @Test
@@ -134,7 +155,9 @@ public class HomeAssistantThingHandlerTests extends AbstractHomeAssistantTests {
                 getResourceAsByteArray("component/configTS0601AutoLock.json"));
         thingHandler.delayedProcessing.forceProcessNow();
         assertThat(haThing.getChannels().size(), CoreMatchers.is(7));
-        verify(channelTypeProvider, times(7)).setChannelType(any(), any());
+        // Both components are registered in one batch
+        verify(channelTypeProvider, times(1)).setTypes(argThat(groupTypes -> groupTypes.size() == 2),
+                argThat(channelTypes -> channelTypes.size() == 7));
 
         // When dispose
         thingHandler.dispose();
@@ -17,6 +17,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -47,6 +49,7 @@ import org.slf4j.LoggerFactory;
 @NonNullByDefault
 public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements MqttConnectionObserver {
     public static final int TIMEOUT_DEFAULT = 1200; /* timeout in milliseconds */
+    private static final int DISPATCHER_STATISTICS_INTERVAL = 5; /* interval in minutes */
     private final Logger logger = LoggerFactory.getLogger(AbstractBrokerHandler.class);
 
     final Map<ChannelUID, PublishTriggerChannel> channelStateByChannelUID = new HashMap<>();
@@ -54,6 +57,8 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
 
     protected @Nullable MqttBrokerConnection connection;
     protected CompletableFuture<MqttBrokerConnection> connectionFuture = new CompletableFuture<>();
+    private @Nullable MqttTopicDispatcher topicDispatcher;
+    private @Nullable ScheduledFuture<?> dispatcherStatisticsJob;
 
     public AbstractBrokerHandler(Bridge thing) {
         super(thing);
@@ -79,6 +84,16 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         return connection;
     }
 
+    /**
+     * Returns the {@link MqttTopicDispatcher} of the current connection. Thing handlers may use it instead of
+     * subscribing to the connection directly, so that many subscriptions share few broker subscriptions.
+     *
+     * @return the dispatcher or null if this handler is not initialized
+     */
+    public @Nullable MqttTopicDispatcher getTopicDispatcher() {
+        return topicDispatcher;
+    }
+
     /**
      * Does nothing in the base implementation.
      */
@@ -104,6 +119,9 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
             channelStateByChannelUID.put(channel.getUID(), c);
         }
 
+        topicDispatcher = new MqttTopicDispatcher(connection);
+        dispatcherStatisticsJob = scheduler.scheduleWithFixedDelay(this::logDispatcherStatistics,
+                DISPATCHER_STATISTICS_INTERVAL, DISPATCHER_STATISTICS_INTERVAL, TimeUnit.MINUTES);
         connection.addConnectionObserver(this);
 
         connection.start().exceptionally(e -> {
@@ -155,6 +173,22 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         }
     }
 
+    /**
+     * Logs the message throughput and dispatch latency of the topic dispatcher, if debug logging is enabled.
+     */
+    private void logDispatcherStatistics() {
+        final MqttTopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null && logger.isDebugEnabled()) {
+            logger.debug(
+                    "Broker {}: {} subscriptions on {} broker subscriptions, {} messages ({} per second), dispatch latency average {} µs, maximum {} µs",
+                    thing.getUID(), topicDispatcher.getSubscriptionCount(),
+                    topicDispatcher.getBrokerSubscriptionCount(), topicDispatcher.getMessageCount(),
+                    String.format("%.1f", topicDispatcher.getMessagesPerSecond()),
+                    String.format("%.1f", topicDispatcher.getAverageDispatchMicros()),
+                    String.format("%.1f", topicDispatcher.getMaxDispatchMicros()));
+        }
+    }
+
     @Override
     protected void triggerChannel(ChannelUID channelUID, String event) {
         super.triggerChannel(channelUID, event);
@@ -175,6 +209,17 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
             });
         });
 
+        final ScheduledFuture<?> dispatcherStatisticsJob = this.dispatcherStatisticsJob;
+        if (dispatcherStatisticsJob != null) {
+            dispatcherStatisticsJob.cancel(false);
+            this.dispatcherStatisticsJob = null;
+        }
+        final MqttTopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null) {
+            topicDispatcher.clear();
+            this.topicDispatcher = null;
+        }
+
         if (connection != null) {
             connection.removeConnectionObserver(this);
         } else {
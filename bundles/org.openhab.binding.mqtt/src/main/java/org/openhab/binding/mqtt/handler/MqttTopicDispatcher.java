@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches the messages of a {@link MqttBrokerConnection} to many subscribers via a {@link TopicTrie}.
+ *
+ * A topic filter that is already covered by an active wildcard subscription on the broker does not cause another
+ * broker subscription, unless the subscriber needs the retained messages of its topics. The broker only sends those
+ * for new subscriptions, so such a filter gets a subscription on the broker connection of its own. This is also the
+ * case if a broker subscription for the very same filter already exists: the broker connection then hands the
+ * retained messages it received for that filter to the new subscription. Every message is delivered exactly once to
+ * each matching subscriber, synchronously and in the order the broker connection reports it.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(MqttTopicDispatcher.class);
+
+    private final MqttBrokerConnection connection;
+    private final TopicTrie<Entry> subscriptions = new TopicTrie<>();
+    private final Map<String, BrokerSubscription> brokerSubscriptions = new HashMap<>();
+    private final List<BrokerSubscription> retainedSubscriptions = new ArrayList<>();
+
+    private final long startTime = System.nanoTime();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong totalDispatchNanos = new AtomicLong();
+    private final AtomicLong maxDispatchNanos = new AtomicLong();
+
+    private static class Entry {
+        final MqttMessageSubscriber subscriber;
+        final BrokerSubscription brokerSubscription;
+
+        Entry(MqttMessageSubscriber subscriber, BrokerSubscription brokerSubscription) {
+            this.subscriber = subscriber;
+            this.brokerSubscription = brokerSubscription;
+        }
+    }
+
+    /**
+     * One subscription on the broker connection, shared by all dispatcher subscriptions it covers.
+     */
+    private class BrokerSubscription implements MqttMessageSubscriber {
+        final String filter;
+        final boolean wildcard;
+        CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+        int references = 0;
+
+        BrokerSubscription(String filter) {
+            this.filter = filter;
+            this.wildcard = filter.contains("+") || filter.contains("#");
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            dispatch(this, topic, payload);
+        }
+    }
+
+    public MqttTopicDispatcher(MqttBrokerConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * @return the broker connection of this dispatcher
+     */
+    public MqttBrokerConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Subscribes to a topic filter and receives the retained messages of its topics.
+     *
+     * @param filter the topic filter, wildcards are supported
+     * @param subscriber the subscriber
+     * @return a future that completes with true once the broker subscription is active
+     * @see #subscribe(String, MqttMessageSubscriber, boolean)
+     */
+    public CompletableFuture<Boolean> subscribe(String filter, MqttMessageSubscriber subscriber) {
+        return subscribe(filter, subscriber, true);
+    }
+
+    /**
+     * Subscribes to a topic filter. Subscribing the same subscriber twice to a filter has no effect.
+     *
+     * @param filter the topic filter, wildcards are supported
+     * @param subscriber the subscriber
+     * @param retained true if the subscriber needs the retained messages of its topics. The filter then does not
+     *            share an existing broker subscription but subscribes on the broker connection itself.
+     * @return a future that completes with true once the broker subscription is active
+     */
+    public CompletableFuture<Boolean> subscribe(String filter, MqttMessageSubscriber subscriber, boolean retained) {
+        synchronized (this) {
+            for (Entry entry : subscriptions.get(filter)) {
+                if (entry.subscriber == subscriber) {
+                    return entry.brokerSubscription.future;
+                }
+            }
+            BrokerSubscription brokerSubscription = retained ? null : findCoveringSubscription(filter);
+            if (brokerSubscription == null) {
+                // the broker connection sends the retained messages for the new subscription
+                brokerSubscription = new BrokerSubscription(filter);
+                if (brokerSubscriptions.containsKey(filter)) {
+                    retainedSubscriptions.add(brokerSubscription);
+                } else {
+                    brokerSubscriptions.put(filter, brokerSubscription);
+                }
+                brokerSubscription.future = connection.subscribe(filter, brokerSubscription);
+            }
+            brokerSubscription.references++;
+            subscriptions.add(filter, new Entry(subscriber, brokerSubscription));
+            return brokerSubscription.future;
+        }
+    }
+
+    private @Nullable BrokerSubscription findCoveringSubscription(String filter) {
+        BrokerSubscription exact = brokerSubscriptions.get(filter);
+        if (exact != null) {
+            return exact;
+        }
+        for (BrokerSubscription brokerSubscription : brokerSubscriptions.values()) {
+            if (brokerSubscription.wildcard && TopicTrie.covers(brokerSubscription.filter, filter)) {
+                return brokerSubscription;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a subscription. The broker subscription is removed once no subscriber depends on it anymore.
+     *
+     * @param filter the topic filter
+     * @param subscriber the subscriber
+     * @return a future that completes with true if unsubscribing succeeded or was not necessary
+     */
+    public CompletableFuture<Boolean> unsubscribe(String filter, MqttMessageSubscriber subscriber) {
+        final BrokerSubscription brokerSubscription;
+        synchronized (this) {
+            Entry removed = null;
+            for (Entry entry : subscriptions.get(filter)) {
+                if (entry.subscriber == subscriber) {
+                    removed = entry;
+                    break;
+                }
+            }
+            if (removed == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            subscriptions.remove(filter, removed);
+            brokerSubscription = removed.brokerSubscription;
+            if (--brokerSubscription.references > 0) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (!retainedSubscriptions.remove(brokerSubscription)) {
+                brokerSubscriptions.remove(brokerSubscription.filter);
+            }
+        }
+        return connection.unsubscribe(brokerSubscription.filter, brokerSubscription);
+    }
+
+    /**
+     * Removes all subscriptions from the broker connection.
+     */
+    public void clear() {
+        final List<BrokerSubscription> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(brokerSubscriptions.values());
+            removed.addAll(retainedSubscriptions);
+            brokerSubscriptions.clear();
+            retainedSubscriptions.clear();
+            subscriptions.clear();
+        }
+        removed.forEach(brokerSubscription -> connection.unsubscribe(brokerSubscription.filter, brokerSubscription));
+    }
+
+    private void dispatch(BrokerSubscription brokerSubscription, String topic, byte[] payload) {
+        final long start = System.nanoTime();
+        final List<MqttMessageSubscriber> receivers = new ArrayList<>();
+        synchronized (this) {
+            // only deliver to subscriptions served by this broker subscription, others receive their own copy
+            subscriptions.match(topic, (filter, entry) -> {
+                if (entry.brokerSubscription == brokerSubscription) {
+                    receivers.add(entry.subscriber);
+                }
+            });
+        }
+        receivers.forEach(receiver -> deliver(receiver, topic, payload));
+
+        final long duration = System.nanoTime() - start;
+        messageCount.incrementAndGet();
+        totalDispatchNanos.addAndGet(duration);
+        maxDispatchNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    private void deliver(MqttMessageSubscriber subscriber, String topic, byte[] payload) {
+        try {
+            subscriber.processMessage(topic, payload);
+        } catch (RuntimeException e) {
+            logger.warn("Subscriber {} failed to process a message on topic {}", subscriber, topic, e);
+        }
+    }
+
+    /**
+     * @return the number of subscriptions on the broker connection
+     */
+    public synchronized int getBrokerSubscriptionCount() {
+        return brokerSubscriptions.size() + retainedSubscriptions.size();
+    }
+
+    /**
+     * @return the number of subscriptions of this dispatcher
+     */
+    public synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return the number of messages dispatched so far
+     */
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * @return the average number of messages per second since this dispatcher was created
+     */
+    public double getMessagesPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        return seconds > 0 ? messageCount.get() / seconds : 0;
+    }
+
+    /**
+     * @return the average time in microseconds it took to dispatch a message to all its subscribers
+     */
+    public double getAverageDispatchMicros() {
+        long count = messageCount.get();
+        return count > 0 ? totalDispatchNanos.get() / 1000.0 / count : 0;
+    }
+
+    /**
+     * @return the maximum time in microseconds it took to dispatch a message to all its subscribers
+     */
+    public double getMaxDispatchMicros() {
+        return maxDispatchNanos.get() / 1000.0;
+    }
+}
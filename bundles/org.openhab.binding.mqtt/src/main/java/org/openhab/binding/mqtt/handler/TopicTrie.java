@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A trie of MQTT topic filters, split at the level separator '/'. It maps a topic to the values of all matching
+ * filters, including the single level wildcard '+' and the multi level wildcard '#', in a single walk.
+ *
+ * This class is not thread-safe.
+ *
+ * @author David Graeff - Initial contribution
+ *
+ * @param <T> the type of the values stored per filter
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node<T> root = new Node<>();
+    private int size = 0;
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final List<T> values = new ArrayList<>();
+        @Nullable
+        String filter;
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    /**
+     * Adds a value for the given filter.
+     *
+     * @param filter a topic filter, may contain wildcards
+     * @param value the value
+     */
+    public void add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.filter = filter;
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Removes a value of the given filter.
+     *
+     * @param filter a topic filter
+     * @param value the value
+     * @return true if the value was present
+     */
+    public boolean remove(String filter, T value) {
+        String[] levels = filter.split("/", -1);
+        List<Node<T>> path = new ArrayList<>(levels.length + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels) {
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        size--;
+        // prune empty nodes
+        for (int i = levels.length; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(levels[i - 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values registered for exactly the given filter.
+     *
+     * @param filter a topic filter
+     * @return the values in the order they were added
+     */
+    public List<T> get(String filter) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        return List.copyOf(node.values);
+    }
+
+    /**
+     * Calls the consumer for each value of each filter matching the topic.
+     *
+     * @param topic a topic without wildcards
+     * @param consumer called with the filter and the value
+     */
+    public void match(String topic, BiConsumer<String, T> consumer) {
+        String[] levels = topic.split("/", -1);
+        // topics starting with '$' must not be matched by filters starting with a wildcard
+        match(root, levels, 0, !topic.startsWith("$"), consumer);
+    }
+
+    /**
+     * Returns the values of all filters matching the topic.
+     *
+     * @param topic a topic without wildcards
+     * @return the matching values
+     */
+    public List<T> match(String topic) {
+        List<T> result = new ArrayList<>();
+        match(topic, (filter, value) -> result.add(value));
+        return result;
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcardsAllowed,
+            BiConsumer<String, T> consumer) {
+        Node<T> multiLevel = wildcardsAllowed ? node.children.get(MULTI_LEVEL_WILDCARD) : null;
+        if (multiLevel != null) {
+            // '#' also matches the parent level, e.g. "a/#" matches "a"
+            accept(multiLevel, consumer);
+        }
+        if (index == levels.length) {
+            accept(node, consumer);
+            return;
+        }
+        Node<T> exact = node.children.get(levels[index]);
+        if (exact != null) {
+            match(exact, levels, index + 1, true, consumer);
+        }
+        Node<T> singleLevel = wildcardsAllowed ? node.children.get(SINGLE_LEVEL_WILDCARD) : null;
+        if (singleLevel != null) {
+            match(singleLevel, levels, index + 1, true, consumer);
+        }
+    }
+
+    private void accept(Node<T> node, BiConsumer<String, T> consumer) {
+        String filter = node.filter;
+        if (filter != null) {
+            for (T value : node.values) {
+                consumer.accept(filter, value);
+            }
+        }
+    }
+
+    /**
+     * @return the number of values in this trie
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        root.children.clear();
+        root.values.clear();
+        size = 0;
+    }
+
+    /**
+     * Tests whether every topic matched by the second filter is also matched by the first one.
+     *
+     * @param filter a topic filter
+     * @param other another topic filter
+     * @return true if the first filter covers the second one
+     */
+    public static boolean covers(String filter, String other) {
+        String[] levels = filter.split("/", -1);
+        String[] otherLevels = other.split("/", -1);
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (MULTI_LEVEL_WILDCARD.equals(level)) {
+                // like for matching, topics starting with '$' are not covered by a leading wildcard
+                return i > 0 || !otherLevels[0].startsWith("$");
+            }
+            if (i >= otherLevels.length) {
+                return false;
+            }
+            String otherLevel = otherLevels[i];
+            if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+                if (MULTI_LEVEL_WILDCARD.equals(otherLevel) || (i == 0 && otherLevel.startsWith("$"))) {
+                    return false;
+                }
+            } else if (!level.equals(otherLevel)) {
+                return false;
+            }
+        }
+        return levels.length == otherLevels.length;
+    }
+}
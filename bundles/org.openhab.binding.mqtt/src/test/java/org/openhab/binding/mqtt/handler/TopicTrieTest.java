@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Test cases for {@link TopicTrie} and {@link MqttTopicDispatcher}.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class TopicTrieTest {
+
+    @Test
+    public void matchWildcards() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("home/livingroom/temperature", "exact");
+        trie.add("home/+/temperature", "single");
+        trie.add("home/#", "multi");
+        trie.add("#", "all");
+        trie.add("office/+", "office");
+
+        assertThat(trie.match("home/livingroom/temperature"), containsInAnyOrder("exact", "single", "multi", "all"));
+        assertThat(trie.match("home/kitchen/temperature"), containsInAnyOrder("single", "multi", "all"));
+        assertThat(trie.match("home"), containsInAnyOrder("multi", "all"));
+        assertThat(trie.match("office/desk"), containsInAnyOrder("office", "all"));
+        assertThat(trie.match("office/desk/lamp"), containsInAnyOrder("all"));
+        assertThat(trie.match("$SYS/uptime"), is(empty()));
+    }
+
+    @Test
+    public void removePrunesFilters() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/+/c", "first");
+        trie.add("a/+/c", "second");
+        assertThat(trie.size(), is(2));
+
+        assertThat(trie.remove("a/+/c", "first"), is(true));
+        assertThat(trie.remove("a/+/c", "first"), is(false));
+        assertThat(trie.match("a/b/c"), containsInAnyOrder("second"));
+
+        assertThat(trie.remove("a/+/c", "second"), is(true));
+        assertThat(trie.isEmpty(), is(true));
+        assertThat(trie.match("a/b/c"), is(empty()));
+        assertThat(trie.get("a/+/c"), is(empty()));
+    }
+
+    @Test
+    public void covers() {
+        assertThat(TopicTrie.covers("a/#", "a/b/c"), is(true));
+        assertThat(TopicTrie.covers("a/#", "a"), is(true));
+        assertThat(TopicTrie.covers("a/+/c", "a/b/c"), is(true));
+        assertThat(TopicTrie.covers("a/+/c", "a/+/c"), is(true));
+        assertThat(TopicTrie.covers("a/+", "a/#"), is(false));
+        assertThat(TopicTrie.covers("a/+", "a/b/c"), is(false));
+        assertThat(TopicTrie.covers("a/b", "a/+"), is(false));
+        assertThat(TopicTrie.covers("#", "$SYS/uptime"), is(false));
+    }
+
+    @Test
+    public void dispatcherSharesCoveringSubscription() {
+        MqttBrokerConnection connection = mock(MqttBrokerConnection.class);
+        when(connection.subscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(connection.unsubscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber exact = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber other = mock(MqttMessageSubscriber.class);
+
+        MqttTopicDispatcher dispatcher = new MqttTopicDispatcher(connection);
+        dispatcher.subscribe("home/#", wildcard);
+        dispatcher.subscribe("home/light/state", exact, false);
+        dispatcher.subscribe("home/+/state", other, false);
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(1));
+        assertThat(dispatcher.getSubscriptionCount(), is(3));
+
+        // deliver through the only broker subscription
+        ArgumentCaptor<MqttMessageSubscriber> captor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection).subscribe(eq("home/#"), captor.capture());
+        MqttMessageSubscriber brokerSubscriber = captor.getValue();
+        byte[] payload = "ON".getBytes();
+        brokerSubscriber.processMessage("home/light/state", payload);
+        verify(wildcard).processMessage("home/light/state", payload);
+        verify(exact).processMessage("home/light/state", payload);
+        verify(other).processMessage("home/light/state", payload);
+        assertThat(dispatcher.getMessageCount(), is(1L));
+
+        dispatcher.unsubscribe("home/#", wildcard);
+        dispatcher.unsubscribe("home/light/state", exact);
+        verify(connection, never()).unsubscribe(any(), any());
+        dispatcher.unsubscribe("home/+/state", other);
+        verify(connection).unsubscribe(eq("home/#"), any());
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(0));
+    }
+
+    @Test
+    public void dispatcherSubscribesCoveredFilterForRetainedMessages() {
+        MqttBrokerConnection connection = mock(MqttBrokerConnection.class);
+        when(connection.subscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(connection.unsubscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber exact = mock(MqttMessageSubscriber.class);
+
+        MqttTopicDispatcher dispatcher = new MqttTopicDispatcher(connection);
+        dispatcher.subscribe("home/#", wildcard);
+        dispatcher.subscribe("home/light/state", exact);
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(2));
+
+        ArgumentCaptor<MqttMessageSubscriber> wildcardCaptor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection).subscribe(eq("home/#"), wildcardCaptor.capture());
+        ArgumentCaptor<MqttMessageSubscriber> exactCaptor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection).subscribe(eq("home/light/state"), exactCaptor.capture());
+
+        // the broker delivers a message once per matching subscription, each subscriber still receives it once
+        byte[] payload = "ON".getBytes();
+        wildcardCaptor.getValue().processMessage("home/light/state", payload);
+        exactCaptor.getValue().processMessage("home/light/state", payload);
+        verify(wildcard).processMessage("home/light/state", payload);
+        verify(exact).processMessage("home/light/state", payload);
+
+        dispatcher.unsubscribe("home/light/state", exact);
+        verify(connection).unsubscribe(eq("home/light/state"), any());
+        dispatcher.unsubscribe("home/#", wildcard);
+        verify(connection).unsubscribe(eq("home/#"), any());
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(0));
+    }
+
+    @Test
+    public void dispatcherSubscribesSharedFilterAgainForRetainedMessages() {
+        MqttBrokerConnection connection = mock(MqttBrokerConnection.class);
+        when(connection.subscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(connection.unsubscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        MqttMessageSubscriber trigger = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber first = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber second = mock(MqttMessageSubscriber.class);
+
+        // a trigger channel subscribes first, state channels on the same topic need the retained message
+        MqttTopicDispatcher dispatcher = new MqttTopicDispatcher(connection);
+        dispatcher.subscribe("home/light/state", trigger, false);
+        dispatcher.subscribe("home/light/state", first);
+        dispatcher.subscribe("home/light/state", second);
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(3));
+
+        ArgumentCaptor<MqttMessageSubscriber> captor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection, times(3)).subscribe(eq("home/light/state"), captor.capture());
+        assertThat(captor.getAllValues().stream().distinct().count(), is(3L));
+
+        // the broker connection hands its retained message only to the subscription that joined last
+        byte[] off = "OFF".getBytes();
+        captor.getAllValues().get(2).processMessage("home/light/state", off);
+        verify(second).processMessage("home/light/state", off);
+        verify(first, never()).processMessage(any(), any());
+        verify(trigger, never()).processMessage(any(), any());
+
+        // a live message reaches every subscriber once
+        byte[] on = "ON".getBytes();
+        captor.getAllValues().forEach(brokerSubscriber -> brokerSubscriber.processMessage("home/light/state", on));
+        verify(trigger).processMessage("home/light/state", on);
+        verify(first).processMessage("home/light/state", on);
+        verify(second).processMessage("home/light/state", on);
+
+        dispatcher.unsubscribe("home/light/state", first);
+        verify(connection).unsubscribe("home/light/state", captor.getAllValues().get(1));
+        dispatcher.clear();
+        verify(connection, times(3)).unsubscribe(eq("home/light/state"), any());
+        assertThat(dispatcher.getBrokerSubscriptionCount(), is(0));
+    }
+}
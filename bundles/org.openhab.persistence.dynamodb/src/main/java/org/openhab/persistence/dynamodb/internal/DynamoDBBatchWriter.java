@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+/**
+ * Aggregates items to be stored into BatchWriteItem requests.
+ *
+ * Items are collected per table and written in batches of up to {@value #MAX_BATCH_SIZE} items, as soon as a batch is
+ * complete or at the latest after {@value #FLUSH_INTERVAL_MILLIS} ms. Items left unprocessed by DynamoDB and requests
+ * rejected due to throttling are retried with exponential backoff. At most {@code maxInFlightBatches} requests are
+ * executed concurrently, and at most {@value #MAX_PENDING_ITEMS} items are waiting to be written; further items are
+ * dropped.
+ *
+ * If a request fails for another reason, e.g. because the table does not exist yet or one item is invalid, the items of
+ * the batch are written one by one with {@link TableCreatingPutItem}, which also creates the table.
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriter {
+    /**
+     * Maximum number of items in a BatchWriteItem request, as defined by DynamoDB
+     */
+    static final int MAX_BATCH_SIZE = 25;
+    static final int MAX_PENDING_ITEMS = 10_000;
+    static final long FLUSH_INTERVAL_MILLIS = 500;
+    private static final int MAX_RETRIES = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBBatchWriter.class);
+
+    private final DynamoDBPersistenceService service;
+    private final DynamoDbEnhancedAsyncClient client;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final Semaphore inFlightBatches;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    private final PendingItems<DynamoDBBigDecimalItem> numberItems = new PendingItems<>(DynamoDBBigDecimalItem.class);
+    private final PendingItems<DynamoDBStringItem> stringItems = new PendingItems<>(DynamoDBStringItem.class);
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledFuture<?> flushJob;
+
+    public DynamoDBBatchWriter(DynamoDBPersistenceService service, ScheduledExecutorService scheduler,
+            int maxInFlightBatches) {
+        DynamoDbEnhancedAsyncClient localClient = service.getClient();
+        if (localClient == null) {
+            throw new IllegalStateException("Service is not ready");
+        }
+        this.service = service;
+        this.client = localClient;
+        this.executor = service.getExecutor();
+        this.scheduler = scheduler;
+        this.inFlightBatches = new Semaphore(Math.max(1, maxInFlightBatches));
+        this.flushJob = scheduler.scheduleWithFixedDelay(this::drain, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds an item to be written. Does not block.
+     *
+     * @param dto item to write
+     */
+    public void add(DynamoDBItem<?> dto) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING_ITEMS) {
+            pendingCount.decrementAndGet();
+            droppedCount.incrementAndGet();
+            logger.warn("Too many ({}) items waiting to be written. Dropping {}.", MAX_PENDING_ITEMS, dto);
+            return;
+        }
+        int pendingInTable = dto.accept(new DynamoDBItemVisitor<Integer>() {
+
+            @Override
+            public Integer visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                return numberItems.add(dynamoBigDecimalItem);
+            }
+
+            @Override
+            public Integer visit(DynamoDBStringItem dynamoStringItem) {
+                return stringItems.add(dynamoStringItem);
+            }
+        });
+        if (pendingInTable >= MAX_BATCH_SIZE) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Stops the periodic flush and waits (bounded) until pending items have been written.
+     */
+    public void close() {
+        flushJob.cancel(false);
+        Instant deadline = Instant.now().plus(CLOSE_TIMEOUT);
+        try {
+            while (pendingCount.get() > 0) {
+                drain();
+                inFlight.removeIf(CompletableFuture::isDone);
+                CompletableFuture<?>[] batches = inFlight.toArray(CompletableFuture<?>[]::new);
+                long remaining = Duration.between(Instant.now(), deadline).toMillis();
+                if (batches.length == 0 || remaining <= 0) {
+                    break;
+                }
+                CompletableFuture.allOf(batches).get(remaining, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // batches are always completed normally, remaining items are reported below
+        }
+        if (pendingCount.get() > 0) {
+            logger.warn("{} items could not be written before closing", pendingCount.get());
+        }
+    }
+
+    /**
+     * @return number of items waiting to be written, including items of requests in flight
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return number of items dropped because too many items were waiting to be written
+     */
+    public int getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Starts batches as long as items are pending and the in-flight limit allows.
+     */
+    private void drain() {
+        while (inFlightBatches.tryAcquire()) {
+            @Nullable
+            CompletableFuture<Void> batch = numberItems.isEmpty() ? null : startBatch(numberItems);
+            if (batch == null && !stringItems.isEmpty()) {
+                batch = startBatch(stringItems);
+            }
+            if (batch == null) {
+                inFlightBatches.release();
+                return;
+            }
+            // the batch counts as in flight until the permit has been released
+            CompletableFuture<Void> released = batch.whenComplete((result, exception) -> {
+                inFlightBatches.release();
+                if (numberItems.size() >= MAX_BATCH_SIZE || stringItems.size() >= MAX_BATCH_SIZE) {
+                    executor.execute(this::drain);
+                }
+            });
+            inFlight.add(released);
+            released.whenComplete((result, exception) -> inFlight.remove(released));
+        }
+    }
+
+    private <T extends DynamoDBItem<?>> @Nullable CompletableFuture<Void> startBatch(PendingItems<T> pending) {
+        List<T> items = pending.poll(MAX_BATCH_SIZE);
+        if (items.isEmpty()) {
+            return null;
+        }
+        final DynamoDbAsyncTable<T> table;
+        try {
+            table = service.getTable(pending.dtoClass);
+        } catch (IllegalStateException e) {
+            logger.warn("BatchWriteItem: {}, dropping {} items.", e.getMessage(), items.size());
+            pendingCount.addAndGet(-items.size());
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        writeBatch(pending.dtoClass, table, items, 0, Instant.now(), completion);
+        return completion;
+    }
+
+    private <T extends DynamoDBItem<?>> void writeBatch(Class<T> dtoClass, DynamoDbAsyncTable<T> table, List<T> items,
+            int attempt, Instant start, CompletableFuture<Void> completion) {
+        WriteBatch.Builder<T> writeBatch = WriteBatch.builder(dtoClass).mappedTableResource(table);
+        items.forEach(writeBatch::addPutItem);
+        BatchWriteItemEnhancedRequest request = BatchWriteItemEnhancedRequest.builder()
+                .addWriteBatch(writeBatch.build()).build();
+
+        client.batchWriteItem(request).whenCompleteAsync((result, exception) -> {
+            if (exception == null) {
+                List<T> unprocessed = result.unprocessedPutItemsForTable(table);
+                int written = items.size() - unprocessed.size();
+                pendingCount.addAndGet(-written);
+                if (unprocessed.isEmpty()) {
+                    logger.trace("BatchWriteItem: {} items written to table {} in {} ms.", items.size(),
+                            table.tableName(), Duration.between(start, Instant.now()).toMillis());
+                    completion.complete(null);
+                } else {
+                    retryOrGiveUp(dtoClass, table, unprocessed, attempt, start, completion, "unprocessed items");
+                }
+                return;
+            }
+
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                    ? exception.getCause()
+                    : exception;
+            if (isThrottling(cause)) {
+                retryOrGiveUp(dtoClass, table, items, attempt, start, completion,
+                        cause.getClass().getSimpleName() + " " + cause.getMessage());
+            } else if (cause instanceof ResourceNotFoundException) {
+                logger.trace("BatchWriteItem: Table '{}' was not present. Writing items one by one, creating the table",
+                        table.tableName());
+                putItemsOneByOne(table, items, completion);
+            } else {
+                logger.debug("BatchWriteItem: failed with {} {}. Writing {} items to table {} one by one.",
+                        cause.getClass().getSimpleName(), cause.getMessage(), items.size(), table.tableName());
+                putItemsOneByOne(table, items, completion);
+            }
+        }, executor);
+    }
+
+    private static boolean isThrottling(Throwable cause) {
+        return cause instanceof ProvisionedThroughputExceededException || cause instanceof RequestLimitExceededException
+                || (cause instanceof AwsServiceException && ((AwsServiceException) cause).isThrottlingException());
+    }
+
+    private <T extends DynamoDBItem<?>> void retryOrGiveUp(Class<T> dtoClass, DynamoDbAsyncTable<T> table,
+            List<T> items, int attempt, Instant start, CompletableFuture<Void> completion, String reason) {
+        if (attempt < MAX_RETRIES) {
+            long backoff = INITIAL_BACKOFF_MILLIS << attempt;
+            logger.debug("BatchWriteItem: {} items not written to table {} ({}). Retrying in {} ms.", items.size(),
+                    table.tableName(), reason, backoff);
+            scheduler.schedule(() -> writeBatch(dtoClass, table, items, attempt + 1, start, completion), backoff,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            logger.warn("BatchWriteItem: failed (final) to write {} items to table {} ({}). Aborting.", items.size(),
+                    table.tableName(), reason);
+            pendingCount.addAndGet(-items.size());
+            completion.complete(null);
+        }
+    }
+
+    private <T extends DynamoDBItem<?>> void putItemsOneByOne(DynamoDbAsyncTable<T> table, List<T> items,
+            CompletableFuture<Void> completion) {
+        CompletableFuture<?>[] puts;
+        try {
+            puts = items.stream().map(item -> putItem(table, item)).toArray(CompletableFuture<?>[]::new);
+        } catch (IllegalStateException e) {
+            logger.warn("PutItem: {}, dropping {} items.", e.getMessage(), items.size());
+            pendingCount.addAndGet(-items.size());
+            completion.complete(null);
+            return;
+        }
+        CompletableFuture.allOf(puts).whenComplete((result, exception) -> {
+            // failures are logged by TableCreatingPutItem
+            pendingCount.addAndGet(-items.size());
+            completion.complete(null);
+        });
+    }
+
+    /**
+     * Writes a single item with PutItem, creating the table if needed.
+     */
+    <T extends DynamoDBItem<?>> CompletableFuture<Void> putItem(DynamoDbAsyncTable<T> table, T item) {
+        return new TableCreatingPutItem<T>(service, item, table).putItemAsync();
+    }
+
+    /**
+     * Items waiting to be written to the table of one DTO class
+     */
+    private class PendingItems<T extends DynamoDBItem<?>> {
+        private final Class<T> dtoClass;
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private PendingItems(Class<T> dtoClass) {
+            this.dtoClass = dtoClass;
+        }
+
+        private int add(T item) {
+            queue.add(item);
+            return size.incrementAndGet();
+        }
+
+        private int size() {
+            return size.get();
+        }
+
+        private boolean isEmpty() {
+            return size.get() == 0;
+        }
+
+        /**
+         * Takes up to maxItems items. A batch must not contain the same key twice, so only the last item of the same
+         * name and time is kept. The items replaced this way are no longer pending.
+         */
+        private List<T> poll(int maxItems) {
+            Map<String, T> items = new LinkedHashMap<>();
+            T item;
+            while (items.size() < maxItems && (item = queue.poll()) != null) {
+                size.decrementAndGet();
+                if (items.put(item.getName() + '@' + item.getTime().toInstant().toEpochMilli(), item) != null) {
+                    pendingCount.decrementAndGet();
+                }
+            }
+            return new ArrayList<>(items.values());
+        }
+    }
+}
@@ -49,6 +49,7 @@ public class DynamoDBConfig {
     public static final String DEFAULT_TABLE_NAME = "openhab";
     public static final long DEFAULT_READ_CAPACITY_UNITS = 1;
     public static final long DEFAULT_WRITE_CAPACITY_UNITS = 1;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBConfig.class);
 
     private long readCapacityUnits;
@@ -60,6 +61,7 @@ public class DynamoDBConfig {
     private String table;
     private String tablePrefixLegacy;
     private @Nullable Integer expireDays;
+    private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
 
     /**
      *
@@ -166,25 +168,45 @@ public class DynamoDBConfig {
                 }
             }
 
+            final int maxInFlightBatches;
+            String maxInFlightBatchesParam = (String) config.get("maxInFlightBatches");
+            if (maxInFlightBatchesParam == null || maxInFlightBatchesParam.isBlank()) {
+                maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+            } else {
+                maxInFlightBatches = Integer.parseInt(maxInFlightBatchesParam);
+                if (maxInFlightBatches <= 0) {
+                    LOGGER.error("maxInFlightBatches should be positive integer");
+                    return null;
+                }
+            }
+
+            final DynamoDBConfig dbConfig;
             switch (tableRevision) {
                 case NEW:
                     LOGGER.debug("Using new DynamoDB table schema");
-                    return DynamoDBConfig.newSchema(region, credentials, retryMode.map(AwsRetryPolicy::forRetryMode),
-                            table, readCapacityUnits, writeCapacityUnits, expireDays);
+                    dbConfig = DynamoDBConfig.newSchema(region, credentials,
+                            retryMode.map(AwsRetryPolicy::forRetryMode), table, readCapacityUnits, writeCapacityUnits,
+                            expireDays);
+                    break;
                 case LEGACY:
                     LOGGER.warn(
                             "Using legacy DynamoDB table schema. It is recommended to transition to new schema by defining 'table' parameter and not configuring 'tablePrefix'");
-                    return DynamoDBConfig.legacySchema(region, credentials, retryMode.map(AwsRetryPolicy::forRetryMode),
-                            tablePrefixLegacy, readCapacityUnits, writeCapacityUnits);
+                    dbConfig = DynamoDBConfig.legacySchema(region, credentials,
+                            retryMode.map(AwsRetryPolicy::forRetryMode), tablePrefixLegacy, readCapacityUnits,
+                            writeCapacityUnits);
+                    break;
                 case MAYBE_LEGACY:
                     LOGGER.debug(
                             "Unclear whether we should use new legacy DynamoDB table schema. It is recommended to explicitly define new 'table' parameter. The correct table schema will be detected at runtime.");
-                    return DynamoDBConfig.maybeLegacySchema(region, credentials,
+                    dbConfig = DynamoDBConfig.maybeLegacySchema(region, credentials,
                             retryMode.map(AwsRetryPolicy::forRetryMode), table, tablePrefixLegacy, readCapacityUnits,
                             writeCapacityUnits, expireDays);
+                    break;
                 default:
                     throw new IllegalStateException("Unhandled enum. Bug");
             }
+            dbConfig.maxInFlightBatches = maxInFlightBatches;
+            return dbConfig;
         } catch (Exception e) {
             LOGGER.error("Error with configuration: {} {}", e.getClass().getSimpleName(), e.getMessage());
             return null;
@@ -261,4 +283,8 @@ public class DynamoDBConfig {
     public @Nullable Integer getExpireDays() {
         return expireDays;
     }
+
+    public int getMaxInFlightBatches() {
+        return maxInFlightBatches;
+    }
 }
@@ -102,6 +102,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     protected static final String CONFIG_URI = "persistence:dynamodb";
 
     private static final String DYNAMODB_THREADPOOL_NAME = "dynamodbPersistenceService";
+    private static final String DYNAMODB_SCHEDULER_NAME = "dynamodbPersistenceServiceScheduler";
 
     private ItemRegistry itemRegistry;
     private @Nullable DynamoDbEnhancedAsyncClient client;
@@ -117,6 +118,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             2);
 
     private @Nullable URI endpointOverride;
+    private @Nullable DynamoDBBatchWriter batchWriter;
 
     void overrideConfig(AwsRequestOverrideConfiguration.Builder config) {
         config.apiCallAttemptTimeout(TIMEOUT_API_CALL_ATTEMPT).apiCallTimeout(TIMEOUT_API_CALL);
@@ -151,6 +153,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         return endpointOverride;
     }
 
+    @Nullable
+    DynamoDbEnhancedAsyncClient getClient() {
+        return client;
+    }
+
     @Nullable
     DynamoDbAsyncClient getLowLevelClient() {
         return lowLevelClient;
@@ -191,6 +198,8 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        batchWriter = new DynamoDBBatchWriter(this, ThreadPoolManager.getScheduledPool(DYNAMODB_SCHEDULER_NAME),
+                localDbConfig.getMaxInFlightBatches());
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
     }
@@ -271,7 +280,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
-    private <T extends DynamoDBItem<?>> DynamoDbAsyncTable<T> getTable(Class<T> dtoClass) {
+    <T extends DynamoDBItem<?>> DynamoDbAsyncTable<T> getTable(Class<T> dtoClass) {
         DynamoDbEnhancedAsyncClient localClient = client;
         DynamoDBTableNameResolver localTableNameResolver = tableNameResolver;
         if (!ensureClient() || localClient == null || localTableNameResolver == null) {
@@ -311,6 +320,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     }
 
     private void disconnect() {
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            localBatchWriter.close();
+            batchWriter = null;
+        }
         DynamoDbAsyncClient localLowLevelClient = lowLevelClient;
         if (client == null || localLowLevelClient == null) {
             return;
@@ -552,21 +566,12 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             }
             logger.trace("store() called with item {} {} '{}', which was converted to DTO {}",
                     copiedItem.getClass().getSimpleName(), effectiveName, copiedItem.getState(), dto);
-            dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
-                        DynamoDBBigDecimalItem dynamoBigDecimalItem) {
-                    return new TableCreatingPutItem<DynamoDBBigDecimalItem>(DynamoDBPersistenceService.this,
-                            dynamoBigDecimalItem, getTable(DynamoDBBigDecimalItem.class));
-                }
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBStringItem dynamoStringItem) {
-                    return new TableCreatingPutItem<DynamoDBStringItem>(DynamoDBPersistenceService.this,
-                            dynamoStringItem, getTable(DynamoDBStringItem.class));
-                }
-            }).putItemAsync();
+            DynamoDBBatchWriter localBatchWriter = batchWriter;
+            if (localBatchWriter == null) {
+                logger.warn("Not ready to store (config error?), not storing item {}.", item.getName());
+                return;
+            }
+            localBatchWriter.add(dto);
         }, executor).exceptionally(e -> {
             logger.error("Unexcepted error", e);
             return null;
@@ -645,6 +650,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     }
 
     private void logIfManyQueuedTasks() {
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null && localBatchWriter.getPendingCount() >= DynamoDBBatchWriter.MAX_BATCH_SIZE) {
+            logger.trace("{} items waiting to be written, {} dropped so far", localBatchWriter.getPendingCount(),
+                    localBatchWriter.getDroppedCount());
+        }
         if (executor instanceof ThreadPoolExecutor) {
             ThreadPoolExecutor localExecutor = (ThreadPoolExecutor) executor;
             if (localExecutor.getQueue().size() >= 5) {
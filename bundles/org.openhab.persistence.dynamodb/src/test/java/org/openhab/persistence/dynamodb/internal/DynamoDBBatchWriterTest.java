@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+/**
+ * Tests for {@link DynamoDBBatchWriter}, using a mocked low level client. Flushes and retries are triggered by the
+ * tests instead of the scheduler, and responses are handled on the calling thread.
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class DynamoDBBatchWriterTest {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private @Mock @NonNullByDefault({}) DynamoDBPersistenceService service;
+    private @Mock @NonNullByDefault({}) DynamoDbAsyncClient lowLevelClient;
+    private @Mock @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @Mock @NonNullByDefault({}) ScheduledFuture<?> flushFuture;
+
+    private final List<DynamoDBBigDecimalItem> singlePuts = new ArrayList<>();
+    private @NonNullByDefault({}) Runnable flush;
+    private @NonNullByDefault({}) DynamoDBBatchWriter writer;
+
+    /**
+     * Executes tasks on the calling thread.
+     */
+    private static class DirectExecutorService extends AbstractExecutorService {
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        DynamoDbEnhancedAsyncClient client = DynamoDbEnhancedAsyncClient.builder().dynamoDbClient(lowLevelClient)
+                .build();
+        DynamoDbAsyncTable<DynamoDBBigDecimalItem> table = client.table("numbers",
+                DynamoDBBigDecimalItem.TABLE_SCHEMA_NEW);
+        when(service.getClient()).thenReturn(client);
+        when(service.getExecutor()).thenReturn(new DirectExecutorService());
+        lenient().when(service.getTable(DynamoDBBigDecimalItem.class)).thenReturn(table);
+        doReturn(flushFuture).when(scheduler).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(),
+                any(TimeUnit.class));
+    }
+
+    private DynamoDBBatchWriter createWriter(int maxInFlightBatches) {
+        DynamoDBBatchWriter batchWriter = new DynamoDBBatchWriter(service, scheduler, maxInFlightBatches) {
+            @Override
+            <T extends DynamoDBItem<?>> CompletableFuture<Void> putItem(DynamoDbAsyncTable<T> table, T item) {
+                singlePuts.add((DynamoDBBigDecimalItem) item);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleWithFixedDelay(flushCaptor.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        flush = flushCaptor.getValue();
+        return batchWriter;
+    }
+
+    private void addItems(int count) {
+        for (int i = 0; i < count; i++) {
+            writer.add(new DynamoDBBigDecimalItem("item" + i, BigDecimal.valueOf(i), TIME, null));
+        }
+    }
+
+    private static CompletableFuture<BatchWriteItemResponse> written() {
+        return CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build());
+    }
+
+    private static CompletableFuture<BatchWriteItemResponse> unprocessed(BatchWriteItemRequest request) {
+        return CompletableFuture
+                .completedFuture(BatchWriteItemResponse.builder().unprocessedItems(request.requestItems()).build());
+    }
+
+    private static int size(BatchWriteItemRequest request) {
+        return request.requestItems().values().stream().mapToInt(List::size).sum();
+    }
+
+    private List<BatchWriteItemRequest> verifyRequests(int count) {
+        ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(lowLevelClient, times(count)).batchWriteItem(requests.capture());
+        return requests.getAllValues();
+    }
+
+    private Runnable verifyRetryScheduled() {
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(retry.capture(), anyLong(), any(TimeUnit.class));
+        return retry.getValue();
+    }
+
+    @Test
+    public void completeBatchesAreWrittenImmediately() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> written());
+        writer = createWriter(1);
+
+        addItems(60);
+
+        List<BatchWriteItemRequest> requests = verifyRequests(2);
+        assertEquals(DynamoDBBatchWriter.MAX_BATCH_SIZE, size(requests.get(0)));
+        assertEquals(DynamoDBBatchWriter.MAX_BATCH_SIZE, size(requests.get(1)));
+        assertEquals(10, writer.getPendingCount());
+    }
+
+    @Test
+    public void remainingItemsAreWrittenOnFlush() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> written());
+        writer = createWriter(1);
+
+        addItems(10);
+        verifyNoInteractions(lowLevelClient);
+
+        flush.run();
+        assertEquals(10, size(verifyRequests(1).get(0)));
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    public void itemsWithSameKeyAreWrittenOnce() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> written());
+        writer = createWriter(1);
+
+        writer.add(new DynamoDBBigDecimalItem("item", BigDecimal.ONE, TIME, null));
+        writer.add(new DynamoDBBigDecimalItem("item", BigDecimal.TEN, TIME, null));
+        flush.run();
+
+        assertEquals(1, size(verifyRequests(1).get(0)));
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    public void unprocessedItemsAreRetried() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenAnswer(invocation -> unprocessed(invocation.getArgument(0))).thenAnswer(invocation -> written());
+        writer = createWriter(1);
+
+        addItems(3);
+        flush.run();
+        assertEquals(3, writer.getPendingCount());
+
+        verifyRetryScheduled().run();
+        List<BatchWriteItemRequest> requests = verifyRequests(2);
+        assertEquals(3, size(requests.get(1)));
+        assertEquals(0, writer.getPendingCount());
+        assertTrue(singlePuts.isEmpty());
+    }
+
+    @Test
+    public void throttledRequestIsRetried() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        ProvisionedThroughputExceededException.builder().message("throttled").build()))
+                .thenAnswer(invocation -> written());
+        writer = createWriter(1);
+
+        addItems(3);
+        flush.run();
+        assertEquals(3, writer.getPendingCount());
+
+        verifyRetryScheduled().run();
+        verifyRequests(2);
+        assertEquals(0, writer.getPendingCount());
+        assertTrue(singlePuts.isEmpty());
+    }
+
+    @Test
+    public void failedRequestIsWrittenOneByOne() {
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(DynamoDbException.builder().message("invalid").build()));
+        writer = createWriter(1);
+
+        addItems(3);
+        flush.run();
+
+        verifyRequests(1);
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertEquals(3, singlePuts.size());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    public void itemsBeyondLimitAreDropped() {
+        // requests never complete, so all items stay pending
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenAnswer(invocation -> new CompletableFuture<BatchWriteItemResponse>());
+        writer = createWriter(1);
+
+        addItems(DynamoDBBatchWriter.MAX_PENDING_ITEMS + 5);
+
+        assertEquals(DynamoDBBatchWriter.MAX_PENDING_ITEMS, writer.getPendingCount());
+        assertEquals(5, writer.getDroppedCount());
+        verifyRequests(1);
+    }
+
+    @Test
+    public void closeWaitsForInFlightBatches() {
+        // requests complete on another thread, after close() has started waiting
+        when(lowLevelClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> BatchWriteItemResponse.builder().build(),
+                        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+        writer = createWriter(1);
+
+        addItems(DynamoDBBatchWriter.MAX_BATCH_SIZE + 3);
+        writer.close();
+
+        verify(flushFuture).cancel(false);
+        verifyRequests(2);
+        assertEquals(0, writer.getPendingCount());
+    }
+}
@@ -246,4 +246,19 @@ public class DynamoDBConfigTest {
         assertEquals(Optional.empty(), fromConfig.getRetryPolicy().map(RetryPolicy::retryMode));
         assertEquals(ExpectedTableSchema.MAYBE_LEGACY, fromConfig.getTableRevision());
     }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testMaxInFlightBatches() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig
+                .fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey", "secret1"));
+        assertEquals(DynamoDBConfig.DEFAULT_MAX_IN_FLIGHT_BATCHES, fromConfig.getMaxInFlightBatches());
+
+        fromConfig = DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey",
+                "secret1", "table", "tbl", "maxInFlightBatches", "2"));
+        assertEquals(2, fromConfig.getMaxInFlightBatches());
+
+        assertNull(DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey",
+                "secret1", "maxInFlightBatches", "0")));
+    }
 }
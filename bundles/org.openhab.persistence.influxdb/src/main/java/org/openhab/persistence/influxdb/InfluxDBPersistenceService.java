@@ -12,6 +12,9 @@
  */
 package org.openhab.persistence.influxdb;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
@@ -23,6 +26,8 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemRegistry;
@@ -35,11 +40,13 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregateFunction;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteBuffer;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
 import org.openhab.persistence.influxdb.internal.ItemToStorePointCreator;
@@ -84,6 +91,9 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     protected static final String CONFIG_URI = "persistence:influxdb";
 
+    private static final Path SPILL_FILE = Paths.get(OpenHAB.getUserDataFolder(), "persistence", "influxdb",
+            "spill.lp");
+
     // External dependencies
     private final ItemRegistry itemRegistry;
     private final MetadataRegistry metadataRegistry;
@@ -94,6 +104,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     // Relax rules because can only be null if component is not active
     private @NonNullByDefault({}) ItemToStorePointCreator itemToStorePointCreator;
     private @NonNullByDefault({}) InfluxDBRepository influxDBRepository;
+    private @NonNullByDefault({}) InfluxDBWriteBuffer writeBuffer;
 
     @Activate
     public InfluxDBPersistenceService(final @Reference ItemRegistry itemRegistry,
@@ -113,6 +124,10 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             itemToStorePointCreator = new ItemToStorePointCreator(configuration, metadataRegistry);
             influxDBRepository = createInfluxDBRepository();
             influxDBRepository.connect();
+            writeBuffer = new InfluxDBWriteBuffer(influxDBRepository,
+                    ThreadPoolManager.getScheduledPool(getClass().getSimpleName()), configuration.getBatchSize(),
+                    configuration.getFlushInterval(), configuration.getBufferSize(),
+                    configuration.isSpillToDisk() ? SPILL_FILE : null, configuration.getMaxSpillSize() * 1024L * 1024L);
         } else {
             logger.error("Cannot load configuration, persistence service wont work");
         }
@@ -131,6 +146,10 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("InfluxDB persistence service deactivated");
+        if (writeBuffer != null) {
+            writeBuffer.close();
+            writeBuffer = null;
+        }
         if (influxDBRepository != null) {
             influxDBRepository.disconnect();
             influxDBRepository = null;
@@ -206,7 +225,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             InfluxPoint point = itemToStorePointCreator.convert(item, alias);
             if (point != null) {
                 logger.trace("Storing item {} in InfluxDB point {}", item, point);
-                influxDBRepository.write(point);
+                writeBuffer.add(point);
             } else {
                 logger.trace("Ignoring item {} as is cannot be converted to a InfluxDB point", item);
             }
@@ -228,6 +247,8 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             String query = RepositoryFactory.createQueryCreator(configuration, metadataRegistry).createQuery(filter,
                     configuration.getRetentionPolicy());
             logger.trace("Query {}", query);
+            // make buffered points visible to the query
+            writeBuffer.flush(false);
             List<InfluxRow> results = influxDBRepository.query(query);
             return results.stream().map(this::mapRow2HistoricItem).collect(Collectors.toList());
         } else {
@@ -236,6 +257,68 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * @return number of points waiting to be written, or 0 if the service is not active
+     */
+    public int getBufferDepth() {
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        return buffer != null ? buffer.getBufferDepth() : 0;
+    }
+
+    /**
+     * @return number of points which could neither be written nor spilled to disk
+     */
+    public long getDroppedPointCount() {
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        return buffer != null ? buffer.getDroppedCount() : 0;
+    }
+
+    /**
+     * @return number of points spilled to disk because they could not be written
+     */
+    public long getSpilledPointCount() {
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        return buffer != null ? buffer.getSpilledCount() : 0;
+    }
+
+    /**
+     * @return duration in milliseconds of the last successful write
+     */
+    public long getLastWriteLatency() {
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        return buffer != null ? buffer.getLastWriteLatency() : 0;
+    }
+
+    /**
+     * Queries one aggregated value per time window, evaluated by the database. This is much cheaper than querying all
+     * values of a large time range if only a value per pixel of a chart is needed. This is an entry point for other
+     * bundles, {@link #query(FilterCriteria)} never aggregates.
+     *
+     * @param filter filter for the values, the begin date should be set to bound the number of windows
+     * @param function function to aggregate the values of a window with, {@code MEAN}, {@code MIN} and {@code MAX}
+     *            require numeric values
+     * @param resolution size of the time windows
+     * @return one historic item for each window containing values
+     */
+    public Iterable<HistoricItem> queryAggregated(FilterCriteria filter, InfluxDBAggregateFunction function,
+            Duration resolution) {
+        if (influxDBRepository != null && influxDBRepository.isConnected()) {
+            String query = RepositoryFactory.createQueryCreator(configuration, metadataRegistry)
+                    .createAggregateQuery(filter, configuration.getRetentionPolicy(), function, resolution);
+            logger.trace("Aggregate query {}", query);
+            writeBuffer.flush(false);
+            String itemName = filter.getItemName();
+            List<InfluxRow> results = influxDBRepository.query(query);
+            return results.stream()
+                    // aggregated rows of InfluxDB 1 don't contain the item tag
+                    .map(row -> itemName != null ? new InfluxRow(row.getTime(), itemName, row.getValue()) : row)
+                    .map(this::mapRow2HistoricItem).collect(Collectors.toList());
+        } else {
+            logger.debug("aggregate query ignored, InfluxDB is not yet connected");
+            return Collections.emptyList();
+        }
+    }
+
     private HistoricItem mapRow2HistoricItem(InfluxRow row) {
         State state = InfluxDBStateConvertUtils.objectToState(row.getValue(), row.getItemName(), itemRegistry);
         return new InfluxDBHistoricItem(row.getItemName(), state,
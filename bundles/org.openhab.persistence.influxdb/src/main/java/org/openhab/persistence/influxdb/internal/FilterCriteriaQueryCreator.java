@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import java.time.Duration;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.persistence.FilterCriteria;
 
@@ -31,6 +33,19 @@ public interface FilterCriteriaQueryCreator {
      */
     String createQuery(FilterCriteria criteria, String retentionPolicy);
 
+    /**
+     * Create query from {@link FilterCriteria} returning one aggregated value per time window, which is evaluated by
+     * the server. Windows without values are omitted.
+     *
+     * @param criteria Criteria to create query from, state and operator are applied before aggregation
+     * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
+     * @param function Function to aggregate the values of a window with
+     * @param resolution Size of the time windows
+     * @return Created query as an String
+     */
+    String createAggregateQuery(FilterCriteria criteria, String retentionPolicy, InfluxDBAggregateFunction function,
+            Duration resolution);
+
     default String getOperationSymbol(FilterCriteria.Operator operator, InfluxDBVersion version) {
         switch (operator) {
             case EQ:
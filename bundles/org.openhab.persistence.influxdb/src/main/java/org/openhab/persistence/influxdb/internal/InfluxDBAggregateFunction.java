@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Aggregate functions which are evaluated by the server over a time window
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public enum InfluxDBAggregateFunction {
+    MEAN("mean"),
+    MIN("min"),
+    MAX("max"),
+    LAST("last");
+
+    private final String functionName;
+
+    InfluxDBAggregateFunction(String functionName) {
+        this.functionName = functionName;
+    }
+
+    /**
+     * @return name of the function, which is the same in InfluxQL and Flux
+     */
+    public String getFunctionName() {
+        return functionName;
+    }
+}
@@ -40,6 +40,11 @@ public class InfluxDBConfiguration {
     public static final String ADD_CATEGORY_TAG_PARAM = "addCategoryTag";
     public static final String ADD_LABEL_TAG_PARAM = "addLabelTag";
     public static final String ADD_TYPE_TAG_PARAM = "addTypeTag";
+    public static final String BATCH_SIZE_PARAM = "batchSize";
+    public static final String FLUSH_INTERVAL_PARAM = "flushInterval";
+    public static final String BUFFER_SIZE_PARAM = "bufferSize";
+    public static final String SPILL_TO_DISK_PARAM = "spillToDisk";
+    public static final String MAX_SPILL_SIZE_PARAM = "maxSpillSize";
     public static InfluxDBConfiguration NO_CONFIGURATION = new InfluxDBConfiguration(Collections.emptyMap());
     private final Logger logger = LoggerFactory.getLogger(InfluxDBConfiguration.class);
     private final String url;
@@ -55,6 +60,12 @@ public class InfluxDBConfiguration {
     private final boolean addTypeTag;
     private final boolean addLabelTag;
 
+    private final int batchSize;
+    private final int flushInterval;
+    private final int bufferSize;
+    private final boolean spillToDisk;
+    private final int maxSpillSize;
+
     public InfluxDBConfiguration(Map<String, Object> config) {
         url = (String) config.getOrDefault(URL_PARAM, "http://127.0.0.1:8086");
         user = (String) config.getOrDefault(USER_PARAM, "openhab");
@@ -68,6 +79,12 @@ public class InfluxDBConfiguration {
         addCategoryTag = getConfigBooleanValue(config, ADD_CATEGORY_TAG_PARAM, false);
         addLabelTag = getConfigBooleanValue(config, ADD_LABEL_TAG_PARAM, false);
         addTypeTag = getConfigBooleanValue(config, ADD_TYPE_TAG_PARAM, false);
+
+        batchSize = Math.max(1, getConfigIntValue(config, BATCH_SIZE_PARAM, 200));
+        flushInterval = Math.max(10, getConfigIntValue(config, FLUSH_INTERVAL_PARAM, 1000));
+        bufferSize = Math.max(batchSize, getConfigIntValue(config, BUFFER_SIZE_PARAM, 10000));
+        spillToDisk = getConfigBooleanValue(config, SPILL_TO_DISK_PARAM, true);
+        maxSpillSize = Math.max(1, getConfigIntValue(config, MAX_SPILL_SIZE_PARAM, 100));
     }
 
     private static boolean getConfigBooleanValue(Map<String, Object> config, String key, boolean defaultValue) {
@@ -81,6 +98,20 @@ public class InfluxDBConfiguration {
         }
     }
 
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue) {
+        Object object = config.get(key);
+        if (object instanceof Number) {
+            return ((Number) object).intValue();
+        } else if (object instanceof String) {
+            try {
+                return Integer.parseInt(((String) object).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' for {}, using {}", object, key, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     private InfluxDBVersion parseInfluxVersion(@Nullable String value) {
         try {
             return Optional.ofNullable(value).map(InfluxDBVersion::valueOf).orElse(InfluxDBVersion.UNKNOWN);
@@ -157,6 +188,29 @@ public class InfluxDBConfiguration {
         return addLabelTag;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isSpillToDisk() {
+        return spillToDisk;
+    }
+
+    /**
+     * @return maximum size of the spill file in megabytes
+     */
+    public int getMaxSpillSize() {
+        return maxSpillSize;
+    }
+
     public String getUser() {
         return user;
     }
@@ -175,7 +229,9 @@ public class InfluxDBConfiguration {
                 + password.length() + " chars" + '\'' + ", token='" + token.length() + " chars" + '\''
                 + ", databaseName='" + databaseName + '\'' + ", retentionPolicy='" + retentionPolicy + '\''
                 + ", version=" + version + ", replaceUnderscore=" + replaceUnderscore + ", addCategoryTag="
-                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + '}';
+                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + ", batchSize="
+                + batchSize + ", flushInterval=" + flushInterval + ", bufferSize=" + bufferSize + ", spillToDisk="
+                + spillToDisk + ", maxSpillSize=" + maxSpillSize + '}';
         return sb;
     }
 
@@ -66,9 +66,30 @@ public interface InfluxDBRepository {
     List<InfluxRow> query(String query);
 
     /**
-     * Write point to database
+     * Write points to database
      *
-     * @param influxPoint Point to write
+     * @param influxPoints Points to write
+     * @return Result of the write
      */
-    void write(InfluxPoint influxPoint);
+    WriteResult write(List<InfluxPoint> influxPoints);
+
+    /**
+     * Write records in line protocol with millisecond precision to database
+     *
+     * @param records Records to write
+     * @return Result of the write
+     */
+    WriteResult writeRecords(List<String> records);
+
+    /**
+     * Result of a write
+     */
+    enum WriteResult {
+        /** Written to the database */
+        WRITTEN,
+        /** Not written because of a transient error, e.g. the database is unreachable, the write can be retried */
+        FAILED,
+        /** Rejected by the database, e.g. because of a field type conflict, retrying the write won't succeed */
+        REJECTED
+    }
 }
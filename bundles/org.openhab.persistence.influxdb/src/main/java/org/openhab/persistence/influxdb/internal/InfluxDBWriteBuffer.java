@@ -0,0 +1,405 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.persistence.influxdb.internal.InfluxDBRepository.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded buffer decoupling {@link InfluxPoint} producers from writes to the {@link InfluxDBRepository}.
+ *
+ * Points are written in batches of up to {@code batchSize} points, as soon as a batch is complete or at the latest
+ * after {@code flushInterval} milliseconds. If a batch cannot be written because of a transient error (e.g. the server
+ * is unreachable) or the buffer is full, the points are appended to a spill file in line protocol, which is replayed
+ * by the scheduled flush after the next successful write. Without spill file, or once the spill file has reached
+ * {@code maxSpillSize} bytes, such points are dropped. Batches rejected by the database (e.g. because of a field type
+ * conflict) are dropped, as retrying them would never succeed.
+ *
+ * The spill file is only accessed by the scheduler, never by the threads adding points.
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteBuffer {
+    private final Logger logger = LoggerFactory.getLogger(InfluxDBWriteBuffer.class);
+
+    private final InfluxDBRepository repository;
+    private final ScheduledExecutorService scheduler;
+    private final int batchSize;
+    private final @Nullable Path spillFile;
+    private final @Nullable Path replayFile;
+    private final long maxSpillSize;
+
+    private final BlockingQueue<InfluxPoint> queue;
+    // points not fitting into the queue, waiting to be spilled by the scheduler
+    private final BlockingQueue<InfluxPoint> overflow;
+    private final AtomicBoolean overflowSpillScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object spillLock = new Object();
+    private final ScheduledFuture<?> flushJob;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private volatile long lastWriteLatency = 0;
+    private volatile boolean spillPending;
+    private boolean spillFileFull;
+
+    /**
+     * @param repository repository to write the points to
+     * @param scheduler scheduler for flushing the buffer
+     * @param batchSize maximum number of points written at once
+     * @param flushInterval maximum time in milliseconds a point is kept in the buffer
+     * @param bufferSize maximum number of points kept in the buffer
+     * @param spillFile file for points which cannot be written, or null to drop them
+     * @param maxSpillSize maximum size in bytes of the spill file, further points are dropped
+     */
+    public InfluxDBWriteBuffer(InfluxDBRepository repository, ScheduledExecutorService scheduler, int batchSize,
+            long flushInterval, int bufferSize, @Nullable Path spillFile, long maxSpillSize) {
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(Math.max(bufferSize, batchSize));
+        this.overflow = new ArrayBlockingQueue<>(Math.max(bufferSize, batchSize));
+        this.spillFile = spillFile;
+        Path replay = spillFile != null ? spillFile.resolveSibling(spillFile.getFileName() + ".replay") : null;
+        this.replayFile = replay;
+        this.maxSpillSize = maxSpillSize;
+        // points spilled before a restart are replayed as well
+        this.spillPending = spillFile != null && replay != null && (Files.exists(spillFile) || Files.exists(replay));
+        this.flushJob = scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a point to the buffer, without blocking the caller.
+     */
+    public void add(InfluxPoint point) {
+        if (!queue.offer(point)) {
+            if (!overflow.offer(point)) {
+                droppedCount.incrementAndGet();
+                logger.debug("Write buffer is full and spilling is behind, dropped point {}", point);
+            } else if (overflowSpillScheduled.compareAndSet(false, true)) {
+                logger.debug("Write buffer is full, spilling points");
+                scheduler.execute(this::spillOverflow);
+            }
+        } else if (queue.size() == batchSize) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    private void spillOverflow() {
+        overflowSpillScheduled.set(false);
+        List<InfluxPoint> points = new ArrayList<>();
+        overflow.drainTo(points);
+        spill(points);
+    }
+
+    /**
+     * Writes all buffered points, and replays spilled points if the server is reachable.
+     */
+    public void flush() {
+        flush(true);
+    }
+
+    /**
+     * Writes all buffered points.
+     *
+     * @param replaySpilled true to replay spilled points if the server is reachable. Replaying may take long after an
+     *            outage, so only the scheduled flush should do that.
+     */
+    public void flush(boolean replaySpilled) {
+        flushLock.lock();
+        try {
+            List<InfluxPoint> batch = new ArrayList<>(batchSize);
+            boolean written = true;
+            while (queue.drainTo(batch, batchSize) > 0) {
+                written = write(batch) != WriteResult.FAILED;
+                if (!written) {
+                    spill(batch);
+                    // don't retry the remaining points before the next flush
+                    List<InfluxPoint> remaining = new ArrayList<>();
+                    queue.drainTo(remaining);
+                    spill(remaining);
+                    break;
+                }
+                batch.clear();
+            }
+            if (written && replaySpilled && spillPending) {
+                replay();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Flushing write buffer failed: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the scheduled flushes and writes (or spills) all buffered points. Spilled points are replayed after the
+     * next start.
+     */
+    public void close() {
+        flushJob.cancel(false);
+        flush(false);
+        spillOverflow();
+    }
+
+    private WriteResult write(List<InfluxPoint> points) {
+        long start = System.nanoTime();
+        WriteResult result = repository.write(points);
+        switch (result) {
+            case WRITTEN:
+                lastWriteLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                writtenCount.addAndGet(points.size());
+                logger.trace("Wrote {} points in {} ms", points.size(), lastWriteLatency);
+                break;
+            case REJECTED:
+                droppedCount.addAndGet(points.size());
+                logger.warn("Dropped {} points rejected by the database, first point: {}", points.size(),
+                        points.get(0));
+                break;
+            default:
+                logger.debug("Writing {} points failed", points.size());
+                break;
+        }
+        return result;
+    }
+
+    private void spill(List<InfluxPoint> points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        Path file = spillFile;
+        if (file == null) {
+            droppedCount.addAndGet(points.size());
+            logger.debug("Dropped {} points", points.size());
+            return;
+        }
+        synchronized (spillLock) {
+            try {
+                Path parent = file.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+            } catch (IOException e) {
+                logger.debug("Creating directory for spill file '{}' failed: {}", file, e.getMessage());
+            }
+            if (spilledSize(file) >= maxSpillSize) {
+                droppedCount.addAndGet(points.size());
+                if (!spillFileFull) {
+                    spillFileFull = true;
+                    logger.warn("Spill file '{}' has reached its maximum size of {} bytes, dropping points", file,
+                            maxSpillSize);
+                }
+                return;
+            }
+            spillFileFull = false;
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (InfluxPoint point : points) {
+                    writer.write(point.toLineProtocol());
+                    writer.write('\n');
+                }
+                spilledCount.addAndGet(points.size());
+                spillPending = true;
+            } catch (IOException e) {
+                droppedCount.addAndGet(points.size());
+                logger.warn("Dropped {} points, writing to spill file '{}' failed: {}", points.size(), file,
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return size in bytes of the spill file and of the file being replayed. Called with the spill lock held.
+     */
+    private long spilledSize(Path file) {
+        long size = 0;
+        try {
+            if (Files.exists(file)) {
+                size += Files.size(file);
+            }
+            Path replay = replayFile;
+            if (replay != null && Files.exists(replay)) {
+                size += Files.size(replay);
+            }
+        } catch (IOException e) {
+            logger.debug("Determining size of spill file '{}' failed: {}", file, e.getMessage());
+        }
+        return size;
+    }
+
+    /**
+     * Writes the spilled points in batches, skipping batches rejected by the database. Stops at the first batch which
+     * fails because of a transient error. Called with the flush lock held, so there is only one replay at a time.
+     */
+    private void replay() {
+        Path file = spillFile;
+        Path replay = replayFile;
+        if (file == null || replay == null) {
+            return;
+        }
+        try {
+            if (!Files.exists(replay)) {
+                synchronized (spillLock) {
+                    if (!Files.exists(file)) {
+                        spillPending = false;
+                        return;
+                    }
+                    // points spilled from now on go to a new spill file
+                    Files.move(file, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            logger.info("Replaying spilled points from '{}'", replay);
+            long writtenBefore = writtenCount.get();
+            try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+                List<String> records = new ArrayList<>(batchSize);
+                String record;
+                while ((record = readRecord(reader)) != null) {
+                    if (!record.isBlank()) {
+                        records.add(record);
+                    }
+                    if (records.size() == batchSize) {
+                        if (!replayBatch(records)) {
+                            keepRemaining(replay, records, reader);
+                            logger.info("Replay interrupted after {} points", writtenCount.get() - writtenBefore);
+                            return;
+                        }
+                        records.clear();
+                    }
+                }
+                if (!records.isEmpty()) {
+                    if (!replayBatch(records)) {
+                        keepRemaining(replay, records, reader);
+                        logger.info("Replay interrupted after {} points", writtenCount.get() - writtenBefore);
+                        return;
+                    }
+                }
+            }
+            Files.delete(replay);
+            logger.info("Replayed {} spilled points", writtenCount.get() - writtenBefore);
+            synchronized (spillLock) {
+                spillPending = Files.exists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Replaying spilled points from '{}' failed: {}", replay, e.getMessage());
+        }
+    }
+
+    /**
+     * @return false if the batch could not be written because of a transient error and has to be kept
+     */
+    private boolean replayBatch(List<String> records) {
+        switch (repository.writeRecords(records)) {
+            case WRITTEN:
+                writtenCount.addAndGet(records.size());
+                return true;
+            case REJECTED:
+                droppedCount.addAndGet(records.size());
+                logger.warn("Dropped {} spilled points rejected by the database, first point: {}", records.size(),
+                        records.get(0));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void keepRemaining(Path replay, List<String> records, BufferedReader reader) throws IOException {
+        Path remaining = replay.resolveSibling(replay.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(remaining, StandardCharsets.UTF_8)) {
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+            reader.transferTo(writer);
+        }
+        Files.move(remaining, replay, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the next record of a spill file. Records are separated by line breaks, but string field values may
+     * contain line breaks as well.
+     *
+     * @return the record or null at the end of the file
+     */
+    private static @Nullable String readRecord(Reader reader) throws IOException {
+        StringBuilder record = new StringBuilder();
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == '\n' && InfluxPoint.isCompleteRecord(record)) {
+                return record.toString();
+            }
+            record.append((char) c);
+        }
+        return record.length() > 0 ? record.toString() : null;
+    }
+
+    /**
+     * @return number of points waiting in the buffer
+     */
+    public int getBufferDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of points which could neither be written nor spilled, or which were rejected by the database
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of points written to the spill file
+     */
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /**
+     * @return number of points written to the database, including replayed points
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return duration in milliseconds of the last successful write
+     */
+    public long getLastWriteLatency() {
+        return lastWriteLatency;
+    }
+}
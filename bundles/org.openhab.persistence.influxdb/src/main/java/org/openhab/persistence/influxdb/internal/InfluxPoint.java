@@ -12,10 +12,13 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.eclipse.jdt.annotation.DefaultLocation;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -59,6 +62,92 @@ public class InfluxPoint {
         return Collections.unmodifiableMap(tags);
     }
 
+    /**
+     * Returns the point in InfluxDB line protocol with a timestamp in milliseconds. Line breaks are only allowed in
+     * string field values, so a record may span several lines, see {@link #isCompleteRecord(CharSequence)}.
+     */
+    public String toLineProtocol() {
+        StringBuilder sb = new StringBuilder();
+        escapeKey(sb, measurementName, ", ");
+        new TreeMap<>(tags).forEach((k, v) -> {
+            sb.append(',');
+            escapeKey(sb, k, ",= ");
+            sb.append('=');
+            escapeKey(sb, v, ",= ");
+        });
+        sb.append(' ').append(InfluxDBConstants.FIELD_VALUE_NAME).append('=');
+        if (value instanceof String) {
+            sb.append('"');
+            escape(sb, (String) value, "\"\\");
+            sb.append('"');
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger) {
+            sb.append(value).append('i');
+        } else if (value instanceof BigDecimal) {
+            sb.append(((BigDecimal) value).toPlainString());
+        } else {
+            sb.append(value);
+        }
+        sb.append(' ').append(time.toEpochMilli());
+        return sb.toString();
+    }
+
+    /**
+     * Checks whether a record read up to a line break is complete, i.e. the line break is not part of a string field
+     * value.
+     */
+    public static boolean isCompleteRecord(CharSequence record) {
+        boolean fields = false;
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == '\\') {
+                // skip the escaped character
+                i++;
+            } else if (c == ' ') {
+                fields = true;
+            } else if (c == '"' && fields) {
+                quoted = !quoted;
+            }
+        }
+        return !quoted;
+    }
+
+    /**
+     * Escapes measurement names, tag keys and tag values, which must not contain line breaks.
+     */
+    private static void escapeKey(StringBuilder sb, String s, String specialChars) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (specialChars.indexOf(c) >= 0) {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+            }
+        }
+    }
+
+    private static void escape(StringBuilder sb, String s, String specialChars) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (specialChars.indexOf(c) >= 0) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+    }
+
     public static final class Builder {
         private String measurementName;
         private Instant time;
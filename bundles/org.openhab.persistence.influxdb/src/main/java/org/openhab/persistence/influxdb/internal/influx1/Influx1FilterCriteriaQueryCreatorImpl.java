@@ -16,6 +16,8 @@ import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
+import java.time.Duration;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.influxdb.dto.Query;
@@ -26,6 +28,7 @@ import org.influxdb.querybuilder.clauses.SimpleClause;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregateFunction;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataUtils;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
@@ -59,7 +62,60 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
                 .column("\"" + TAG_ITEM_NAME + "\"::tag")
                 .fromRaw(null, fullQualifiedTableName(retentionPolicy, tableName, hasCriteriaName));
 
-        Where where = select.where();
+        addWhereClauses(select.where(), criteria, tableName);
+
+        if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
+            select = select.orderBy(desc());
+        } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
+            select = select.orderBy(asc());
+        }
+
+        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            if (criteria.getPageNumber() != 0) {
+                select = select.limit(criteria.getPageSize(), criteria.getPageSize() * criteria.getPageNumber());
+            } else {
+                select = select.limit(criteria.getPageSize());
+            }
+        }
+
+        final Query query = (Query) select;
+        return query.getCommand();
+    }
+
+    @Override
+    public String createAggregateQuery(FilterCriteria criteria, String retentionPolicy,
+            InfluxDBAggregateFunction function, Duration resolution) {
+        final String itemName = criteria.getItemName();
+        final String tableName = calculateTableName(itemName);
+
+        Select select = select()
+                .column(function.getFunctionName() + "(\"" + COLUMN_VALUE_NAME_V1 + "\") AS \"" + COLUMN_VALUE_NAME_V1
+                        + "\"")
+                .fromRaw(null, fullQualifiedTableName(retentionPolicy, tableName, itemName != null));
+
+        addWhereClauses(select.where(), criteria, tableName);
+
+        // GROUP BY has to precede ORDER BY and LIMIT, so these clauses are appended to the built query
+        String command = ((Query) select).getCommand();
+        StringBuilder query = new StringBuilder(command.substring(0, command.length() - 1));
+        query.append(" GROUP BY time(").append(Math.max(1, resolution.toMillis())).append("ms) fill(none)");
+
+        if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
+            query.append(" ORDER BY time DESC");
+        }
+
+        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            query.append(" LIMIT ").append(criteria.getPageSize());
+            if (criteria.getPageNumber() != 0) {
+                query.append(" OFFSET ").append(criteria.getPageSize() * criteria.getPageNumber());
+            }
+        }
+
+        return query.append(';').toString();
+    }
+
+    private void addWhereClauses(Where where, FilterCriteria criteria, String tableName) {
+        final String itemName = criteria.getItemName();
 
         if (itemName != null && !tableName.equals(itemName)) {
             where = where.and(BuiltQuery.QueryBuilder.eq(TAG_ITEM_NAME, itemName));
@@ -79,23 +135,6 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
                     getOperationSymbol(criteria.getOperator(), InfluxDBVersion.V1),
                     stateToObject(criteria.getState())));
         }
-
-        if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
-            select = select.orderBy(desc());
-        } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
-            select = select.orderBy(asc());
-        }
-
-        if (criteria.getPageSize() != Integer.MAX_VALUE) {
-            if (criteria.getPageNumber() != 0) {
-                select = select.limit(criteria.getPageSize(), criteria.getPageSize() * criteria.getPageNumber());
-            } else {
-                select = select.limit(criteria.getPageSize());
-            }
-        }
-
-        final Query query = (Query) select;
-        return query.getCommand();
     }
 
     private String calculateTableName(@Nullable String itemName) {
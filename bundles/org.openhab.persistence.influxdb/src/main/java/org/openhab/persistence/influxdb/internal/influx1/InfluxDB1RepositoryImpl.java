@@ -29,7 +29,9 @@ import java.util.concurrent.TimeUnit;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.influxdb.InfluxDB;
+import org.influxdb.InfluxDBException;
 import org.influxdb.InfluxDBFactory;
+import org.influxdb.dto.BatchPoints;
 import org.influxdb.dto.Point;
 import org.influxdb.dto.Pong;
 import org.influxdb.dto.Query;
@@ -72,7 +74,6 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                 configuration.getPassword());
         createdClient.setDatabase(configuration.getDatabaseName());
         createdClient.setRetentionPolicy(configuration.getRetentionPolicy());
-        createdClient.enableBatch(200, 100, TimeUnit.MILLISECONDS);
         this.client = createdClient;
         return checkConnectionStatus();
     }
@@ -115,16 +116,52 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     }
 
     @Override
-    public void write(InfluxPoint point) {
+    public WriteResult write(List<InfluxPoint> points) {
         final InfluxDB currentClient = this.client;
         if (currentClient != null) {
-            Point clientPoint = convertPointToClientFormat(point);
-            currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(), clientPoint);
+            BatchPoints.Builder batchPoints = BatchPoints.database(configuration.getDatabaseName())
+                    .retentionPolicy(configuration.getRetentionPolicy());
+            points.stream().map(this::convertPointToClientFormat).forEach(batchPoints::point);
+            try {
+                currentClient.write(batchPoints.build());
+                return WriteResult.WRITTEN;
+            } catch (RuntimeException e) {
+                logger.debug("Writing {} points failed: {}", points.size(), e.getMessage());
+                return toWriteResult(e);
+            }
         } else {
-            logger.warn("Write point {} ignored due to client isn't connected", point);
+            logger.warn("Write of {} points ignored due to client isn't connected", points.size());
+            return WriteResult.FAILED;
         }
     }
 
+    @Override
+    public WriteResult writeRecords(List<String> records) {
+        final InfluxDB currentClient = this.client;
+        if (currentClient != null) {
+            try {
+                currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(),
+                        InfluxDB.ConsistencyLevel.ONE, TimeUnit.MILLISECONDS, records);
+                return WriteResult.WRITTEN;
+            } catch (RuntimeException e) {
+                logger.debug("Writing {} records failed: {}", records.size(), e.getMessage());
+                return toWriteResult(e);
+            }
+        } else {
+            logger.warn("Write of {} records ignored due to client isn't connected", records.size());
+            return WriteResult.FAILED;
+        }
+    }
+
+    /**
+     * Errors the client doesn't consider worth a retry (e.g. field type conflicts, unparsable points) are rejections,
+     * all others (e.g. I/O errors) are transient.
+     */
+    private static WriteResult toWriteResult(RuntimeException e) {
+        return e instanceof InfluxDBException && !((InfluxDBException) e).isRetryWorth() ? WriteResult.REJECTED
+                : WriteResult.FAILED;
+    }
+
     private Point convertPointToClientFormat(InfluxPoint point) {
         Point.Builder clientPoint = Point.measurement(point.getMeasurementName()).time(point.getTime().toEpochMilli(),
                 TimeUnit.MILLISECONDS);
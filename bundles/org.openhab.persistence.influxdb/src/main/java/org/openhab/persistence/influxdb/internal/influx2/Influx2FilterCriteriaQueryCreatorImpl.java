@@ -17,12 +17,15 @@ import static com.influxdb.query.dsl.functions.restriction.Restrictions.tag;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregateFunction;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataUtils;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
@@ -50,6 +53,51 @@ public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
 
     @Override
     public String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        Flux flux = createRange(criteria, retentionPolicy);
+
+        String itemName = criteria.getItemName();
+        if (itemName != null) {
+            String measurementName = calculateMeasurementName(itemName);
+            flux = applyItemFilter(flux, itemName, measurementName);
+            flux = applyKeep(flux, itemName, measurementName);
+        }
+
+        flux = applyStateFilter(criteria, flux);
+
+        flux = applyOrderingAndPageSize(criteria, flux);
+
+        return flux.toString();
+    }
+
+    @Override
+    public String createAggregateQuery(FilterCriteria criteria, String retentionPolicy,
+            InfluxDBAggregateFunction function, Duration resolution) {
+        Flux flux = createRange(criteria, retentionPolicy);
+
+        String itemName = criteria.getItemName();
+        @Nullable
+        String measurementName = null;
+        if (itemName != null) {
+            measurementName = calculateMeasurementName(itemName);
+            flux = applyItemFilter(flux, itemName, measurementName);
+        }
+
+        flux = applyStateFilter(criteria, flux);
+
+        // aggregateWindow needs the _start and _stop columns, so it has to be applied before keep
+        flux = flux.expression("aggregateWindow(every:" + Math.max(1, resolution.toMillis()) + "ms, fn:"
+                + function.getFunctionName() + ", createEmpty:false)");
+
+        if (itemName != null && measurementName != null) {
+            flux = applyKeep(flux, itemName, measurementName);
+        }
+
+        flux = applyOrderingAndPageSize(criteria, flux);
+
+        return flux.toString();
+    }
+
+    private Flux createRange(FilterCriteria criteria, String retentionPolicy) {
         Flux flux = Flux.from(retentionPolicy);
 
         RangeFlux range = flux.range();
@@ -61,35 +109,34 @@ public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
         if (criteria.getEndDate() != null) {
             range = range.withStop(criteria.getEndDate().toInstant());
         }
-        flux = range;
-
-        String itemName = criteria.getItemName();
-        if (itemName != null) {
-            String measurementName = calculateMeasurementName(itemName);
-            boolean needsToUseItemTagName = !measurementName.equals(itemName);
+        return range;
+    }
 
-            flux = flux.filter(measurement().equal(measurementName));
-            if (needsToUseItemTagName) {
-                flux = flux.filter(tag(TAG_ITEM_NAME).equal(itemName));
-            }
+    private Flux applyItemFilter(Flux flux, String itemName, String measurementName) {
+        flux = flux.filter(measurement().equal(measurementName));
+        if (!measurementName.equals(itemName)) {
+            flux = flux.filter(tag(TAG_ITEM_NAME).equal(itemName));
+        }
+        return flux;
+    }
 
-            if (needsToUseItemTagName)
-                flux = flux.keep(new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2,
-                        TAG_ITEM_NAME });
-            else
-                flux = flux.keep(new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2 });
+    private Flux applyKeep(Flux flux, String itemName, String measurementName) {
+        if (!measurementName.equals(itemName)) {
+            return flux.keep(new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2,
+                    TAG_ITEM_NAME });
+        } else {
+            return flux.keep(new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2 });
         }
+    }
 
+    private Flux applyStateFilter(FilterCriteria criteria, Flux flux) {
         if (criteria.getState() != null && criteria.getOperator() != null) {
             Restrictions restrictions = Restrictions.and(Restrictions.field().equal(FIELD_VALUE_NAME),
                     Restrictions.value().custom(stateToObject(criteria.getState()),
                             getOperationSymbol(criteria.getOperator(), InfluxDBVersion.V2)));
             flux = flux.filter(restrictions);
         }
-
-        flux = applyOrderingAndPageSize(criteria, flux);
-
-        return flux.toString();
+        return flux;
     }
 
     private Flux applyOrderingAndPageSize(FilterCriteria criteria, Flux flux) {
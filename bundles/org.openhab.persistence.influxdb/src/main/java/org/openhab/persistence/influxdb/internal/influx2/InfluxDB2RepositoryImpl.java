@@ -37,10 +37,11 @@ import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.InfluxDBClientFactory;
 import com.influxdb.client.InfluxDBClientOptions;
 import com.influxdb.client.QueryApi;
-import com.influxdb.client.WriteApi;
+import com.influxdb.client.WriteApiBlocking;
 import com.influxdb.client.domain.Ready;
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
+import com.influxdb.exceptions.InfluxException;
 import com.influxdb.query.FluxTable;
 
 /**
@@ -57,7 +58,7 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     @Nullable
     private QueryApi queryAPI;
     @Nullable
-    private WriteApi writeAPI;
+    private WriteApiBlocking writeAPI;
 
     public InfluxDB2RepositoryImpl(InfluxDBConfiguration configuration) {
         this.configuration = configuration;
@@ -94,7 +95,8 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         this.client = createdClient;
         logger.debug("Succesfully connected to InfluxDB. Instance ready={}", createdClient.ready());
         queryAPI = createdClient.getQueryApi();
-        writeAPI = createdClient.getWriteApi();
+        // writes are batched by the write buffer, failed writes have to be reported to it
+        writeAPI = createdClient.getWriteApiBlocking();
         return checkConnectionStatus();
     }
 
@@ -134,18 +136,58 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     }
 
     /**
-     * Write point to database
+     * Write points to database
      *
-     * @param point
+     * @param points
+     * @return Result of the write
      */
     @Override
-    public void write(InfluxPoint point) {
-        final WriteApi currentWriteAPI = writeAPI;
+    public WriteResult write(List<InfluxPoint> points) {
+        final WriteApiBlocking currentWriteAPI = writeAPI;
         if (currentWriteAPI != null) {
-            currentWriteAPI.writePoint(convertPointToClientFormat(point));
+            try {
+                currentWriteAPI.writePoints(points.stream().map(this::convertPointToClientFormat)
+                        .collect(Collectors.toList()));
+                return WriteResult.WRITTEN;
+            } catch (RuntimeException e) {
+                logger.debug("Writing {} points failed: {}", points.size(), e.getMessage());
+                return toWriteResult(e);
+            }
+        } else {
+            logger.warn("Write of {} points ignored due to writeAPI isn't present", points.size());
+            return WriteResult.FAILED;
+        }
+    }
+
+    @Override
+    public WriteResult writeRecords(List<String> records) {
+        final WriteApiBlocking currentWriteAPI = writeAPI;
+        if (currentWriteAPI != null) {
+            try {
+                currentWriteAPI.writeRecords(WritePrecision.MS, records);
+                return WriteResult.WRITTEN;
+            } catch (RuntimeException e) {
+                logger.debug("Writing {} records failed: {}", records.size(), e.getMessage());
+                return toWriteResult(e);
+            }
         } else {
-            logger.warn("Write point {} ignored due to writeAPI isn't present", point);
+            logger.warn("Write of {} records ignored due to writeAPI isn't present", records.size());
+            return WriteResult.FAILED;
+        }
+    }
+
+    /**
+     * Points the server refuses to store (bad request, payload too large, unprocessable entity) are rejections, all
+     * other errors (e.g. I/O errors, server errors, rate limiting) are transient.
+     */
+    private static WriteResult toWriteResult(RuntimeException e) {
+        if (e instanceof InfluxException) {
+            int status = ((InfluxException) e).status();
+            if (status == 400 || status == 413 || status == 422) {
+                return WriteResult.REJECTED;
+            }
         }
+        return WriteResult.FAILED;
     }
 
     private Point convertPointToClientFormat(InfluxPoint point) {
@@ -12,7 +12,7 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 import java.util.Map;
@@ -57,6 +57,7 @@ public class InfluxDBPersistenceServiceTest {
 
     @AfterEach
     public void after() {
+        instance.deactivate();
         validConfig = null;
         invalidConfig = null;
         instance = null;
@@ -92,8 +93,10 @@ public class InfluxDBPersistenceServiceTest {
     public void storeItemWithConnectedRepository() {
         instance.activate(validConfig);
         when(influxDBRepository.isConnected()).thenReturn(true);
+        when(influxDBRepository.write(anyList())).thenReturn(InfluxDBRepository.WriteResult.WRITTEN);
         instance.store(ItemTestHelper.createNumberItem("number", 5));
-        verify(influxDBRepository).write(any());
+        instance.deactivate();
+        verify(influxDBRepository).write(anyList());
     }
 
     @Test
@@ -101,6 +104,6 @@ public class InfluxDBPersistenceServiceTest {
         instance.activate(validConfig);
         when(influxDBRepository.isConnected()).thenReturn(false);
         instance.store(ItemTestHelper.createNumberItem("number", 5));
-        verify(influxDBRepository, never()).write(any());
+        verify(influxDBRepository, never()).write(anyList());
     }
 }
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.eclipse.jdt.annotation.DefaultLocation;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.persistence.influxdb.internal.InfluxDBRepository.WriteResult;
+
+/**
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault(value = { DefaultLocation.PARAMETER, DefaultLocation.RETURN_TYPE })
+public class InfluxDBWriteBufferTest {
+    private static final int BATCH_SIZE = 2;
+
+    private @Mock InfluxDBRepository repository;
+    private @Mock ScheduledExecutorService scheduler;
+    private @Mock ScheduledFuture<?> flushJob;
+
+    private @TempDir Path tempDir;
+    private Path spillFile;
+    private Path replayFile;
+
+    private List<List<String>> replayedBatches = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        doReturn(flushJob).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        spillFile = tempDir.resolve("spill.lp");
+        replayFile = tempDir.resolve("spill.lp.replay");
+    }
+
+    @Test
+    public void failedBatchIsSpilledAndReplayedAfterNextSuccessfulWrite() throws IOException {
+        when(repository.write(anyList())).thenReturn(WriteResult.FAILED, WriteResult.WRITTEN);
+        when(repository.writeRecords(anyList())).thenAnswer(invocation -> replayed(invocation.getArgument(0)));
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+
+        buffer.add(point(1));
+        buffer.add(point(2));
+        buffer.flush();
+
+        assertThat(buffer.getSpilledCount(), is(2L));
+        assertThat(Files.readAllLines(spillFile), contains(point(1).toLineProtocol(), point(2).toLineProtocol()));
+
+        buffer.add(point(3));
+        buffer.flush();
+
+        assertThat(replayedBatches, contains(List.of(point(1).toLineProtocol(), point(2).toLineProtocol())));
+        assertThat(buffer.getWrittenCount(), is(3L));
+        assertThat(buffer.getDroppedCount(), is(0L));
+        assertThat(Files.exists(spillFile), is(false));
+        assertThat(Files.exists(replayFile), is(false));
+    }
+
+    @Test
+    public void flushWithoutReplayKeepsSpilledPoints() throws IOException {
+        Files.write(spillFile, List.of("m value=1i 1"));
+        when(repository.write(anyList())).thenReturn(WriteResult.WRITTEN);
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+
+        buffer.add(point(1));
+        buffer.flush(false);
+
+        verify(repository).write(anyList());
+        verify(repository, never()).writeRecords(anyList());
+        assertThat(Files.readAllLines(spillFile), contains("m value=1i 1"));
+
+        buffer.close();
+
+        verify(repository, never()).writeRecords(anyList());
+        assertThat(Files.exists(spillFile), is(true));
+    }
+
+    @Test
+    public void pointsExceedingBufferAreSpilledByScheduler() throws IOException {
+        InfluxDBWriteBuffer buffer = createBuffer(BATCH_SIZE, Long.MAX_VALUE);
+
+        buffer.add(point(1));
+        buffer.add(point(2));
+        buffer.add(point(3));
+
+        assertThat(Files.exists(spillFile), is(false));
+        runLastScheduledTask();
+
+        assertThat(buffer.getBufferDepth(), is(2));
+        assertThat(buffer.getSpilledCount(), is(1L));
+        assertThat(Files.readAllLines(spillFile), contains(point(3).toLineProtocol()));
+        verify(repository, never()).write(anyList());
+    }
+
+    @Test
+    public void rejectedBatchIsDroppedInsteadOfSpilled() {
+        when(repository.write(anyList())).thenReturn(WriteResult.REJECTED);
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+
+        buffer.add(point(1));
+        buffer.add(point(2));
+        buffer.flush();
+
+        assertThat(buffer.getDroppedCount(), is(2L));
+        assertThat(buffer.getSpilledCount(), is(0L));
+        assertThat(Files.exists(spillFile), is(false));
+    }
+
+    @Test
+    public void rejectedSpilledBatchDoesNotBlockReplay() throws IOException {
+        Files.write(spillFile, List.of("poison value=\"a\" 1", "poison value=\"b\" 2", "m value=3i 3", "m value=4i 4"));
+        when(repository.writeRecords(anyList())).thenReturn(WriteResult.REJECTED)
+                .thenAnswer(invocation -> replayed(invocation.getArgument(0)));
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+
+        buffer.flush();
+
+        assertThat(replayedBatches, contains(List.of("m value=3i 3", "m value=4i 4")));
+        assertThat(buffer.getDroppedCount(), is(2L));
+        assertThat(buffer.getWrittenCount(), is(2L));
+        assertThat(Files.exists(spillFile), is(false));
+        assertThat(Files.exists(replayFile), is(false));
+    }
+
+    @Test
+    public void replayStopsAtTransientFailureAndResumesWithRemainingPoints() throws IOException {
+        Files.write(spillFile, List.of("m value=1i 1", "m value=2i 2", "m value=3i 3", "m value=4i 4"));
+        when(repository.writeRecords(anyList())).thenAnswer(invocation -> replayed(invocation.getArgument(0)))
+                .thenReturn(WriteResult.FAILED).thenAnswer(invocation -> replayed(invocation.getArgument(0)));
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+
+        buffer.flush();
+
+        assertThat(Files.readAllLines(replayFile), contains("m value=3i 3", "m value=4i 4"));
+        assertThat(buffer.getWrittenCount(), is(2L));
+
+        buffer.flush();
+
+        assertThat(replayedBatches,
+                contains(List.of("m value=1i 1", "m value=2i 2"), List.of("m value=3i 3", "m value=4i 4")));
+        assertThat(buffer.getWrittenCount(), is(4L));
+        assertThat(buffer.getDroppedCount(), is(0L));
+        assertThat(Files.exists(replayFile), is(false));
+    }
+
+    @Test
+    public void pointsAreDroppedOnceSpillFileIsFull() throws IOException {
+        InfluxDBWriteBuffer buffer = createBuffer(BATCH_SIZE, 1);
+
+        buffer.add(point(1));
+        buffer.add(point(2));
+        buffer.add(point(3));
+        runLastScheduledTask();
+        buffer.add(point(4));
+        runLastScheduledTask();
+
+        assertThat(buffer.getSpilledCount(), is(1L));
+        assertThat(buffer.getDroppedCount(), is(1L));
+        assertThat(Files.readAllLines(spillFile), contains(point(3).toLineProtocol()));
+    }
+
+    @Test
+    public void multiLineStringIsReplayedAsOneRecord() throws IOException {
+        when(repository.write(anyList())).thenReturn(WriteResult.FAILED, WriteResult.WRITTEN);
+        when(repository.writeRecords(anyList())).thenAnswer(invocation -> replayed(invocation.getArgument(0)));
+        InfluxDBWriteBuffer buffer = createBuffer(10, Long.MAX_VALUE);
+        InfluxPoint multiLine = InfluxPoint.newBuilder("m").withTime(Instant.ofEpochMilli(1))
+                .withValue("first line\nsecond \"line\"\r\nthird line").withTag("item", "a\nb").build();
+
+        buffer.add(multiLine);
+        buffer.add(point(2));
+        buffer.flush();
+
+        assertThat(multiLine.toLineProtocol(),
+                is("m,item=a\\nb value=\"first line\nsecond \\\"line\\\"\r\nthird line\" 1"));
+
+        buffer.add(point(3));
+        buffer.flush();
+
+        assertThat(replayedBatches, contains(List.of(multiLine.toLineProtocol(), point(2).toLineProtocol())));
+        assertThat(buffer.getDroppedCount(), is(0L));
+    }
+
+    private InfluxDBWriteBuffer createBuffer(int bufferSize, long maxSpillSize) {
+        return new InfluxDBWriteBuffer(repository, scheduler, BATCH_SIZE, 1000, bufferSize, spillFile, maxSpillSize);
+    }
+
+    private void runLastScheduledTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeastOnce()).execute(task.capture());
+        task.getValue().run();
+    }
+
+    private WriteResult replayed(List<String> records) {
+        // the buffer reuses the list for the next batch
+        replayedBatches.add(new ArrayList<>(records));
+        return WriteResult.WRITTEN;
+    }
+
+    private static InfluxPoint point(int value) {
+        return InfluxPoint.newBuilder("m").withTime(Instant.ofEpochMilli(value)).withValue(value).build();
+    }
+}
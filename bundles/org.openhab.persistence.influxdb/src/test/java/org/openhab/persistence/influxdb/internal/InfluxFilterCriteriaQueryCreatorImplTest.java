@@ -16,6 +16,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -183,6 +184,54 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                         + "|> keep(columns:[\"_measurement\", \"_time\", \"_value\"])\n\t" + "|> last()"));
     }
 
+    @Test
+    public void testAggregateQuery() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime tomorrow = now.plus(1, ChronoUnit.DAYS);
+        criteria.setBeginDate(now);
+        criteria.setEndDate(tomorrow);
+
+        String queryV1 = instanceV1.createAggregateQuery(criteria, RETENTION_POLICY, InfluxDBAggregateFunction.MEAN,
+                Duration.ofMinutes(1));
+        String expectedQueryV1 = String.format(
+                "SELECT mean(\"value\") AS \"value\" FROM \"origin\".\"sampleItem\" WHERE time >= '%s' AND time <= '%s' GROUP BY time(60000ms) fill(none);",
+                now.toInstant(), tomorrow.toInstant());
+        assertThat(queryV1, equalTo(expectedQueryV1));
+
+        String queryV2 = instanceV2.createAggregateQuery(criteria, RETENTION_POLICY, InfluxDBAggregateFunction.MEAN,
+                Duration.ofMinutes(1));
+        String expectedQueryV2 = String.format(
+                "from(bucket:\"origin\")\n\t" + "|> range(start:%s, stop:%s)\n\t"
+                        + "|> filter(fn: (r) => r[\"_measurement\"] == \"sampleItem\")\n\t"
+                        + "|> aggregateWindow(every:60000ms, fn:mean, createEmpty:false)\n\t"
+                        + "|> keep(columns:[\"_measurement\", \"_time\", \"_value\"])",
+                INFLUX2_DATE_FORMATTER.format(now.toInstant()), INFLUX2_DATE_FORMATTER.format(tomorrow.toInstant()));
+        assertThat(queryV2, equalTo(expectedQueryV2));
+    }
+
+    @Test
+    public void testAggregateQueryWithOrderingAndPagination() {
+        FilterCriteria criteria = createBaseCriteria();
+        criteria.setOrdering(FilterCriteria.Ordering.DESCENDING);
+        criteria.setPageNumber(2);
+        criteria.setPageSize(10);
+
+        String queryV1 = instanceV1.createAggregateQuery(criteria, RETENTION_POLICY, InfluxDBAggregateFunction.MAX,
+                Duration.ofHours(1));
+        assertThat(queryV1, equalTo(
+                "SELECT max(\"value\") AS \"value\" FROM \"origin\".\"sampleItem\" GROUP BY time(3600000ms) fill(none) ORDER BY time DESC LIMIT 10 OFFSET 20;"));
+
+        String queryV2 = instanceV2.createAggregateQuery(criteria, RETENTION_POLICY, InfluxDBAggregateFunction.MAX,
+                Duration.ofHours(1));
+        assertThat(queryV2,
+                equalTo("from(bucket:\"origin\")\n\t" + "|> range(start:-100y)\n\t"
+                        + "|> filter(fn: (r) => r[\"_measurement\"] == \"sampleItem\")\n\t"
+                        + "|> aggregateWindow(every:3600000ms, fn:max, createEmpty:false)\n\t"
+                        + "|> keep(columns:[\"_measurement\", \"_time\", \"_value\"])\n\t"
+                        + "|> sort(desc:true, columns:[\"_time\"])\n\t" + "|> limit(n:10, offset:20)"));
+    }
+
     private FilterCriteria createBaseCriteria() {
         return createBaseCriteria(ITEM_NAME);
     }
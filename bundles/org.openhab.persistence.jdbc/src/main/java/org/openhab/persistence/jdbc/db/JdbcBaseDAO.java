@@ -13,14 +13,22 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
@@ -51,10 +59,14 @@ import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
+import org.openhab.persistence.jdbc.dto.AggregateFunction;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
 import org.openhab.persistence.jdbc.dto.JdbcHistoricItem;
+import org.openhab.persistence.jdbc.dto.JdbcItemDescriptor;
 import org.openhab.persistence.jdbc.utils.DbMetaData;
+import org.openhab.persistence.jdbc.utils.JdbcBatchWriter;
+import org.openhab.persistence.jdbc.utils.JdbcCursorReader;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +96,8 @@ public class JdbcBaseDAO {
     protected String sqlGetItemTables;
     protected String sqlCreateItemTable;
     protected String sqlInsertItemValue;
+    // expression truncating the column 'time' to the start of its '#bucket#' seconds long bucket, null if unsupported
+    protected @Nullable String sqlTimeBucket;
 
     /********
      * INIT *
@@ -328,39 +342,141 @@ public class JdbcBaseDAO {
         Yank.execute(sql, null);
     }
 
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue(), storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
+    /**
+     * Resolves everything needed to store and query values of the given item, so that this has not to be done for
+     * every single value.
+     */
+    public JdbcItemDescriptor createItemDescriptor(Item item, String tableName) {
+        String itemType = getItemType(item);
+        String dbType = sqlTypes.get(itemType);
+        Item baseItem = item instanceof GroupItem ? ((GroupItem) item).getBaseItem() : item;
+        Unit<? extends Quantity<?>> unit = baseItem instanceof NumberItem ? ((NumberItem) baseItem).getUnit() : null;
+        JdbcItemDescriptor descriptor = new JdbcItemDescriptor(item.getName(), tableName, itemType, dbType, unit,
+                insertItemValueProvider(tableName, dbType, sqlTypes.get("tablePrimaryValue")),
+                insertItemValueProvider(tableName, dbType, "?"));
+        logger.debug("JDBC::createItemDescriptor {}", descriptor);
+        return descriptor;
+    }
+
+    public void doStoreItemValue(JdbcItemDescriptor descriptor, Item item, State itemState,
+            @Nullable ZonedDateTime date) {
+        ItemVO storedVO = storeItemValueProvider(item, descriptor, itemState,
+                new ItemVO(descriptor.getTableName(), null));
+        String sql = date == null ? descriptor.getInsertSql() : descriptor.getInsertSqlWithTime();
+        Object[] params = insertItemValueParamsProvider(
+                date == null ? null : new Date(date.toInstant().toEpochMilli()), storedVO.getValue());
+        logger.debug("JDBC::doStoreItemValue sql={} date={} value='{}'", sql, date, storedVO.getValue());
         Yank.execute(sql, params);
     }
 
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo, ZonedDateTime date) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { storedVO.getTableName(), "?" });
-        java.sql.Timestamp timestamp = new java.sql.Timestamp(date.toInstant().toEpochMilli());
-        Object[] params = new Object[] { timestamp, storedVO.getValue(), storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} timestamp={} value='{}'", sql, timestamp, storedVO.getValue());
-        Yank.execute(sql, params);
+    /**
+     * Converts the given state into a value object which can be queued and stored later on by
+     * {@link #doStoreItemValues(List)}. The time stamp of the value is fixed at the time of this call.
+     */
+    public ItemVO doPrepareItemValue(JdbcItemDescriptor descriptor, Item item, State itemState,
+            ZonedDateTime date) {
+        ItemVO storedVO = storeItemValueProvider(item, descriptor, itemState,
+                new ItemVO(descriptor.getTableName(), null));
+        storedVO.setTime(new Date(date.toInstant().toEpochMilli()));
+        storedVO.setInsertSql(descriptor.getInsertSqlWithTime());
+        return storedVO;
+    }
+
+    /**
+     * Stores all given (prepared) values using one JDBC batch per item table, see {@link JdbcBatchWriter}. The time is
+     * the primary key of an item table, so of several values of a table with the same time only the last one is
+     * stored.
+     *
+     * @param vol values prepared by {@link #doPrepareItemValue(JdbcItemDescriptor, Item, State, ZonedDateTime)}
+     * @return the values which failed transiently (e.g. because the connection was lost) and should be retried,
+     *         values rejected by the database are logged and dropped
+     */
+    public List<ItemVO> doStoreItemValues(List<ItemVO> vol) {
+        Map<String, Map<Long, ItemVO>> batches = new LinkedHashMap<>();
+        for (ItemVO vo : vol) {
+            batches.computeIfAbsent(vo.getTableName(), k -> new LinkedHashMap<>()).put(vo.getTime().getTime(), vo);
+        }
+        List<ItemVO> failed = new ArrayList<>();
+        for (Map<Long, ItemVO> rows : batches.values()) {
+            List<ItemVO> batch = new ArrayList<>(rows.values());
+            ItemVO first = batch.get(0);
+            String sql = first.getInsertSql();
+            if (sql == null) {
+                sql = insertItemValueProvider(first.getTableName(), first.getDbType(), "?");
+            }
+            logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, batch.size());
+            failed.addAll(JdbcBatchWriter.insert(Yank.getDefaultConnectionPool(), sql, batch,
+                    vo -> insertItemValueParamsProvider(vo.getTime(), vo.getValue())));
+        }
+        return failed;
+    }
+
+    /**
+     * Queries the values of an item. The rows are read from a forward-only cursor, fetching {@code fetchSize} rows
+     * at once, and converted one by one, so only the returned list is held in memory.
+     *
+     * @return the values or {@code null} if the query failed
+     */
+    public @Nullable List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter,
+            int numberDecimalcount, String table, String name, ZoneId timeZone,
+            @Nullable Unit<? extends Quantity<?>> unit, int fetchSize) {
+        List<HistoricItem> items = new ArrayList<>();
+        if (!doStreamHistItemFilterQuery(item, filter, numberDecimalcount, table, name, timeZone, unit, fetchSize,
+                items::add)) {
+            return null;
+        }
+        return items;
     }
 
-    public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
-            String table, String name, ZoneId timeZone) {
+    /**
+     * Like {@link #doGetHistItemFilterQuery}, but the values are handed to the consumer while they are read from a
+     * forward-only cursor, fetching {@code fetchSize} rows at once. The connection is released before this method
+     * returns.
+     *
+     * @return {@code false} if the query failed, the consumer may have received some values in this case
+     */
+    public boolean doStreamHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount, String table,
+            String name, ZoneId timeZone, @Nullable Unit<? extends Quantity<?>> unit, int fetchSize,
+            Consumer<HistoricItem> consumer) {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
+        logger.debug("JDBC::doStreamHistItemFilterQuery sql={} fetchSize={}", sql, fetchSize);
+        String itemName = item.getName();
+        boolean success = JdbcCursorReader.forEachRow(Yank.getDefaultConnectionPool(), sql,
+                cursorFetchSizeProvider(fetchSize), o -> consumer.accept(
+                        new JdbcHistoricItem(itemName, objectAsState(item, unit, o[1]), objectAsDate(o[0]))));
+        if (!success) {
+            logger.debug("JDBC::doStreamHistItemFilterQuery Query failed.");
+        }
+        return success;
+    }
+
+    public boolean isAggregateQuerySupported() {
+        return sqlTimeBucket != null;
+    }
+
+    /**
+     * Queries the values of the given item aggregated per time bucket, see {@link AggregateFunction}.
+     * Only numeric items (Number, Dimmer, Rollershutter) are supported. Paging of the filter is not applied.
+     *
+     * @return the values or {@code null} if the query failed
+     */
+    public @Nullable List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter,
+            AggregateFunction function, Duration bucket, String table, ZoneId timeZone,
+            @Nullable Unit<? extends Quantity<?>> unit) {
+        String sql = histItemAggregateQueryProvider(filter, function, Math.max(1, bucket.getSeconds()), table,
+                timeZone);
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={}", sql);
         List<Object[]> m = Yank.queryObjectArrays(sql, null);
         if (m == null) {
-            logger.debug("JDBC::doGetHistItemFilterQuery Query failed. Returning an empty list.");
-            return List.of();
+            logger.debug("JDBC::doGetHistItemAggregateQuery Query failed.");
+            return null;
         }
-        // we already retrieve the unit here once as it is a very costly operation
         String itemName = item.getName();
-        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
-        return m.stream().map(o -> new JdbcHistoricItem(itemName, objectAsState(item, unit, o[1]), objectAsDate(o[0])))
+        return m.stream().filter(o -> o[1] != null)
+                .map(o -> new JdbcHistoricItem(itemName,
+                        function == AggregateFunction.LAST ? objectAsState(item, unit, o[1])
+                                : aggregateAsState(item, unit, o[1]),
+                        objectAsDate(o[0])))
                 .collect(Collectors.<HistoricItem> toList());
     }
 
@@ -398,6 +514,37 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Provides the fetch size to set on a statement to retrieve rows in chunks of the given size.
+     */
+    protected int cursorFetchSizeProvider(int fetchSize) {
+        return fetchSize;
+    }
+
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, AggregateFunction function,
+            long bucketSeconds, String table, ZoneId timeZone) {
+        logger.debug(
+                "JDBC::histItemAggregateQueryProvider filter = {}, function = {}, bucketSeconds = {}, table = {}",
+                filter, function, bucketSeconds, table);
+        String timeBucket = Objects.requireNonNull(sqlTimeBucket).replace("#bucket#", String.valueOf(bucketSeconds));
+        String filterString = resolveTimeFilter(filter, timeZone);
+        String order = (filter.getOrdering() == Ordering.ASCENDING) ? " ASC" : " DESC";
+        String queryString;
+        if (function == AggregateFunction.LAST) {
+            // SELECT t.time, t.value FROM item0001 t INNER JOIN (SELECT MAX(time) AS time FROM item0001 GROUP BY
+            // <bucket>) b ON t.time=b.time ORDER BY t.time DESC
+            queryString = "SELECT t.time, t.value FROM " + table + " t INNER JOIN (SELECT MAX(time) AS time FROM "
+                    + table + filterString + " GROUP BY " + timeBucket + ") b ON t.time=b.time ORDER BY t.time"
+                    + order;
+        } else {
+            // SELECT <bucket> AS bucket, AVG(value) FROM item0001 GROUP BY <bucket> ORDER BY bucket DESC
+            queryString = "SELECT " + timeBucket + " AS bucket, " + function.name() + "(value) FROM " + table
+                    + filterString + " GROUP BY " + timeBucket + " ORDER BY bucket" + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
     protected String histItemFilterDeleteProvider(FilterCriteria filter, String table, ZoneId timeZone) {
         logger.debug("JDBC::histItemFilterDeleteProvider filter = {}, table = {}", filter, table);
 
@@ -434,8 +581,27 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
-    protected ItemVO storeItemValueProvider(Item item, State itemState, ItemVO vo) {
-        String itemType = getItemType(item);
+    /**
+     * Provides the insert statement for a value of the given table, see
+     * {@link #insertItemValueParamsProvider(Date, Object)} for the matching parameters.
+     *
+     * @param tablePrimaryValue sql expression for the time of the new row, "?" for a time parameter
+     */
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { tableName, tablePrimaryValue });
+    }
+
+    /**
+     * @param time the time of the new row or null if the database time is used
+     */
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        return time == null ? new Object[] { value, value }
+                : new Object[] { new java.sql.Timestamp(time.getTime()), value, value };
+    }
+
+    protected ItemVO storeItemValueProvider(Item item, JdbcItemDescriptor descriptor, State itemState, ItemVO vo) {
+        String itemType = descriptor.getItemType();
 
         logger.debug("JDBC::storeItemValueProvider: item '{}' as Type '{}' in '{}' with state '{}'", item.getName(),
                 itemType, vo.getTableName(), itemState);
@@ -464,7 +630,7 @@ public class JdbcBaseDAO {
             case "NUMBERITEM":
                 State convertedState = itemState;
                 if (item instanceof NumberItem && itemState instanceof QuantityType) {
-                    Unit<? extends Quantity<?>> unit = ((NumberItem) item).getUnit();
+                    Unit<? extends Quantity<?>> unit = descriptor.getUnit();
                     if (unit != null && !Units.ONE.equals(unit)) {
                         convertedState = ((QuantityType<?>) itemState).toUnit(unit);
                         if (convertedState == null) {
@@ -563,7 +729,21 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Converts the result of an aggregate function, which might be of another type than the column itself.
+     */
+    protected State aggregateAsState(Item item, @Nullable Unit<? extends Quantity<?>> unit, Object v) {
+        BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v : new BigDecimal(v.toString());
+        if (item instanceof DimmerItem || item instanceof RollershutterItem) {
+            return new PercentType(value.setScale(0, RoundingMode.HALF_UP));
+        }
+        return unit == null ? new DecimalType(value) : QuantityType.valueOf(value.doubleValue(), unit);
+    }
+
     protected ZonedDateTime objectAsDate(Object v) {
+        if (v instanceof LocalDateTime) {
+            return ZonedDateTime.of((LocalDateTime) v, ZoneId.systemDefault());
+        }
         if (v instanceof java.lang.String) {
             return ZonedDateTime.ofInstant(java.sql.Timestamp.valueOf(v.toString()).toInstant(),
                     ZoneId.systemDefault());
@@ -13,22 +13,14 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.time.ZoneId;
-import java.util.List;
-import java.util.stream.Collectors;
-
-import javax.measure.Quantity;
-import javax.measure.Unit;
+import java.util.Date;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
-import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
-import org.openhab.core.persistence.HistoricItem;
-import org.openhab.core.types.State;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
-import org.openhab.persistence.jdbc.dto.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -148,37 +140,22 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         Yank.execute(sql, null);
     }
 
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName().toUpperCase(), storedVO.getDbType(),
-                        sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
-        Yank.execute(sql, params);
+                new String[] { tableName.toUpperCase(), dbType, tablePrimaryValue });
     }
 
     @Override
-    public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
-            String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
-        logger.debug("JDBC::doGetHistItemFilterQuery got Array length={}", m.size());
-        // we already retrieve the unit here once as it is a very costly operation
-        String itemName = item.getName();
-        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
-        return m.stream().map(o -> {
-            logger.debug("JDBC::doGetHistItemFilterQuery 0='{}' 1='{}'", o[0], o[1]);
-            return new JdbcHistoricItem(itemName, objectAsState(item, unit, o[1]), objectAsDate(o[0]));
-        }).collect(Collectors.<HistoricItem> toList());
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        return time == null ? new Object[] { value }
+                : new Object[] { new java.sql.Timestamp(time.getTime()), value };
     }
 
-    /****************************
-     * SQL generation Providers *
-     ****************************/
-
     @Override
     protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
             String simpleName, ZoneId timeZone) {
@@ -12,10 +12,9 @@
  */
 package org.openhab.persistence.jdbc.db;
 
-import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
-import org.openhab.core.types.State;
-import org.openhab.persistence.jdbc.dto.ItemVO;
+import java.util.Date;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +45,8 @@ public class JdbcH2DAO extends JdbcBaseDAO {
         // SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( NOW(), CAST( ? as #dbType#) )";
         // http://stackoverflow.com/questions/19768051/h2-sql-database-insert-if-the-record-does-not-exist
         sqlInsertItemValue = "MERGE INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        sqlTimeBucket = "DATEADD('SECOND', DATEDIFF('SECOND', TIMESTAMP '1970-01-01 00:00:00', time) "
+                + "/ #bucket# * #bucket#, TIMESTAMP '1970-01-01 00:00:00')";
     }
 
     /**
@@ -71,20 +72,21 @@ public class JdbcH2DAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), storedVO.getDbType(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
-        Yank.execute(sql, params);
+                new String[] { tableName, dbType, tablePrimaryValue });
     }
 
-    /****************************
-     * SQL generation Providers *
-     ****************************/
+    @Override
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        return time == null ? new Object[] { value }
+                : new Object[] { new java.sql.Timestamp(time.getTime()), value };
+    }
 
     /*****************
      * H E L P E R S *
@@ -12,10 +12,10 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.util.Date;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
-import org.openhab.core.types.State;
-import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -101,21 +101,21 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), storedVO.getDbType(), storedVO.getTableName(),
-                        sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
-        Yank.execute(sql, params);
+                new String[] { tableName, dbType, tableName, tablePrimaryValue });
     }
 
-    /****************************
-     * SQL generation Providers *
-     ****************************/
+    @Override
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        return time == null ? new Object[] { value }
+                : new Object[] { new java.sql.Timestamp(time.getTime()), value };
+    }
 
     /*****************
      * H E L P E R S *
@@ -45,6 +45,7 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
 
     private void initSqlQueries() {
         logger.debug("JDBC::initSqlQueries: '{}'", this.getClass().getSimpleName());
+        sqlTimeBucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / #bucket#) * #bucket#)";
     }
 
     /**
@@ -102,6 +103,11 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
     /****************************
      * SQL generation Providers *
      ****************************/
+    @Override
+    protected int cursorFetchSizeProvider(int fetchSize) {
+        // the driver only streams rows one by one, if the fetch size is Integer.MIN_VALUE (without useCursorFetch)
+        return Integer.MIN_VALUE;
+    }
 
     /*****************
      * H E L P E R S *
@@ -13,14 +13,13 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
-import org.openhab.core.types.State;
-import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -60,6 +59,8 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
         // SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( NOW(), CAST( ? as #dbType#) ) ON
         // CONFLICT DO NOTHING";
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        // buckets are aligned to the epoch, the column 'time' is a timestamp without time zone
+        sqlTimeBucket = "to_timestamp(floor(extract(epoch FROM time) / #bucket#) * #bucket#) AT TIME ZONE 'UTC'";
     }
 
     /**
@@ -133,20 +134,21 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), storedVO.getDbType(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
-        Yank.execute(sql, params);
+                new String[] { tableName, dbType, tablePrimaryValue });
     }
 
-    /****************************
-     * SQL generation Providers *
-     ****************************/
+    @Override
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        return time == null ? new Object[] { value }
+                : new Object[] { new java.sql.Timestamp(time.getTime()), value };
+    }
 
     @Override
     protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
@@ -12,10 +12,13 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
-import org.openhab.core.types.State;
-import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -31,6 +34,9 @@ import org.slf4j.LoggerFactory;
 public class JdbcSqliteDAO extends JdbcBaseDAO {
     private final Logger logger = LoggerFactory.getLogger(JdbcSqliteDAO.class);
 
+    private static final DateTimeFormatter SQLITE_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
     /********
      * INIT *
      ********/
@@ -90,20 +96,25 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, State itemState, ItemVO vo) {
-        ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), storedVO.getDbType(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
-        Yank.execute(sql, params);
+                new String[] { tableName, dbType, tablePrimaryValue });
     }
 
-    /****************************
-     * SQL generation Providers *
-     ****************************/
+    @Override
+    protected Object[] insertItemValueParamsProvider(@Nullable Date time, Object value) {
+        if (time == null) {
+            return new Object[] { value };
+        }
+        // same format and (local) time zone as used by strftime for 'tablePrimaryValue'
+        return new Object[] {
+                SQLITE_DATE_FORMAT.format(ZonedDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault())), value };
+    }
 
     /*****************
      * H E L P E R S *
@@ -32,6 +32,11 @@ public class JdbcTimescaledbDAO extends JdbcPostgresqlDAO {
 
     private final String sqlCreateHypertable = "SELECT created from create_hypertable('#tableName#', 'time')";
 
+    public JdbcTimescaledbDAO() {
+        super();
+        sqlTimeBucket = "time_bucket('#bucket# seconds', time)";
+    }
+
     @Override
     public Properties getConnectionProperties() {
         Properties properties = (Properties) this.databaseProps.clone();
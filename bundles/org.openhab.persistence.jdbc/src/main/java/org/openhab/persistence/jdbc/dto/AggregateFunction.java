@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.dto;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Aggregate functions which can be applied per time bucket by the database.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public enum AggregateFunction {
+    /** average of the values in a bucket, returned with the start time of the bucket */
+    AVG,
+    /** minimum of the values in a bucket, returned with the start time of the bucket */
+    MIN,
+    /** maximum of the values in a bucket, returned with the start time of the bucket */
+    MAX,
+    /** last value in a bucket, returned with its own time */
+    LAST
+}
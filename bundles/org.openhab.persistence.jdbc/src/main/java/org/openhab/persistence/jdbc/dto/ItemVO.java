@@ -38,6 +38,7 @@ public class ItemVO implements Serializable {
     private Class<?> javaType;
     private Date time;
     private Object value;
+    private @Nullable String insertSql;
 
     public ItemVO(String tableName, @Nullable String newTableName) {
         logger.debug("JDBC:ItemVO tableName={}; newTableName={}; ", tableName, newTableName);
@@ -118,6 +119,17 @@ public class ItemVO implements Serializable {
         this.value = value;
     }
 
+    /**
+     * @return the insert statement with a time parameter for the table of this value, if already resolved
+     */
+    public @Nullable String getInsertSql() {
+        return insertSql;
+    }
+
+    public void setInsertSql(String insertSql) {
+        this.insertSql = insertSql;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
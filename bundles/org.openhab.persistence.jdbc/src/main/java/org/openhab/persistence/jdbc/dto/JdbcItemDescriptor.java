@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.dto;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Everything needed to store and query the values of one item, resolved once per item.
+ *
+ * A descriptor has to be dropped whenever the item or its table changes.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcItemDescriptor {
+
+    private final String itemName;
+    private final String tableName;
+    private final String itemType;
+    private final String dbType;
+    private final @Nullable Unit<? extends Quantity<?>> unit;
+    private final String insertSql;
+    private final String insertSqlWithTime;
+
+    public JdbcItemDescriptor(String itemName, String tableName, String itemType, String dbType,
+            @Nullable Unit<? extends Quantity<?>> unit, String insertSql, String insertSqlWithTime) {
+        this.itemName = itemName;
+        this.tableName = tableName;
+        this.itemType = itemType;
+        this.dbType = dbType;
+        this.unit = unit;
+        this.insertSql = insertSql;
+        this.insertSqlWithTime = insertSqlWithTime;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return the item type as used as key for the sql types, e.g. "NUMBERITEM"
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    /**
+     * @return the unit of a number item (or of the base item of a group), if any
+     */
+    public @Nullable Unit<? extends Quantity<?>> getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return insert statement using the database time for the new row
+     */
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    /**
+     * @return insert statement with a parameter for the time of the new row
+     */
+    public String getInsertSqlWithTime() {
+        return insertSqlWithTime;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("JdbcItemDescriptor [itemName=").append(itemName).append(", tableName=")
+                .append(tableName).append(", itemType=").append(itemType).append(", dbType=").append(dbType)
+                .append(", unit=").append(unit).append("]").toString();
+    }
+}
@@ -60,6 +60,10 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private int batchSize = 0;
+    private long batchInterval = 1000;
+    private int fetchSize = 0;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -173,6 +177,24 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bs = (String) configuration.get("batchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String bi = (String) configuration.get("batchInterval");
+        if (bi != null && !bi.isBlank() && isNumericPattern.matcher(bi).matches()) {
+            batchInterval = Long.parseLong(bi);
+            logger.debug("JDBC::updateConfig: batchInterval={}", batchInterval);
+        }
+
+        String fs = (String) configuration.get("fetchSize");
+        if (fs != null && !fs.isBlank() && isNumericPattern.matcher(fs).matches()) {
+            fetchSize = Integer.parseInt(fs);
+            logger.debug("JDBC::updateConfig: fetchSize={}", fetchSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -358,6 +380,18 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBatchInterval() {
+        return batchInterval;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
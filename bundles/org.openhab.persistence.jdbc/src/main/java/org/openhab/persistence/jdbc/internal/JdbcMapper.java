@@ -13,14 +13,20 @@
 package org.openhab.persistence.jdbc.internal;
 
 import java.sql.SQLInvalidAuthorizationSpecException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
 import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
 import org.openhab.core.i18n.TimeZoneProvider;
@@ -29,8 +35,10 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.dto.AggregateFunction;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
+import org.openhab.persistence.jdbc.dto.JdbcItemDescriptor;
 import org.openhab.persistence.jdbc.dto.JdbcPersistenceItemInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +60,8 @@ public class JdbcMapper {
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
     protected final Map<String, String> sqlTables = new HashMap<>();
+    protected final Map<String, JdbcItemDescriptor> itemDescriptors = new ConcurrentHashMap<>();
+    protected @Nullable JdbcWriteBuffer writeBuffer;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
@@ -140,6 +150,7 @@ public class JdbcMapper {
         logger.debug("JDBC::updateItemTableNames");
         long timerStart = System.currentTimeMillis();
         conf.getDBDAO().doUpdateItemTableNames(vol);
+        itemDescriptors.clear();
         logTime("updateItemTableNames", timerStart, System.currentTimeMillis());
     }
 
@@ -153,32 +164,92 @@ public class JdbcMapper {
 
     public Item storeItemValue(Item item, State itemState, @Nullable ZonedDateTime date) {
         logger.debug("JDBC::storeItemValue: item={} state={} date={}", item, itemState, date);
-        String tableName = getTable(item);
-        if (tableName == null) {
+        JdbcItemDescriptor descriptor = getItemDescriptor(item);
+        if (descriptor == null) {
             logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
             return item;
         }
-        long timerStart = System.currentTimeMillis();
-        if (date == null) {
-            conf.getDBDAO().doStoreItemValue(item, itemState, new ItemVO(tableName, null));
-        } else {
-            conf.getDBDAO().doStoreItemValue(item, itemState, new ItemVO(tableName, null), date);
+        JdbcWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            ItemVO vo = conf.getDBDAO().doPrepareItemValue(descriptor, item, itemState,
+                    date == null ? ZonedDateTime.now() : date);
+            if (buffer.add(vo)) {
+                return item;
+            }
+            // the buffer is being closed, store synchronously
         }
+        long timerStart = System.currentTimeMillis();
+        conf.getDBDAO().doStoreItemValue(descriptor, item, itemState, date);
         logTime("storeItemValue", timerStart, System.currentTimeMillis());
         errCnt = 0;
         return item;
     }
 
-    public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
-            Item item) {
+    /**
+     * Stores values collected by the {@link JdbcWriteBuffer}.
+     *
+     * @return the values which could not be stored and should be retried
+     */
+    protected List<ItemVO> storeItemValues(List<ItemVO> vol) {
+        logger.debug("JDBC::storeItemValues: {} values", vol.size());
+        if (!checkDBAccessability()) {
+            logger.warn(
+                    "JDBC::storeItemValues: No connection to database. Keeping {} values for a later retry! Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
+                    vol.size(), errCnt, conf.getErrReconnectThreshold());
+            return vol;
+        }
+        long timerStart = System.currentTimeMillis();
+        List<ItemVO> failed = conf.getDBDAO().doStoreItemValues(vol);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        if (!failed.isEmpty()) {
+            errCnt++;
+            logger.warn("JDBC::storeItemValues: failed to store {} of {} values, error count:{}", failed.size(),
+                    vol.size(), errCnt);
+            if (conf.getErrReconnectThreshold() > 0 && errCnt > conf.getErrReconnectThreshold()) {
+                // force checkDBAccessability() to ping (and thereby reconnect to) the database again
+                initialized = false;
+            }
+            return failed;
+        }
+        JdbcWriteBuffer buffer = writeBuffer;
+        if (buffer != null && conf.enableLogTime && logger.isInfoEnabled()) {
+            logger.info("JDBC::storeItemValues: queueDepth = {}, flushCount = {}, averageFlushTime = {} ms",
+                    buffer.getQueueDepth(), buffer.getFlushCount(), buffer.getAverageFlushTime());
+        }
+        errCnt = 0;
+        initialized = true;
+        return List.of();
+    }
+
+    /**
+     * Stores all values pending in the write buffer, if any.
+     */
+    protected void flushWriteBuffer() {
+        JdbcWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * @return the values or {@code null} if the query failed
+     */
+    public @Nullable List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item) {
         logger.debug(
                 "JDBC::getHistItemFilterQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' itemName='{}'",
                 (filter != null), numberDecimalcount, table, item, item.getName());
         if (table != null) {
             long timerStart = System.currentTimeMillis();
+            JdbcItemDescriptor descriptor = findItemDescriptor(item);
+            Unit<? extends Quantity<?>> unit = descriptor != null ? descriptor.getUnit() : null;
             List<HistoricItem> result = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount,
-                    table, item.getName(), timeZoneProvider.getTimeZone());
+                    table, item.getName(), timeZoneProvider.getTimeZone(), unit, conf.getFetchSize());
             logTime("getHistItemFilterQuery", timerStart, System.currentTimeMillis());
+            if (result == null) {
+                queryFailed("getHistItemFilterQuery", item);
+                return null;
+            }
             errCnt = 0;
             return result;
         } else {
@@ -187,6 +258,57 @@ public class JdbcMapper {
         return null;
     }
 
+    /**
+     * @return {@code false} if the query failed, the consumer may have received some values in this case
+     */
+    public boolean streamHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table, Item item,
+            Consumer<HistoricItem> consumer) {
+        logger.debug("JDBC::streamHistItemFilterQuery numberDecimalcount='{}' table='{}' itemName='{}'",
+                numberDecimalcount, table, item.getName());
+        long timerStart = System.currentTimeMillis();
+        JdbcItemDescriptor descriptor = findItemDescriptor(item);
+        Unit<? extends Quantity<?>> unit = descriptor != null ? descriptor.getUnit() : null;
+        boolean success = conf.getDBDAO().doStreamHistItemFilterQuery(item, filter, numberDecimalcount, table,
+                item.getName(), timeZoneProvider.getTimeZone(), unit, conf.getFetchSize(), consumer);
+        logTime("streamHistItemFilterQuery", timerStart, System.currentTimeMillis());
+        if (!success) {
+            queryFailed("streamHistItemFilterQuery", item);
+            return false;
+        }
+        errCnt = 0;
+        return true;
+    }
+
+    private void queryFailed(String method, Item item) {
+        errCnt++;
+        logger.warn("JDBC::{}: query for item '{}' failed, error count:{}", method, item.getName(), errCnt);
+        if (conf.getErrReconnectThreshold() > 0 && errCnt > conf.getErrReconnectThreshold()) {
+            // force checkDBAccessability() to ping (and thereby reconnect to) the database again
+            initialized = false;
+        }
+    }
+
+    /**
+     * @return the values or {@code null} if the query failed
+     */
+    public @Nullable List<HistoricItem> getHistItemAggregateQuery(FilterCriteria filter, AggregateFunction function,
+            Duration bucket, String table, Item item) {
+        logger.debug("JDBC::getHistItemAggregateQuery function='{}' bucket='{}' table='{}' itemName='{}'", function,
+                bucket, table, item.getName());
+        long timerStart = System.currentTimeMillis();
+        JdbcItemDescriptor descriptor = findItemDescriptor(item);
+        Unit<? extends Quantity<?>> unit = descriptor != null ? descriptor.getUnit() : null;
+        List<HistoricItem> result = conf.getDBDAO().doGetHistItemAggregateQuery(item, filter, function, bucket, table,
+                timeZoneProvider.getTimeZone(), unit);
+        logTime("getHistItemAggregateQuery", timerStart, System.currentTimeMillis());
+        if (result == null) {
+            queryFailed("getHistItemAggregateQuery", item);
+            return null;
+        }
+        errCnt = 0;
+        return result;
+    }
+
     @SuppressWarnings("null")
     public boolean deleteItemValues(FilterCriteria filter, String table) {
         logger.debug("JDBC::deleteItemValues filter='{}' table='{}' itemName='{}'", (filter != null), table,
@@ -261,6 +383,7 @@ public class JdbcMapper {
      * DATABASE TABLEHANDLING *
      **************************/
     protected void checkDBSchema() {
+        itemDescriptors.clear();
         // Create Items Table if does not exist
         createItemsTableIfNot(new ItemsVO());
         if (conf.getRebuildTableNames()) {
@@ -332,6 +455,38 @@ public class JdbcMapper {
         return tableName;
     }
 
+    /**
+     * Returns the cached descriptor of the given item. The item table is created if it does not exist yet.
+     */
+    protected @Nullable JdbcItemDescriptor getItemDescriptor(Item item) {
+        JdbcItemDescriptor descriptor = itemDescriptors.get(item.getName());
+        if (descriptor == null) {
+            String tableName = getTable(item);
+            if (tableName == null) {
+                return null;
+            }
+            descriptor = conf.getDBDAO().createItemDescriptor(item, tableName);
+            itemDescriptors.put(item.getName(), descriptor);
+        }
+        return descriptor;
+    }
+
+    /**
+     * Returns the cached descriptor of the given item, if its item table exists.
+     */
+    protected @Nullable JdbcItemDescriptor findItemDescriptor(Item item) {
+        JdbcItemDescriptor descriptor = itemDescriptors.get(item.getName());
+        if (descriptor == null) {
+            String tableName = sqlTables.get(item.getName());
+            if (tableName == null) {
+                return null;
+            }
+            descriptor = conf.getDBDAO().createItemDescriptor(item, tableName);
+            itemDescriptors.put(item.getName(), descriptor);
+        }
+        return descriptor;
+    }
+
     private void formatTableNames() {
         boolean tmpinit = initialized;
         if (tmpinit) {
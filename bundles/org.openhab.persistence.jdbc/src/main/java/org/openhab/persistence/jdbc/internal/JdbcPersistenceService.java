@@ -12,21 +12,30 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.common.registry.RegistryChangeListener;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.ColorItem;
+import org.openhab.core.library.items.DimmerItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.RollershutterItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.ModifiablePersistenceService;
@@ -36,6 +45,7 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.dto.AggregateFunction;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
@@ -56,7 +66,8 @@ import org.slf4j.LoggerFactory;
         QueryablePersistenceService.class }, configurationPid = "org.openhab.jdbc", //
         property = Constants.SERVICE_PID + "=org.openhab.jdbc")
 @ConfigurableService(category = "persistence", label = "JDBC Persistence Service", description_uri = JdbcPersistenceService.CONFIG_URI)
-public class JdbcPersistenceService extends JdbcMapper implements ModifiablePersistenceService {
+public class JdbcPersistenceService extends JdbcMapper
+        implements ModifiablePersistenceService, RegistryChangeListener<Item> {
 
     private static final String SERVICE_ID = "jdbc";
     private static final String SERVICE_LABEL = "JDBC";
@@ -87,6 +98,7 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void activate(BundleContext bundleContext, Map<Object, Object> configuration) {
         logger.debug("JDBC::activate: persistence service activated");
         updateConfig(configuration);
+        itemRegistry.addRegistryChangeListener(this);
     }
 
     /**
@@ -110,6 +122,8 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        itemRegistry.removeRegistryChangeListener(this);
+        closeWriteBuffer();
         initialized = false;
     }
 
@@ -160,6 +174,22 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         }
     }
 
+    @Override
+    public void added(Item element) {
+        itemDescriptors.remove(element.getName());
+    }
+
+    @Override
+    public void removed(Item element) {
+        itemDescriptors.remove(element.getName());
+    }
+
+    @Override
+    public void updated(Item oldElement, Item element) {
+        itemDescriptors.remove(oldElement.getName());
+        itemDescriptors.remove(element.getName());
+    }
+
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
         return getItems();
@@ -182,29 +212,14 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
         // Get the item name from the filter
         // Also get the Item object so we can determine the type
-        Item item = null;
         String itemName = filter.getItemName();
         logger.debug("JDBC::query: item is {}", itemName);
-        try {
-            item = itemRegistry.getItem(itemName);
-        } catch (ItemNotFoundException e1) {
-            logger.error("JDBC::query: unable to get item for itemName: '{}'. Ignore and give up!", itemName);
+        Item item = getQueryItem(itemName);
+        if (item == null) {
             return List.of();
         }
 
-        if (item instanceof GroupItem) {
-            // For Group Item is BaseItem needed to get correct Type of Value.
-            item = GroupItem.class.cast(item).getBaseItem();
-            logger.debug("JDBC::query: item is instanceof GroupItem '{}'", itemName);
-            if (item == null) {
-                logger.debug("JDBC::query: BaseItem of GroupItem is null. Ignore and give up!");
-                return List.of();
-            }
-            if (item instanceof GroupItem) {
-                logger.debug("JDBC::query: BaseItem of GroupItem is a GroupItem too. Ignore and give up!");
-                return List.of();
-            }
-        }
+        flushWriteBuffer();
 
         String table = sqlTables.get(itemName);
         if (table == null) {
@@ -214,20 +229,184 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
         long timerStart = System.currentTimeMillis();
         List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        if (items == null) {
+            return List.of();
+        }
         if (logger.isDebugEnabled()) {
             logger.debug("JDBC: Query for item '{}' returned {} rows in {} ms", itemName, items.size(),
                     System.currentTimeMillis() - timerStart);
         }
+        return items;
+    }
+
+    /**
+     * Queries the {@link PersistenceService} for data with a given filter criteria and hands every value to the
+     * consumer while it is read from the database cursor, instead of collecting the values in memory first, e.g. for
+     * exports over long periods. The database connection is released before this method returns.
+     *
+     * @param filter the filter to apply to the query
+     * @param consumer receives the values in the order of the filter
+     * @return {@code false} if the database could not be queried, the consumer may have received some values then
+     */
+    public boolean streamQuery(FilterCriteria filter, Consumer<HistoricItem> consumer) {
+        if (!checkDBAccessability()) {
+            logger.warn("JDBC::streamQuery: database not connected, query aborted for item '{}'",
+                    filter.getItemName());
+            return false;
+        }
+
+        String itemName = filter.getItemName();
+        logger.debug("JDBC::streamQuery: item is {}", itemName);
+        Item item = getQueryItem(itemName);
+        if (item == null) {
+            return true;
+        }
+
+        flushWriteBuffer();
+
+        String table = sqlTables.get(itemName);
+        if (table == null) {
+            logger.debug("JDBC::streamQuery: unable to find table for item with name: '{}', no data in database.",
+                    itemName);
+            return true;
+        }
+
+        return streamHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item, consumer);
+    }
+
+    /**
+     * Queries the values of a numeric item aggregated by the database per time bucket. This is significantly cheaper
+     * than {@link #query(FilterCriteria)} for long periods, e.g. for charts.
+     *
+     * @param filter the filter to apply to the query, paging is not supported
+     * @param function the aggregate function to apply per bucket
+     * @param bucket the length of a bucket (at least one second), buckets are aligned to the epoch
+     * @return a time series with one entry per bucket containing values
+     */
+    public Iterable<HistoricItem> queryAggregated(FilterCriteria filter, AggregateFunction function,
+            Duration bucket) {
+        if (!checkDBAccessability()) {
+            logger.warn("JDBC::queryAggregated: database not connected, query aborted for item '{}'",
+                    filter.getItemName());
+            return List.of();
+        }
+        if (!conf.getDBDAO().isAggregateQuerySupported()) {
+            logger.warn("JDBC::queryAggregated: aggregate queries are not supported for database '{}'",
+                    conf.getServiceName());
+            return List.of();
+        }
 
-        // Success
-        errCnt = 0;
+        String itemName = filter.getItemName();
+        logger.debug("JDBC::queryAggregated: item is {}", itemName);
+        Item item = getQueryItem(itemName);
+        if (item == null) {
+            return List.of();
+        }
+        if (!isNumericItem(item)) {
+            logger.warn("JDBC::queryAggregated: item '{}' of type '{}' is not numeric, query aborted", itemName,
+                    item.getType());
+            return List.of();
+        }
+
+        flushWriteBuffer();
+
+        String table = sqlTables.get(itemName);
+        if (table == null) {
+            logger.debug("JDBC::queryAggregated: unable to find table for item with name: '{}', no data in database.",
+                    itemName);
+            return List.of();
+        }
+
+        long timerStart = System.currentTimeMillis();
+        List<HistoricItem> items = getHistItemAggregateQuery(filter, function, bucket, table, item);
+        if (items == null) {
+            return List.of();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("JDBC: Aggregate query for item '{}' returned {} rows in {} ms", itemName, items.size(),
+                    System.currentTimeMillis() - timerStart);
+        }
         return items;
     }
 
+    /**
+     * Queries the values of a numeric item downsampled by the database to (at most) the given number of points.
+     *
+     * @param filter the filter to apply to the query, a begin date is required
+     * @param function the aggregate function to apply per bucket
+     * @param points the maximum number of points to return
+     * @return a time series with at most {@code points} entries
+     * @throws IllegalArgumentException if the filter has no begin date or points is not positive
+     */
+    public Iterable<HistoricItem> queryAggregated(FilterCriteria filter, AggregateFunction function, int points)
+            throws IllegalArgumentException {
+        ZonedDateTime beginDate = filter.getBeginDate();
+        if (beginDate == null) {
+            throw new IllegalArgumentException("Begin date must not be null");
+        }
+        if (points <= 0) {
+            throw new IllegalArgumentException("Number of points must be positive");
+        }
+        return queryAggregated(filter, function, getBucket(filter, points));
+    }
+
+    /**
+     * Returns the bucket length that splits the date range of the filter into at most the given number of buckets.
+     */
+    private static Duration getBucket(FilterCriteria filter, int points) {
+        ZonedDateTime beginDate = Objects.requireNonNull(filter.getBeginDate());
+        ZonedDateTime endDate = filter.getEndDate();
+        Duration range = Duration.between(beginDate, endDate == null ? ZonedDateTime.now() : endDate);
+        // round up, so that the buckets cover the whole range
+        long bucketSeconds = (range.getSeconds() + points - 1) / points;
+        return Duration.ofSeconds(Math.max(1, bucketSeconds));
+    }
+
+    private static boolean isNumericItem(Item item) {
+        return item instanceof NumberItem || item instanceof RollershutterItem
+                || (item instanceof DimmerItem && !(item instanceof ColorItem));
+    }
+
+    /**
+     * Returns the item to be used for converting the queried values, i.e. the base item of a group.
+     */
+    private @Nullable Item getQueryItem(@Nullable String itemName) {
+        Item item;
+        try {
+            item = itemRegistry.getItem(itemName);
+        } catch (ItemNotFoundException e1) {
+            logger.error("JDBC::query: unable to get item for itemName: '{}'. Ignore and give up!", itemName);
+            return null;
+        }
+
+        if (item instanceof GroupItem) {
+            // For Group Item is BaseItem needed to get correct Type of Value.
+            item = GroupItem.class.cast(item).getBaseItem();
+            logger.debug("JDBC::query: item is instanceof GroupItem '{}'", itemName);
+            if (item == null) {
+                logger.debug("JDBC::query: BaseItem of GroupItem is null. Ignore and give up!");
+                return null;
+            }
+            if (item instanceof GroupItem) {
+                logger.debug("JDBC::query: BaseItem of GroupItem is a GroupItem too. Ignore and give up!");
+                return null;
+            }
+        }
+        return item;
+    }
+
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        closeWriteBuffer();
         conf = new JdbcConfiguration(configuration);
+        // the buffer is also needed if the database is reachable only later on
+        if (conf.valid && conf.getBatchSize() > 1) {
+            writeBuffer = new JdbcWriteBuffer(ThreadPoolManager.getScheduledPool(getClass().getSimpleName()),
+                    this::storeItemValues, conf.getBatchSize(), conf.getBatchInterval());
+            logger.debug("JDBC::updateConfig: write buffer enabled, batchSize={} batchInterval={} ms",
+                    conf.getBatchSize(), conf.getBatchInterval());
+        }
         if (conf.valid && checkDBAccessability()) {
             checkDBSchema();
             // connection has been established ... initialization completed!
@@ -239,6 +418,15 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getId());
     }
 
+    private void closeWriteBuffer() {
+        JdbcWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            // values arriving while the buffer is closed are stored synchronously, see storeItemValue
+            buffer.close();
+            writeBuffer = null;
+        }
+    }
+
     @Override
     public List<PersistenceStrategy> getDefaultStrategies() {
         return List.of(PersistenceStrategy.Globals.CHANGE);
@@ -259,6 +447,8 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
             throw new IllegalArgumentException("Item name must not be null");
         }
 
+        flushWriteBuffer();
+
         String table = sqlTables.get(itemName);
         if (table == null) {
             logger.debug("JDBC::remove: unable to find table for item with name: '{}', no data in database.", itemName);
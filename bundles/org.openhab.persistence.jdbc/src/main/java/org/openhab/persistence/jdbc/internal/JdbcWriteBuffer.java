@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.persistence.jdbc.dto.ItemVO;
+import org.openhab.persistence.jdbc.utils.MovingAverage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind buffer for prepared item values.
+ *
+ * Values are collected and handed over to the flush consumer as one list, either when
+ * {@code batchSize} values are pending or when {@code batchInterval} has passed since the first
+ * pending value was added, whatever comes first. If the buffer grows beyond {@code maxQueueSize}
+ * (e.g. because the database is slow), the caller is throttled by flushing on its own thread.
+ *
+ * Values the flush consumer could not store are put back in front of the buffer and retried after
+ * {@code batchInterval}. While retrying, callers are not throttled and at most {@code maxQueueSize}
+ * values are kept, the oldest values are dropped first.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBuffer {
+    private final Logger logger = LoggerFactory.getLogger(JdbcWriteBuffer.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Function<List<ItemVO>, List<ItemVO>> flushConsumer;
+    private final int batchSize;
+    private final int maxQueueSize;
+    private final long batchInterval;
+
+    private final Object flushLock = new Object();
+    private List<ItemVO> pending = new ArrayList<>();
+    private @Nullable ScheduledFuture<?> flushJob;
+    private boolean retrying = false;
+    private boolean closed = false;
+
+    private final MovingAverage flushTimeAverage = new MovingAverage(50);
+    private volatile long lastFlushTime = 0;
+    private volatile int lastFlushSize = 0;
+    private volatile long flushCount = 0;
+
+    /**
+     * @param scheduler scheduler used for the time triggered flush
+     * @param flushConsumer stores the given values and returns those which could not be stored, called with at most
+     *            one list at a time
+     * @param batchSize number of values which triggers a flush
+     * @param batchInterval maximum time in milliseconds a value is kept in the buffer
+     */
+    public JdbcWriteBuffer(ScheduledExecutorService scheduler, Function<List<ItemVO>, List<ItemVO>> flushConsumer,
+            int batchSize, long batchInterval) {
+        this.scheduler = scheduler;
+        this.flushConsumer = flushConsumer;
+        this.batchSize = batchSize;
+        this.maxQueueSize = batchSize * 10;
+        this.batchInterval = batchInterval;
+    }
+
+    /**
+     * Adds a value to the buffer.
+     *
+     * @param vo the prepared value
+     * @return {@code false} if the buffer is closed and the value has to be stored by the caller
+     */
+    public boolean add(ItemVO vo) {
+        int depth;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            pending.add(vo);
+            depth = pending.size();
+            if (retrying) {
+                if (depth > maxQueueSize) {
+                    pending.remove(0);
+                    logger.warn("JDBC::JdbcWriteBuffer: {} values pending, dropped the oldest value", maxQueueSize);
+                }
+                return true;
+            }
+            if (depth == 1 && depth < batchSize) {
+                flushJob = scheduler.schedule(this::flush, batchInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (depth >= maxQueueSize) {
+            logger.debug("JDBC::JdbcWriteBuffer: {} values pending, flushing on caller thread", depth);
+            flush();
+        } else if (depth == batchSize) {
+            scheduler.execute(this::flush);
+        }
+        return true;
+    }
+
+    /**
+     * Stores all pending values synchronously.
+     */
+    public void flush() {
+        flushPending();
+    }
+
+    /**
+     * @return {@code true} if all values have been stored
+     */
+    private boolean flushPending() {
+        synchronized (flushLock) {
+            List<ItemVO> batch;
+            synchronized (this) {
+                ScheduledFuture<?> job = flushJob;
+                if (job != null) {
+                    job.cancel(false);
+                    flushJob = null;
+                }
+                if (pending.isEmpty()) {
+                    return true;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            long timerStart = System.currentTimeMillis();
+            List<ItemVO> failed;
+            try {
+                failed = flushConsumer.apply(batch);
+            } catch (RuntimeException e) {
+                logger.warn("JDBC::JdbcWriteBuffer: failed to store {} values: {}", batch.size(), e.getMessage());
+                failed = batch;
+            }
+            if (!failed.isEmpty()) {
+                requeue(failed);
+                return false;
+            }
+            synchronized (this) {
+                if (retrying) {
+                    retrying = false;
+                    // values added while retrying did not arm the timer
+                    if (!pending.isEmpty() && !closed) {
+                        flushJob = scheduler.schedule(this::flush, batchInterval, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            lastFlushTime = System.currentTimeMillis() - timerStart;
+            lastFlushSize = batch.size();
+            flushCount++;
+            flushTimeAverage.add((int) lastFlushTime);
+            logger.debug("JDBC::JdbcWriteBuffer: stored {} values in {} ms", lastFlushSize, lastFlushTime);
+            return true;
+        }
+    }
+
+    private synchronized void requeue(List<ItemVO> failed) {
+        List<ItemVO> requeued = new ArrayList<>(failed.size() + pending.size());
+        requeued.addAll(failed);
+        requeued.addAll(pending);
+        int dropped = requeued.size() - maxQueueSize;
+        if (dropped > 0) {
+            logger.warn("JDBC::JdbcWriteBuffer: dropped the {} oldest of {} pending values", dropped, requeued.size());
+            requeued = new ArrayList<>(requeued.subList(dropped, requeued.size()));
+        }
+        pending = requeued;
+        retrying = true;
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+        }
+        if (!closed) {
+            logger.debug("JDBC::JdbcWriteBuffer: {} values could not be stored, retrying in {} ms", failed.size(),
+                    batchInterval);
+            flushJob = scheduler.schedule(this::flush, batchInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops accepting values and stores all pending values. Values which cannot be stored are lost.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (!flushPending()) {
+            logger.warn("JDBC::JdbcWriteBuffer: closed with {} values which could not be stored", getQueueDepth());
+        }
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getLastFlushTime() {
+        return lastFlushTime;
+    }
+
+    public int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public int getAverageFlushTime() {
+        synchronized (flushLock) {
+            return flushTimeAverage.getAverageInteger();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts rows with one JDBC batch, executed in a single transaction.
+ *
+ * Failures are either transient (the connection was lost, the transaction was rolled back because of a deadlock, the
+ * database is shutting down) or permanent (e.g. a row violates a constraint). Rows failing transiently are returned
+ * to be retried later. If the batch fails permanently, the rows are inserted one by one, so only the rows the database
+ * rejects are logged and dropped.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    /**
+     * SQLSTATE classes of transient failures: connection exception, transaction rollback, insufficient resources and
+     * operator intervention
+     */
+    private static final List<String> TRANSIENT_SQL_STATE_CLASSES = List.of("08", "40", "53", "57");
+
+    private JdbcBatchWriter() {
+        // utility class
+    }
+
+    /**
+     * @param dataSource the pool providing the connection
+     * @param sql the insert statement
+     * @param rows the rows to insert
+     * @param paramsProvider provides the statement parameters of a row
+     * @return the rows which failed transiently and should be retried, empty if no row has to be retried
+     */
+    public static <T> List<T> insert(DataSource dataSource, String sql, List<T> rows,
+            Function<T, Object[]> paramsProvider) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                try {
+                    for (T row : rows) {
+                        setParameters(statement, paramsProvider.apply(row));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                    return List.of();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (isTransient(e)) {
+                        LOGGER.warn("JDBC::JdbcBatchWriter: batch of {} rows failed, keeping them for a retry: {}",
+                                rows.size(), e.getMessage());
+                        return rows;
+                    }
+                    LOGGER.debug("JDBC::JdbcBatchWriter: batch of {} rows failed, inserting them one by one: {}",
+                            rows.size(), e.getMessage());
+                    statement.clearBatch();
+                }
+                return insertOneByOne(connection, statement, rows, paramsProvider);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("JDBC::JdbcBatchWriter: inserting {} rows failed, keeping them for a retry: {}", rows.size(),
+                    e.getMessage());
+            return rows;
+        }
+    }
+
+    private static <T> List<T> insertOneByOne(Connection connection, PreparedStatement statement, List<T> rows,
+            Function<T, Object[]> paramsProvider) throws SQLException {
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] params = paramsProvider.apply(rows.get(i));
+            try {
+                setParameters(statement, params);
+                statement.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                if (isTransient(e)) {
+                    LOGGER.warn("JDBC::JdbcBatchWriter: insert failed, keeping {} rows for a retry: {}",
+                            rows.size() - i, e.getMessage());
+                    return new ArrayList<>(rows.subList(i, rows.size()));
+                }
+                LOGGER.warn("JDBC::JdbcBatchWriter: dropping row {} rejected by the database: {}",
+                        Arrays.toString(params), e.getMessage());
+            }
+        }
+        return List.of();
+    }
+
+    private static void setParameters(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * @return {@code true} if the statement may succeed when it is executed again later
+     */
+    static boolean isTransient(SQLException e) {
+        for (@Nullable SQLException cause = e; cause != null; cause = cause.getNextException()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            String sqlState = cause.getSQLState();
+            if (sqlState != null && sqlState.length() >= 2
+                    && TRANSIENT_SQL_STATE_CLASSES.contains(sqlState.substring(0, 2))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes a query and hands its rows to a consumer while reading them from a forward-only cursor, so that the
+ * result does not have to be held in memory as a whole.
+ *
+ * The rows are read on the calling thread and the connection is returned to the pool before
+ * {@link #forEachRow(DataSource, String, int, Consumer)} returns, also if the query or the consumer fails.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcCursorReader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcCursorReader.class);
+
+    private JdbcCursorReader() {
+        // utility class
+    }
+
+    /**
+     * @param dataSource the pool providing the connection
+     * @param sql the query to execute
+     * @param fetchSize number of rows fetched from the database at once, see {@link Statement#setFetchSize(int)}
+     * @param consumer receives the column values of each row
+     * @return {@code false} if the query failed, the consumer may have received some rows in this case
+     */
+    public static boolean forEachRow(DataSource dataSource, String sql, int fetchSize, Consumer<Object[]> consumer) {
+        try (Connection connection = dataSource.getConnection()) {
+            // some drivers (e.g. PostgreSQL) only use a cursor within a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery(sql)) {
+                    int columnCount = resultSet.getMetaData().getColumnCount();
+                    while (resultSet.next()) {
+                        Object[] row = new Object[columnCount];
+                        for (int i = 0; i < columnCount; i++) {
+                            row[i] = resultSet.getObject(i + 1);
+                        }
+                        consumer.accept(row);
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.warn("JDBC::JdbcCursorReader: query '{}' failed: {}", sql, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -53,6 +53,9 @@ import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.dto.AggregateFunction;
+import org.openhab.persistence.jdbc.dto.ItemVO;
+import org.openhab.persistence.jdbc.dto.JdbcItemDescriptor;
 
 /**
  * Tests the {@link JdbcBaseDAO}.
@@ -167,6 +170,43 @@ public class JdbcBaseDAOTest {
         assertThat(sql, is("SELECT time, value FROM " + DB_TABLE_NAME + " ORDER BY time DESC LIMIT 0,1"));
     }
 
+    @Test
+    public void testHistItemAggregateQueryProviderReturnsGroupedSelectQuery() {
+        JdbcMysqlDAO jdbcMysqlDAO = new JdbcMysqlDAO();
+        filter.setOrdering(Ordering.ASCENDING);
+
+        String sql = jdbcMysqlDAO.histItemAggregateQueryProvider(filter, AggregateFunction.AVG, 60, DB_TABLE_NAME,
+                UTC_ZONE_ID);
+        String bucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 60) * 60)";
+        assertThat(sql, is("SELECT " + bucket + " AS bucket, AVG(value) FROM " + DB_TABLE_NAME + " GROUP BY "
+                + bucket + " ORDER BY bucket ASC"));
+    }
+
+    @Test
+    public void testHistItemAggregateQueryProviderWithLastReturnsJoinedSelectQuery() {
+        JdbcMysqlDAO jdbcMysqlDAO = new JdbcMysqlDAO();
+        filter.setBeginDate(parseDateTimeString("2022-01-10T15:01:44"));
+
+        String sql = jdbcMysqlDAO.histItemAggregateQueryProvider(filter, AggregateFunction.LAST, 3600, DB_TABLE_NAME,
+                UTC_ZONE_ID);
+        String bucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 3600) * 3600)";
+        assertThat(sql, is("SELECT t.time, t.value FROM " + DB_TABLE_NAME
+                + " t INNER JOIN (SELECT MAX(time) AS time FROM " + DB_TABLE_NAME + " WHERE TIME>'"
+                + JdbcBaseDAO.JDBC_DATE_FORMAT.format(filter.getBeginDate()) + "' GROUP BY " + bucket
+                + ") b ON t.time=b.time ORDER BY t.time DESC"));
+    }
+
+    @Test
+    public void testAggregateAsStateReturnsValidState() {
+        State decimalType = jdbcBaseDAO.aggregateAsState(new NumberItem("testNumberItem"), null, 7.25);
+        assertThat(decimalType, is(DecimalType.valueOf("7.25")));
+        State quantityType = jdbcBaseDAO.aggregateAsState(new NumberItem("testNumberItem"), SIUnits.CELSIUS, 7.25);
+        assertThat(quantityType, is(QuantityType.valueOf("7.25 °C")));
+        State percentType = jdbcBaseDAO.aggregateAsState(new DimmerItem("testDimmerItem"), null,
+                new java.math.BigDecimal("52.5000"));
+        assertThat(percentType, is(PercentType.valueOf("53")));
+    }
+
     @Test
     public void testHistItemFilterDeleteProviderReturnsDeleteQueryWithoutWhereClause() {
         String sql = jdbcBaseDAO.histItemFilterDeleteProvider(filter, DB_TABLE_NAME, UTC_ZONE_ID);
@@ -184,6 +224,37 @@ public class JdbcBaseDAOTest {
                 + " AND TIME<'" + JdbcBaseDAO.JDBC_DATE_FORMAT.format(filter.getEndDate()) + "'"));
     }
 
+    @Test
+    public void testCreateItemDescriptorReturnsResolvedInsertQueries() {
+        JdbcItemDescriptor descriptor = jdbcBaseDAO.createItemDescriptor(new NumberItem("testNumberItem"),
+                DB_TABLE_NAME);
+        assertThat(descriptor.getTableName(), is(DB_TABLE_NAME));
+        assertThat(descriptor.getItemType(), is("NUMBERITEM"));
+        assertThat(descriptor.getDbType(), is("DOUBLE"));
+        assertThat(descriptor.getInsertSql(), is("INSERT INTO " + DB_TABLE_NAME
+                + " (TIME, VALUE) VALUES( NOW(), ? ) ON DUPLICATE KEY UPDATE VALUE= ?"));
+        assertThat(descriptor.getInsertSqlWithTime(), is("INSERT INTO " + DB_TABLE_NAME
+                + " (TIME, VALUE) VALUES( ?, ? ) ON DUPLICATE KEY UPDATE VALUE= ?"));
+    }
+
+    @Test
+    public void testDoPrepareItemValueReturnsValueWithTimeAndParameters() {
+        ZonedDateTime date = parseDateTimeString("2022-01-10T15:01:44");
+        NumberItem item = new NumberItem("testNumberItem");
+        JdbcItemDescriptor descriptor = jdbcBaseDAO.createItemDescriptor(item, DB_TABLE_NAME);
+
+        ItemVO vo = jdbcBaseDAO.doPrepareItemValue(descriptor, item, new DecimalType(7.3), date);
+        assertThat(vo.getValue(), is(7.3));
+        assertThat(vo.getTime().getTime(), is(date.toInstant().toEpochMilli()));
+        assertThat(vo.getInsertSql(), is(descriptor.getInsertSqlWithTime()));
+
+        Object[] params = jdbcBaseDAO.insertItemValueParamsProvider(vo.getTime(), vo.getValue());
+        assertThat(params.length, is(3));
+        assertThat(params[0], is(new java.sql.Timestamp(date.toInstant().toEpochMilli())));
+        assertThat(params[1], is(7.3));
+        assertThat(params[2], is(7.3));
+    }
+
     @Test
     public void testResolveTimeFilterWithNoDatesReturnsEmptyString() {
         String sql = jdbcBaseDAO.resolveTimeFilter(filter, UTC_ZONE_ID);
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.jdbc.dto.ItemVO;
+
+/**
+ * Tests the {@link JdbcWriteBuffer}.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBufferTest {
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final List<List<ItemVO>> flushed = new ArrayList<>();
+    private boolean databaseAvailable = true;
+
+    private List<ItemVO> store(List<ItemVO> vol) {
+        flushed.add(vol);
+        return databaseAvailable ? List.of() : vol;
+    }
+
+    private static ItemVO value(int i) {
+        ItemVO vo = new ItemVO("item", null);
+        vo.setValue(i);
+        return vo;
+    }
+
+    @Test
+    public void failedBatchIsRetained() {
+        JdbcWriteBuffer buffer = new JdbcWriteBuffer(scheduler, this::store, 10, 1000);
+        buffer.add(value(1));
+        buffer.add(value(2));
+
+        databaseAvailable = false;
+        buffer.flush();
+        assertThat(buffer.getQueueDepth(), is(2));
+        // initial timer and retry timer
+        verify(scheduler, times(2)).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+        buffer.add(value(3));
+        databaseAvailable = true;
+        buffer.flush();
+        assertThat(buffer.getQueueDepth(), is(0));
+        assertThat(flushed.get(flushed.size() - 1), contains(value(1), value(2), value(3)));
+    }
+
+    @Test
+    public void retainedValuesAreBounded() {
+        JdbcWriteBuffer buffer = new JdbcWriteBuffer(scheduler, this::store, 2, 1000);
+        databaseAvailable = false;
+        buffer.add(value(0));
+        buffer.add(value(1));
+        buffer.flush();
+        for (int i = 2; i < 50; i++) {
+            buffer.add(value(i));
+        }
+        // callers are not throttled while retrying, the oldest values are dropped instead
+        assertThat(flushed, hasSize(1));
+        assertThat(buffer.getQueueDepth(), is(20));
+
+        databaseAvailable = true;
+        buffer.flush();
+        assertThat(flushed.get(1).get(0), is(value(30)));
+        assertThat(flushed.get(1), hasSize(20));
+    }
+
+    @Test
+    public void closedBufferRejectsValues() {
+        JdbcWriteBuffer buffer = new JdbcWriteBuffer(scheduler, this::store, 10, 1000);
+        buffer.add(value(1));
+        buffer.close();
+
+        assertThat(flushed, hasSize(1));
+        assertThat(buffer.add(value(2)), is(false));
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+}
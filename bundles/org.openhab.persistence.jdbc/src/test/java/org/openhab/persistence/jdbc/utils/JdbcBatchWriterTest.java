@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link JdbcBatchWriter}.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriterTest {
+
+    private static final List<Integer> ROWS = List.of(1, 2, 3);
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    private List<Integer> insert() {
+        return JdbcBatchWriter.insert(dataSource, "INSERT", ROWS, row -> new Object[] { row });
+    }
+
+    @Test
+    public void testBatchIsCommittedAndConnectionReleased() throws SQLException {
+        assertThat(insert(), is(empty()));
+
+        verify(statement, times(3)).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+
+    @Test
+    public void testTransientBatchFailureReturnsAllRows() throws SQLException {
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException("connection lost", "08006", 0, new int[0]));
+
+        assertThat(insert(), is(ROWS));
+
+        verify(connection).rollback();
+        verify(statement, never()).executeUpdate();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testUnavailableConnectionReturnsAllRows() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+        assertThat(insert(), is(ROWS));
+    }
+
+    @Test
+    public void testRejectedRowIsDroppedAndOthersAreInsertedOneByOne() throws SQLException {
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException("duplicate key", "23505", 0, new int[0]));
+        when(statement.executeUpdate()).thenReturn(1).thenThrow(new SQLIntegrityConstraintViolationException())
+                .thenReturn(1);
+
+        assertThat(insert(), is(empty()));
+
+        verify(statement, times(3)).executeUpdate();
+        verify(connection, times(2)).commit();
+        verify(connection, times(2)).rollback();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testTransientFailureWhileInsertingOneByOneReturnsRemainingRows() throws SQLException {
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException("duplicate key", "23505", 0, new int[0]));
+        when(statement.executeUpdate()).thenReturn(1).thenThrow(new SQLException("connection lost", "08006"));
+
+        assertThat(insert(), contains(2, 3));
+
+        verify(statement, times(2)).executeUpdate();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testFailuresAreClassifiedByTypeAndSqlState() {
+        assertThat(JdbcBatchWriter.isTransient(new SQLTransientConnectionException()), is(true));
+        assertThat(JdbcBatchWriter.isTransient(new SQLException("deadlock", "40P01")), is(true));
+        assertThat(JdbcBatchWriter.isTransient(new SQLException("connection failure", "08001")), is(true));
+        assertThat(JdbcBatchWriter.isTransient(new SQLIntegrityConstraintViolationException()), is(false));
+        assertThat(JdbcBatchWriter.isTransient(new SQLException("unique violation", "23505")), is(false));
+        assertThat(JdbcBatchWriter.isTransient(new SQLException("no state")), is(false));
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link JdbcCursorReader}.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcCursorReaderTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement(anyInt(), anyInt())).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getObject(1)).thenReturn("a", "b");
+    }
+
+    @Test
+    public void testReadsAllRowsAndReleasesConnection() throws SQLException {
+        List<Object> values = new ArrayList<>();
+
+        assertThat(JdbcCursorReader.forEachRow(dataSource, "SELECT", 100, row -> values.add(row[0])), is(true));
+
+        assertThat(values, contains("a", "b"));
+        verify(statement).setFetchSize(100);
+        verify(resultSet).close();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+
+    @Test
+    public void testFailingConsumerReleasesConnection() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> JdbcCursorReader.forEachRow(dataSource, "SELECT", 100, row -> {
+            throw new IllegalStateException();
+        }));
+
+        verify(connection).close();
+    }
+
+    @Test
+    public void testFailingQueryReleasesConnection() throws SQLException {
+        when(statement.executeQuery(anyString())).thenThrow(new SQLException("failed"));
+
+        assertThat(JdbcCursorReader.forEachRow(dataSource, "SELECT", 100, row -> fail("no rows expected")), is(false));
+        verify(connection).close();
+    }
+}
@@ -32,6 +32,11 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCH_SIZE = "batchsize";
+    private static final String CFG_COMMIT_INTERVAL = "commitinterval";
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_COMMIT_INTERVAL = 1000;
 
     public static boolean isInitialized = false;
 
@@ -40,6 +45,8 @@ public class JpaConfiguration {
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchSize;
+    public final int commitInterval;
 
     public JpaConfiguration(final Map<String, Object> properties) {
         logger.debug("Update config...");
@@ -77,7 +84,32 @@ public class JpaConfiguration {
         }
         dbSyncMapping = (String) properties.get(CFG_SYNCMAPPING);
 
+        batchSize = getIntValue(properties, CFG_BATCH_SIZE, DEFAULT_BATCH_SIZE, 1);
+        logger.debug("batchsize: {}", batchSize);
+        commitInterval = getIntValue(properties, CFG_COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL, 0);
+        logger.debug("commitinterval: {}", commitInterval);
+
         isInitialized = true;
         logger.debug("Update config... done");
     }
+
+    private int getIntValue(Map<String, Object> properties, String key, int defaultValue, int minValue) {
+        Object value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int intValue = value instanceof Number ? ((Number) value).intValue()
+                    : Integer.parseInt(value.toString().trim());
+            if (intValue < minValue) {
+                logger.warn("Value {} of {} is below the minimum of {}, using default {}", intValue, key, minValue,
+                        defaultValue);
+                return defaultValue;
+            }
+            return intValue;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}, using default {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
 }
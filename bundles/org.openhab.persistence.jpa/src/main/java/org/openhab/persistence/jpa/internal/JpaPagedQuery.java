@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query of a page of items which is fetched in chunks. The first chunk starts at the requested position, each further
+ * chunk is selected by the timestamp and id of the last item of the previous chunk, so that items stored meanwhile do
+ * not shift the following chunks. Only one chunk of entities is held in memory at a time, each with its own
+ * {@link EntityManager}.
+ *
+ * Errors while fetching a chunk are thrown to the caller.
+ *
+ * @author Manfred Bergmann - Initial contribution
+ */
+@NonNullByDefault
+public class JpaPagedQuery {
+    private final Logger logger = LoggerFactory.getLogger(JpaPagedQuery.class);
+
+    private final EntityManagerFactory emf;
+    private final boolean ascending;
+    private final Item item;
+    private final Date beginDate;
+    private final Date endDate;
+    private final int firstResult;
+    private final int maxResults;
+    private final int chunkSize;
+
+    /**
+     * @param emf factory for the entity managers of each chunk
+     * @param ascending whether the items are ordered by ascending timestamp
+     * @param item item to query and to convert the results for
+     * @param beginDate begin of the time range
+     * @param endDate end of the time range
+     * @param firstResult position of the first result
+     * @param maxResults maximum number of results
+     * @param chunkSize maximum number of results fetched at once
+     */
+    public JpaPagedQuery(EntityManagerFactory emf, boolean ascending, Item item, Date beginDate, Date endDate,
+            int firstResult, int maxResults, int chunkSize) {
+        this.emf = emf;
+        this.ascending = ascending;
+        this.item = item;
+        this.beginDate = beginDate;
+        this.endDate = endDate;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Fetches all items of the page.
+     *
+     * @return the items converted to historic items
+     */
+    public List<HistoricItem> fetch() {
+        List<HistoricItem> result = new ArrayList<>();
+        @Nullable
+        JpaPersistentItem last = null;
+        while (result.size() < maxResults) {
+            int size = Math.min(chunkSize, maxResults - result.size());
+            List<JpaPersistentItem> chunk = fetch(last, size);
+            chunk.forEach(pItem -> result.add(JpaHistoricItem.fromPersistedItem(pItem, item)));
+            if (chunk.size() < size) {
+                break;
+            }
+            last = chunk.get(chunk.size() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Fetches the items following the given one, or the first chunk if there is none yet.
+     */
+    private List<JpaPersistentItem> fetch(@Nullable JpaPersistentItem after, int size) {
+        if (size <= 0) {
+            return Collections.emptyList();
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
+            em.getTransaction().begin();
+            TypedQuery<JpaPersistentItem> query;
+            if (after == null) {
+                query = em.createNamedQuery(
+                        ascending ? JpaPersistentItem.QUERY_FIND_ASC : JpaPersistentItem.QUERY_FIND_DESC,
+                        JpaPersistentItem.class);
+                query.setFirstResult(firstResult);
+            } else {
+                query = em.createNamedQuery(
+                        ascending ? JpaPersistentItem.QUERY_FIND_ASC_AFTER : JpaPersistentItem.QUERY_FIND_DESC_AFTER,
+                        JpaPersistentItem.class);
+                query.setParameter("lastTimestamp", after.getTimestampDate());
+                query.setParameter("lastId", after.getId());
+            }
+            query.setParameter("itemName", item.getName());
+            query.setParameter("beginDate", beginDate);
+            query.setParameter("endDate", endDate);
+            query.setMaxResults(size);
+            List<JpaPersistentItem> result = new ArrayList<>(query.getResultList());
+            em.getTransaction().commit();
+            logger.debug("Fetched {} items", result.size());
+            return result;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
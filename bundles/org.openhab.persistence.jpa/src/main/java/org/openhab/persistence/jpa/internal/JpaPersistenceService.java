@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -19,14 +21,17 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
-import javax.persistence.Query;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -59,12 +64,30 @@ import org.slf4j.LoggerFactory;
 public class JpaPersistenceService implements QueryablePersistenceService {
     private final Logger logger = LoggerFactory.getLogger(JpaPersistenceService.class);
 
+    /**
+     * Upper bounds for the time range of a query without end date, which is still a valid timestamp for all databases
+     */
+    private static final Date MAX_DATE = Date.from(ZonedDateTime.parse("9999-12-31T23:59:59Z").toInstant());
+    private static final Date MIN_DATE = new Date(0);
+
+    /**
+     * Number of rows fetched at once when iterating over the result of a query
+     */
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
     private final ItemRegistry itemRegistry;
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(JpaPersistenceService.class.getSimpleName());
 
     private @Nullable EntityManagerFactory emf = null;
 
     private @NonNullByDefault({}) JpaConfiguration config;
 
+    // serializes the commits of the scheduler, of store() and of query()
+    private final Object commitLock = new Object();
+    private final List<JpaPersistentItem> pendingItems = new ArrayList<>();
+    private @Nullable ScheduledFuture<?> commitJob;
+
     @Activate
     public JpaPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -86,6 +109,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     public void activate(BundleContext context, Map<String, Object> properties) {
         logger.debug("Activating jpa persistence service");
         config = new JpaConfiguration(properties);
+        if (config.commitInterval > 0) {
+            commitJob = scheduler.scheduleWithFixedDelay(this::commitPendingItems, config.commitInterval,
+                    config.commitInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -94,6 +121,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating jpa persistence service");
+        ScheduledFuture<?> job = commitJob;
+        if (job != null) {
+            job.cancel(false);
+            commitJob = null;
+        }
+        commitPendingItems();
         closeEntityManagerFactory();
     }
 
@@ -142,22 +175,91 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
+        boolean commitNow;
+        synchronized (pendingItems) {
+            pendingItems.add(pItem);
+            commitNow = config.commitInterval <= 0 || pendingItems.size() >= config.batchSize;
+        }
+        if (commitNow) {
+            if (config.commitInterval <= 0) {
+                commitPendingItems();
+            } else {
+                scheduler.execute(this::commitPendingItems);
+            }
+        }
+
+        logger.debug("Storing item...done");
+    }
+
+    /**
+     * Persists all pending items within a single transaction, so the JDBC driver can send them as one batch. If the
+     * transaction fails, the items are persisted one by one, so that a single failing item does not drop the others.
+     * Only one commit runs at a time, so a query waits until the items committed concurrently are visible.
+     */
+    private void commitPendingItems() {
+        synchronized (commitLock) {
+            List<JpaPersistentItem> items;
+            synchronized (pendingItems) {
+                if (pendingItems.isEmpty()) {
+                    return;
+                }
+                items = new ArrayList<>(pendingItems);
+                pendingItems.clear();
+            }
+
+            EntityManagerFactory factory = getEntityManagerFactory();
+            if (factory == null) {
+                logger.warn("No EntityManagerFactory available, dropping {} items", items.size());
+                return;
+            }
+            boolean committed = false;
+            EntityManager em = factory.createEntityManager();
+            try {
+                logger.debug("Persisting {} items...", items.size());
+                // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
+                em.getTransaction().begin();
+                for (JpaPersistentItem pItem : items) {
+                    em.persist(pItem);
+                }
+                em.getTransaction().commit();
+                committed = true;
+                logger.debug("Persisting {} items...done", items.size());
+            } catch (Exception e) {
+                logger.warn("Error on persisting {} items, rolling back and persisting them one by one: {}",
+                        items.size(), e.getMessage());
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+            } finally {
+                em.close();
+            }
+            if (!committed) {
+                items.forEach(pItem -> persistItem(factory, pItem));
+            }
+        }
+    }
+
+    private void persistItem(EntityManagerFactory factory, JpaPersistentItem pItem) {
+        // the rolled back entity may still carry an id, so a copy is persisted
+        JpaPersistentItem copy = new JpaPersistentItem();
+        copy.setName(pItem.getName());
+        copy.setRealName(pItem.getRealName());
+        copy.setTimestamp(pItem.getTimestampDate());
+        copy.setValue(pItem.getValue());
+
+        EntityManager em = factory.createEntityManager();
         try {
-            logger.debug("Persisting item...");
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
             em.getTransaction().begin();
-            em.persist(pItem);
+            em.persist(copy);
             em.getTransaction().commit();
-            logger.debug("Persisting item...done");
         } catch (Exception e) {
-            logger.error("Error on persisting item! Rolling back!", e);
-            em.getTransaction().rollback();
+            logger.error("Error on persisting item {}! Rolling back! {}", copy, e.getMessage());
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
         } finally {
             em.close();
         }
-
-        logger.debug("Storing item...done");
     }
 
     @Override
@@ -175,69 +277,40 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         }
 
         String itemName = filter.getItemName();
-        Item item = getItemFromRegistry(itemName);
-
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
+        @Nullable Item item = getItemFromRegistry(itemName);
+        if (item == null) {
+            return Collections.emptyList();
         }
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
+        // make sure pending items are part of the result
+        commitPendingItems();
+
+        EntityManagerFactory factory = getEntityManagerFactory();
+        if (factory == null) {
+            return Collections.emptyList();
         }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
+
+        boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+        ZonedDateTime beginDate = filter.getBeginDate();
+        ZonedDateTime endDate = filter.getEndDate();
+        long firstResult = (long) filter.getPageNumber() * filter.getPageSize();
+        if (firstResult > Integer.MAX_VALUE) {
+            return Collections.emptyList();
         }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
 
-        logger.debug("The query: {}", queryString);
+        logger.debug("Querying {} ordered {}", itemName, filter.getOrdering());
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
-            em.getTransaction().begin();
-
-            logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
-            query.setParameter("itemName", item.getName());
-            if (hasBeginDate) {
-                query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
-            }
-            if (hasEndDate) {
-                query.setParameter("endDate", Date.from(filter.getEndDate().toInstant()));
-            }
-
-            query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
-            query.setMaxResults(filter.getPageSize());
-            logger.debug("Creating query...done");
-
-            logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
-            List<JpaPersistentItem> result = query.getResultList();
-            logger.debug("Retrieving result list...done");
-
-            List<HistoricItem> historicList = JpaHistoricItem.fromResultList(result, item);
+            List<HistoricItem> historicList = new JpaPagedQuery(factory, ascending, item,
+                    beginDate == null ? MIN_DATE : Date.from(beginDate.toInstant()),
+                    endDate == null ? MAX_DATE : Date.from(endDate.toInstant()), (int) firstResult,
+                    filter.getPageSize(), QUERY_CHUNK_SIZE).fetch();
             logger.debug("{}", String.format("Convert to HistoricItem: %d", historicList.size()));
-
-            em.getTransaction().commit();
-
             return historicList;
         } catch (Exception e) {
             logger.error("Error on querying database!", e);
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
+            return Collections.emptyList();
         }
-
-        return Collections.emptyList();
     }
 
     /**
@@ -264,6 +337,8 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.warn("You are settings openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
         }
+        // let OpenJPA send the statements of a transaction as JDBC batches
+        properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
 
         EntityManagerFactory fac = Persistence.createEntityManagerFactory(getPersistenceUnitName(), properties);
         logger.debug("Creating EntityManagerFactory...done");
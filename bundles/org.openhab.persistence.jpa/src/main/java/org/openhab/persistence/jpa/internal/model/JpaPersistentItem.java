@@ -22,6 +22,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -39,8 +41,35 @@ import org.openhab.core.types.UnDefType;
 
 @Entity
 @Table(name = "HISTORIC_ITEM")
+@NamedQueries({
+        @NamedQuery(name = JpaPersistentItem.QUERY_FIND_ASC, query = "SELECT n FROM JpaPersistentItem n"
+                + " WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate"
+                + " ORDER BY n.timestamp ASC, n.id ASC"),
+        @NamedQuery(name = JpaPersistentItem.QUERY_FIND_DESC, query = "SELECT n FROM JpaPersistentItem n"
+                + " WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate"
+                + " ORDER BY n.timestamp DESC, n.id DESC"),
+        @NamedQuery(name = JpaPersistentItem.QUERY_FIND_ASC_AFTER, query = "SELECT n FROM JpaPersistentItem n"
+                + " WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate"
+                + " AND (n.timestamp > :lastTimestamp OR (n.timestamp = :lastTimestamp AND n.id > :lastId))"
+                + " ORDER BY n.timestamp ASC, n.id ASC"),
+        @NamedQuery(name = JpaPersistentItem.QUERY_FIND_DESC_AFTER, query = "SELECT n FROM JpaPersistentItem n"
+                + " WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate"
+                + " AND (n.timestamp < :lastTimestamp OR (n.timestamp = :lastTimestamp AND n.id < :lastId))"
+                + " ORDER BY n.timestamp DESC, n.id DESC") })
 public class JpaPersistentItem implements HistoricItem {
 
+    /**
+     * Named queries for the items of a name within a time range, compiled once by the persistence provider
+     */
+    public static final String QUERY_FIND_ASC = "JpaPersistentItem.findAsc";
+    public static final String QUERY_FIND_DESC = "JpaPersistentItem.findDesc";
+
+    /**
+     * Named queries for the items following a given item (by timestamp and id) in the order of the query above
+     */
+    public static final String QUERY_FIND_ASC_AFTER = "JpaPersistentItem.findAscAfter";
+    public static final String QUERY_FIND_DESC_AFTER = "JpaPersistentItem.findDescAfter";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -82,6 +111,13 @@ public class JpaPersistentItem implements HistoricItem {
         return ZonedDateTime.ofInstant(timestamp.toInstant(), ZoneId.systemDefault());
     }
 
+    /**
+     * @return the timestamp as stored, with the precision of the database
+     */
+    public Date getTimestampDate() {
+        return timestamp;
+    }
+
     public void setTimestamp(Date timestamp) {
         this.timestamp = timestamp;
     }
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.RollbackException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.StringItem;
+import org.openhab.core.library.types.StringType;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Tests the batched writes of the {@link JpaPersistenceService}.
+ *
+ * @author Manfred Bergmann - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class JpaPersistenceServiceTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private @Mock @NonNullByDefault({}) ItemRegistry itemRegistry;
+    private @Mock @NonNullByDefault({}) BundleContext bundleContext;
+    private @Mock @NonNullByDefault({}) EntityManagerFactory factory;
+    private @Mock @NonNullByDefault({}) EntityManager em;
+    private @Mock @NonNullByDefault({}) EntityTransaction transaction;
+
+    private @NonNullByDefault({}) JpaPersistenceService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new JpaPersistenceService(itemRegistry) {
+            @Override
+            protected EntityManagerFactory newEntityManagerFactory() {
+                return factory;
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    private void activate(int batchSize, int commitInterval) {
+        service.activate(bundleContext, Map.of("url", "jdbc:derby:memory:test", "driver",
+                "org.apache.derby.jdbc.EmbeddedDriver", "batchsize", batchSize, "commitinterval", commitInterval));
+    }
+
+    private void mockEntityManager() {
+        when(factory.createEntityManager()).thenReturn(em);
+        when(em.getTransaction()).thenReturn(transaction);
+    }
+
+    private void store(String name) {
+        StringItem item = new StringItem(name);
+        item.setState(new StringType("value"));
+        service.store(item);
+    }
+
+    @Test
+    public void everyItemIsCommittedImmediatelyWithoutCommitInterval() {
+        mockEntityManager();
+        activate(100, 0);
+
+        store("first");
+        verify(transaction).commit();
+
+        store("second");
+        verify(factory, times(2)).createEntityManager();
+        verify(em, times(2)).persist(any(JpaPersistentItem.class));
+        verify(transaction, times(2)).commit();
+    }
+
+    @Test
+    public void itemsAreCommittedInOneTransactionOnceBatchSizeIsReached() {
+        mockEntityManager();
+        activate(3, 60000);
+
+        store("first");
+        store("second");
+        verifyNoInteractions(factory);
+
+        store("third");
+        verify(transaction, timeout(TIMEOUT)).commit();
+        verify(factory).createEntityManager();
+        verify(em, times(3)).persist(any(JpaPersistentItem.class));
+        verify(em, timeout(TIMEOUT)).close();
+    }
+
+    @Test
+    public void pendingItemsAreCommittedAfterCommitInterval() {
+        mockEntityManager();
+        activate(100, 100);
+
+        store("first");
+        store("second");
+
+        verify(transaction, timeout(TIMEOUT)).commit();
+        verify(factory).createEntityManager();
+        verify(em, times(2)).persist(any(JpaPersistentItem.class));
+    }
+
+    @Test
+    public void itemsArePersistedOneByOneIfTheTransactionFails() {
+        mockEntityManager();
+        when(transaction.isActive()).thenReturn(true);
+        // the batch fails, then the second of the items persisted one by one
+        doThrow(new RollbackException("batch")).doNothing().doThrow(new RollbackException("second")).doNothing()
+                .when(transaction).commit();
+        activate(100, 60000);
+
+        store("first");
+        store("second");
+        store("third");
+        // writes the pending items
+        service.deactivate();
+
+        verify(factory, times(4)).createEntityManager();
+        verify(em, times(6)).persist(any(JpaPersistentItem.class));
+        verify(transaction, times(4)).commit();
+        verify(transaction, times(2)).rollback();
+        verify(em, times(4)).close();
+    }
+}
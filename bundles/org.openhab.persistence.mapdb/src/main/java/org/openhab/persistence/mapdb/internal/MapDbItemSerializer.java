@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+
+/**
+ * Compact binary encoding of a {@link MapDbItem}.
+ *
+ * The encoding starts with a tag byte identifying the state type, followed by the timestamp in milliseconds and a
+ * payload specific to the state type. Enum states have no payload, numbers are stored as unscaled value and scale.
+ * States of other types are stored with their class name and string representation, like the {@link StateTypeAdapter}
+ * does. The item name is not part of the encoding, it is the key in the map.
+ *
+ * @author Jens Viebig - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializer {
+
+    private static final byte TAG_GENERIC = 0;
+    private static final byte TAG_DECIMAL = 1;
+    private static final byte TAG_PERCENT = 2;
+    private static final byte TAG_QUANTITY = 3;
+    private static final byte TAG_ON = 4;
+    private static final byte TAG_OFF = 5;
+    private static final byte TAG_OPEN = 6;
+    private static final byte TAG_CLOSED = 7;
+    private static final byte TAG_UP = 8;
+    private static final byte TAG_DOWN = 9;
+    private static final byte TAG_STRING = 10;
+    private static final byte TAG_HSB = 11;
+    private static final byte TAG_DATETIME = 12;
+
+    public byte[] serialize(MapDbItem item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        State state = item.getState();
+        long timestamp = item.getTimestamp().toInstant().toEpochMilli();
+
+        if (state instanceof OnOffType) {
+            writeHeader(out, state == OnOffType.ON ? TAG_ON : TAG_OFF, timestamp);
+        } else if (state instanceof OpenClosedType) {
+            writeHeader(out, state == OpenClosedType.OPEN ? TAG_OPEN : TAG_CLOSED, timestamp);
+        } else if (state instanceof UpDownType) {
+            writeHeader(out, state == UpDownType.UP ? TAG_UP : TAG_DOWN, timestamp);
+        } else if (state instanceof HSBType) {
+            // must be checked before PercentType and DecimalType, which it extends
+            writeHeader(out, TAG_HSB, timestamp);
+            out.writeUTF(state.toFullString());
+        } else if (state instanceof PercentType) {
+            writeHeader(out, TAG_PERCENT, timestamp);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (state instanceof DecimalType) {
+            writeHeader(out, TAG_DECIMAL, timestamp);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (state instanceof QuantityType) {
+            QuantityType<?> quantity = (QuantityType<?>) state;
+            writeHeader(out, TAG_QUANTITY, timestamp);
+            writeDecimal(out, quantity.toBigDecimal());
+            out.writeUTF(quantity.getUnit().toString());
+        } else if (state instanceof StringType) {
+            writeHeader(out, TAG_STRING, timestamp);
+            writeString(out, state.toFullString());
+        } else if (state instanceof DateTimeType) {
+            writeHeader(out, TAG_DATETIME, timestamp);
+            out.writeUTF(state.toFullString());
+        } else {
+            writeHeader(out, TAG_GENERIC, timestamp);
+            out.writeUTF(state.getClass().getName());
+            writeString(out, state.toFullString());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the data is not a valid encoding
+     */
+    public MapDbItem deserialize(String name, byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte tag = in.readByte();
+        long timestamp = in.readLong();
+
+        State state;
+        switch (tag) {
+            case TAG_ON:
+                state = OnOffType.ON;
+                break;
+            case TAG_OFF:
+                state = OnOffType.OFF;
+                break;
+            case TAG_OPEN:
+                state = OpenClosedType.OPEN;
+                break;
+            case TAG_CLOSED:
+                state = OpenClosedType.CLOSED;
+                break;
+            case TAG_UP:
+                state = UpDownType.UP;
+                break;
+            case TAG_DOWN:
+                state = UpDownType.DOWN;
+                break;
+            case TAG_DECIMAL:
+                state = new DecimalType(readDecimal(in));
+                break;
+            case TAG_PERCENT:
+                state = new PercentType(readDecimal(in));
+                break;
+            case TAG_QUANTITY:
+                BigDecimal value = readDecimal(in);
+                state = new QuantityType<>(value.toPlainString() + " " + in.readUTF());
+                break;
+            case TAG_STRING:
+                state = new StringType(readString(in));
+                break;
+            case TAG_HSB:
+                state = new HSBType(in.readUTF());
+                break;
+            case TAG_DATETIME:
+                state = new DateTimeType(in.readUTF());
+                break;
+            case TAG_GENERIC:
+                state = readGeneric(in);
+                break;
+            default:
+                throw new IOException("Unknown state tag " + tag);
+        }
+
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(state);
+        item.setTimestamp(new Date(timestamp));
+        return item;
+    }
+
+    private State readGeneric(DataInputStream in) throws IOException {
+        String valueTypeName = in.readUTF();
+        String valueAsString = readString(in);
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> valueType = (Class<? extends State>) Class.forName(valueTypeName);
+            State state = TypeParser.parseState(List.of(valueType), valueAsString);
+            if (state == null) {
+                throw new IOException("Cannot parse '" + valueAsString + "' as " + valueTypeName);
+            }
+            return state;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown state type " + valueTypeName, e);
+        }
+    }
+
+    private void writeHeader(DataOutputStream out, byte tag, long timestamp) throws IOException {
+        out.writeByte(tag);
+        out.writeLong(timestamp);
+    }
+
+    private void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        out.writeInt(value.scale());
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(0);
+            out.writeLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        int length = in.readUnsignedByte();
+        if (length == 0) {
+            return BigDecimal.valueOf(in.readLong(), scale);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    /**
+     * Strings are written with an int length, as {@link DataOutputStream#writeUTF(String)} is limited to 64 KB.
+     */
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -24,7 +24,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,6 +36,7 @@ import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
@@ -43,9 +46,11 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,30 +65,44 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", //
+        property = Constants.SERVICE_PID + "=org.openhab.mapdb")
+@ConfigurableService(category = "persistence", label = "MapDB Persistence Service", description_uri = MapDbPersistenceService.CONFIG_URI)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
+    public static final String CONFIG_URI = "persistence:mapdb";
     private static final String SERVICE_ID = "mapdb";
     private static final String SERVICE_LABEL = "MapDB";
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
+    private static final String CONFIG_COMMIT_INTERVAL = "commitinterval";
+    private static final long DEFAULT_COMMIT_INTERVAL = 5;
 
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
-    private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
 
     /** holds the local instance of the MapDB database */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    /** values are encoded by the {@link MapDbItemSerializer}, or JSON strings stored by earlier versions */
+    private @NonNullByDefault({}) Map<String, Object> map;
+
+    private final MapDbItemSerializer serializer = new MapDbItemSerializer();
 
     private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
+    private long commitInterval = DEFAULT_COMMIT_INTERVAL;
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+
     @Activate
-    public void activate() {
+    public void activate(final Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
+        modified(config);
 
         try {
             Files.createDirectories(DB_DIR);
@@ -138,10 +157,27 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         logger.debug("MapDB persistence service is now activated");
     }
 
+    @Modified
+    protected void modified(final Map<String, Object> config) {
+        Object interval = config.get(CONFIG_COMMIT_INTERVAL);
+        commitInterval = DEFAULT_COMMIT_INTERVAL;
+        if (interval != null) {
+            try {
+                commitInterval = Math.max(0, Long.parseLong(interval.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid commit interval '{}', using default {}", interval, DEFAULT_COMMIT_INTERVAL);
+            }
+        }
+        logger.debug("MapDB commit interval is {} s", commitInterval);
+    }
+
     @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
         if (db != null) {
+            if (!db.isClosed()) {
+                db.commit();
+            }
             db.close();
         }
     }
@@ -158,7 +194,8 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
+        return map.entrySet().stream().map(e -> deserialize(e.getKey(), e.getValue()))
+                .flatMap(MapDbPersistenceService::streamOptional)
                 .collect(Collectors.<PersistenceItemInfo> toUnmodifiableSet());
     }
 
@@ -182,26 +219,41 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(localAlias, json);
-        commit();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+        try {
+            map.put(localAlias, serializer.serialize(mItem));
+        } catch (IOException e) {
+            logger.warn("Failed to serialize '{}' with state '{}': {}", localAlias, state, e.getMessage());
+            return;
         }
+        commit();
+        logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        String itemName = filter.getItemName();
+        Object value = itemName == null ? null : map.get(itemName);
+        if (itemName == null || value == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(itemName, value);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<MapDbItem> deserialize(String name, Object value) {
+        if (value instanceof byte[]) {
+            try {
+                return Optional.of(serializer.deserialize(name, (byte[]) value));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to deserialize item '{}': {}", name, e.getMessage());
+                return Optional.empty();
+            }
+        } else if (value instanceof String) {
+            // stored by an earlier version, replaced by the binary encoding on the next store
+            return deserialize((String) value);
+        }
+        logger.warn("Deserialized invalid item '{}': {}", name, value);
+        return Optional.empty();
     }
 
     @SuppressWarnings("null")
@@ -217,8 +269,18 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
+    /**
+     * Schedules a commit, unless one is already scheduled. All values stored until then are committed together.
+     */
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        if (commitScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                commitScheduled.set(false);
+                if (!db.isClosed()) {
+                    db.commit();
+                }
+            }, commitInterval, TimeUnit.SECONDS);
+        }
     }
 
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
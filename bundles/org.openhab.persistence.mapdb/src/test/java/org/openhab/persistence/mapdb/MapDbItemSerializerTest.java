@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.Units;
+import org.openhab.core.types.State;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemSerializer;
+
+/**
+ * Tests the {@link MapDbItemSerializer}.
+ *
+ * @author Jens Viebig - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializerTest {
+    private final MapDbItemSerializer serializer = new MapDbItemSerializer();
+
+    private static final List<State> VALUES = Stream.of(
+            List.of(DecimalType.ZERO, new DecimalType(1.123), new DecimalType(-10000000),
+                    new DecimalType(new BigDecimal("123456789012345678901234567890.123"))),
+            List.of(HSBType.BLACK, HSBType.fromRGB(11, 22, 33)), List.of(OnOffType.ON, OnOffType.OFF),
+            List.of(OpenClosedType.OPEN, OpenClosedType.CLOSED), List.of(UpDownType.UP, UpDownType.DOWN),
+            List.of(PercentType.ZERO, PercentType.HUNDRED, PercentType.valueOf("99.999")),
+            List.of(QuantityType.valueOf("1 kW"), new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS),
+                    QuantityType.valueOf(100, Units.METRE_PER_SQUARE_SECOND)),
+            List.of(StringType.valueOf(""), StringType.valueOf("a b c @@@ äöü")),
+            List.of(new DateTimeType("2022-01-02T03:04:05.678+01:00"), new PointType("52.5,13.4")))
+            .flatMap(List::stream).collect(Collectors.toList());
+
+    @ParameterizedTest
+    @MethodSource
+    public void serializeDeserializeRoundtripShouldRecreateTheItem(State state) throws IOException {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(state);
+        Date timestamp = new Date(1640995200123L);
+        item.setTimestamp(timestamp);
+
+        MapDbItem actual = serializer.deserialize("item", serializer.serialize(item));
+
+        assertThat(actual.getName(), is("item"));
+        assertThat(actual.getState(), is(equalTo(state)));
+        assertThat(actual.getTimestamp(), is(equalTo(item.getTimestamp())));
+    }
+
+    public static Stream<State> serializeDeserializeRoundtripShouldRecreateTheItem() {
+        return VALUES.stream();
+    }
+}
@@ -12,19 +12,26 @@
  */
 package org.openhab.persistence.mongodb.internal;
 
+import java.net.UnknownHostException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -60,11 +67,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
 
 /**
  * This is the implementation of the MongoDB {@link PersistenceService}.
@@ -83,12 +95,18 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private static final String FIELD_TIMESTAMP = "timestamp";
     private static final String FIELD_VALUE = "value";
 
+    private static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+    private static final int DEFAULT_WRITE_FLUSH_INTERVAL = 1000;
+    private static final int DEFAULT_MAX_PENDING_DOCUMENTS = 10000;
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private String url = "";
     private String db = "";
     private String collection = "";
     private boolean collectionPerItem;
+    private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+    private int maxPendingDocuments = DEFAULT_MAX_PENDING_DOCUMENTS;
 
     private boolean initialized = false;
 
@@ -96,6 +114,17 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
 
     private @Nullable MongoClient cl;
 
+    // collections whose index has already been ensured, cleared on reconnect
+    private final Map<String, DBCollection> collections = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
+    private final Object flushLock = new Object();
+    // documents waiting to be inserted, guarded by itself
+    private final List<PendingDocument> pendingDocuments = new ArrayList<>();
+    private boolean pendingDocumentsFull;
+    private @Nullable ScheduledFuture<?> flushJob;
+
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -127,6 +156,15 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         collection = dbCollection == null ? "" : dbCollection;
         collectionPerItem = dbCollection == null || dbCollection.isBlank();
 
+        writeBatchSize = Math.max(1, getIntConfig(config, "writeBatchSize", DEFAULT_WRITE_BATCH_SIZE));
+        int writeFlushInterval = Math.max(10,
+                getIntConfig(config, "writeFlushInterval", DEFAULT_WRITE_FLUSH_INTERVAL));
+        maxPendingDocuments = Math.max(1, getIntConfig(config, "maxPendingDocuments", DEFAULT_MAX_PENDING_DOCUMENTS));
+        logger.debug("MongoDB write batch size {}, flush interval {} ms, max pending documents {}", writeBatchSize,
+                writeFlushInterval, maxPendingDocuments);
+        flushJob = scheduler.scheduleWithFixedDelay(this::flush, writeFlushInterval, writeFlushInterval,
+                TimeUnit.MILLISECONDS);
+
         if (!tryConnectToDatabase()) {
             logger.warn("Failed to connect to MongoDB server. Trying to reconnect later.");
         }
@@ -134,9 +172,35 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         initialized = true;
     }
 
+    private int getIntConfig(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String && !((String) value).isBlank()) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' for mongodb:{}, using {}", value, key, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        flush();
+        synchronized (pendingDocuments) {
+            if (!pendingDocuments.isEmpty()) {
+                logger.warn("mongodb: No connection to database. Dropping {} documents.", pendingDocuments.size());
+                pendingDocuments.clear();
+            }
+        }
         disconnectFromDatabase();
     }
 
@@ -175,14 +239,6 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         String realItemName = item.getName();
         String collectionName = collectionPerItem ? realItemName : this.collection;
 
-        @Nullable
-        DBCollection collection = connectToCollection(collectionName);
-
-        if (collection == null) {
-            // Logging is done in connectToCollection()
-            return;
-        }
-
         String name = (alias != null) ? alias : realItemName;
         Object value = this.convertValue(item.getState());
 
@@ -192,11 +248,117 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         obj.put(FIELD_REALNAME, realItemName);
         obj.put(FIELD_TIMESTAMP, new Date());
         obj.put(FIELD_VALUE, value);
-        collection.save(obj);
+
+        boolean batchComplete;
+        synchronized (pendingDocuments) {
+            if (pendingDocuments.size() >= maxPendingDocuments) {
+                warnPendingDocumentsFull();
+                return;
+            }
+            pendingDocuments.add(new PendingDocument(collectionName, obj));
+            batchComplete = pendingDocuments.size() >= writeBatchSize;
+        }
+        if (batchComplete) {
+            scheduler.execute(this::flush);
+        }
 
         logger.debug("MongoDB save {}={}", name, value);
     }
 
+    /**
+     * Inserts the pending documents with one unordered bulk insert per collection. Documents that could not be
+     * inserted because of a transient error (no connection, network error or timeout) are kept for the next flush,
+     * documents rejected by the server are dropped.
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            List<PendingDocument> documents;
+            synchronized (pendingDocuments) {
+                if (pendingDocuments.isEmpty()) {
+                    return;
+                }
+                documents = new ArrayList<>(pendingDocuments);
+                pendingDocuments.clear();
+            }
+
+            if (!tryConnectToDatabase()) {
+                logger.warn("mongodb: No connection to database. Keeping {} documents for the next attempt.",
+                        documents.size());
+                requeue(documents);
+                return;
+            }
+
+            Map<String, List<DBObject>> documentsByCollection = new LinkedHashMap<>();
+            for (PendingDocument document : documents) {
+                documentsByCollection.computeIfAbsent(document.collectionName, k -> new ArrayList<>())
+                        .add(document.object);
+            }
+
+            List<PendingDocument> notInserted = new ArrayList<>();
+            documentsByCollection.forEach((collectionName, objects) -> {
+                @Nullable
+                DBCollection collection = connectToCollection(collectionName);
+                if (collection == null) {
+                    // Logging is done in connectToCollection()
+                    objects.forEach(object -> notInserted.add(new PendingDocument(collectionName, object)));
+                    return;
+                }
+                try {
+                    BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+                    objects.forEach(bulk::insert);
+                    bulk.execute();
+                    logger.trace("MongoDB inserted {} documents into {}", objects.size(), collectionName);
+                } catch (BulkWriteException e) {
+                    // the other documents of the unordered bulk insert have been inserted
+                    logger.warn("Failed to insert {} of {} documents into collection {}: {}",
+                            e.getWriteErrors().size(), objects.size(), collectionName, e.getMessage());
+                } catch (MongoSocketException | MongoTimeoutException e) {
+                    logger.warn(
+                            "Failed to insert {} documents into collection {}, keeping them for the next attempt: {}",
+                            objects.size(), collectionName, e.getMessage());
+                    objects.forEach(object -> notInserted.add(new PendingDocument(collectionName, object)));
+                } catch (MongoException e) {
+                    logger.warn("Failed to insert {} documents into collection {}: {}", objects.size(),
+                            collectionName, e.getMessage());
+                }
+            });
+            if (notInserted.isEmpty()) {
+                synchronized (pendingDocuments) {
+                    pendingDocumentsFull = false;
+                }
+            } else {
+                requeue(notInserted);
+            }
+        }
+    }
+
+    /**
+     * Puts documents back in front of the pending documents, keeping their order. The newest documents exceeding
+     * the maximum number of pending documents are dropped.
+     */
+    private void requeue(List<PendingDocument> documents) {
+        if (!documents.isEmpty()) {
+            synchronized (pendingDocuments) {
+                pendingDocuments.addAll(0, documents);
+                if (pendingDocuments.size() > maxPendingDocuments) {
+                    pendingDocuments.subList(maxPendingDocuments, pendingDocuments.size()).clear();
+                    warnPendingDocumentsFull();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called with the lock of the pending documents held. Warns only once until the next successful flush.
+     */
+    private void warnPendingDocumentsFull() {
+        if (!pendingDocumentsFull) {
+            pendingDocumentsFull = true;
+            logger.warn("mongodb: {} documents are pending, dropping further documents until they are inserted.",
+                    maxPendingDocuments);
+        }
+    }
+
     private Object convertValue(State state) {
         Object value;
         if (state instanceof PercentType) {
@@ -257,7 +419,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             logger.debug("Connect MongoDB");
             disconnectFromDatabase();
 
-            this.cl = new MongoClient(new MongoClientURI(this.url));
+            this.cl = createMongoClient(new MongoClientURI(this.url));
 
             // The mongo always succeeds in creating the connection.
             // We have to actually force it to test the connection to try to connect to the server.
@@ -272,6 +434,13 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Creates the client connecting to the database
+     */
+    protected MongoClient createMongoClient(MongoClientURI uri) throws UnknownHostException {
+        return new MongoClient(uri);
+    }
+
     /**
      * Fetches the currently valid database.
      *
@@ -282,11 +451,16 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     }
 
     /**
-     * Connects to the Collection
+     * Connects to the Collection. The index is only created when a collection is used for the first time after
+     * connecting.
      *
      * @return The collection object when collection creation was successful. Null otherwise.
      */
     private @Nullable DBCollection connectToCollection(String collectionName) {
+        DBCollection cachedCollection = collections.get(collectionName);
+        if (cachedCollection != null) {
+            return cachedCollection;
+        }
         try {
             @Nullable
             MongoClient db = getDatabase();
@@ -302,6 +476,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             idx.append(FIELD_ITEM, 1).append(FIELD_TIMESTAMP, 1);
             mongoCollection.createIndex(idx);
 
+            collections.put(collectionName, mongoCollection);
             return mongoCollection;
         } catch (Exception e) {
             logger.error("Failed to connect to collection {}: {}", collectionName, e.getMessage(), e);
@@ -313,6 +488,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
      * Disconnects from the database
      */
     private synchronized void disconnectFromDatabase() {
+        collections.clear();
         if (this.cl != null) {
             this.cl.close();
         }
@@ -330,6 +506,9 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
+        // make pending documents visible to the query
+        flush();
+
         String realItemName = filter.getItemName();
         String collectionName = collectionPerItem ? realItemName : this.collection;
         @Nullable
@@ -349,7 +528,6 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
-        List<HistoricItem> items = new ArrayList<>();
         BasicDBObject query = new BasicDBObject();
         if (filter.getItemName() != null) {
             query.put(FIELD_ITEM, filter.getItemName());
@@ -381,37 +559,38 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         logger.debug("Query: {}", query);
 
         Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = collection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
-                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
-
-        while (cursor.hasNext()) {
-            BasicDBObject obj = (BasicDBObject) cursor.next();
-
-            final State state;
-            if (item instanceof NumberItem) {
-                state = new DecimalType(obj.getDouble(FIELD_VALUE));
-            } else if (item instanceof DimmerItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof SwitchItem) {
-                state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof ContactItem) {
-                state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof RollershutterItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof DateTimeItem) {
-                state = new DateTimeType(
-                        ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
-            } else {
-                state = new StringType(obj.getString(FIELD_VALUE));
-            }
 
-            items.add(new MongoDBItem(realItemName, state,
-                    ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+        List<HistoricItem> items = new ArrayList<>();
+        try (DBCursor cursor = collection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
+                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize())) {
+            while (cursor.hasNext()) {
+                BasicDBObject obj = (BasicDBObject) cursor.next();
+                items.add(new MongoDBItem(realItemName, convertDocument(item, obj),
+                        ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+            }
         }
-
         return items;
     }
 
+    private State convertDocument(Item item, BasicDBObject obj) {
+        if (item instanceof NumberItem) {
+            return new DecimalType(obj.getDouble(FIELD_VALUE));
+        } else if (item instanceof DimmerItem) {
+            return new PercentType(obj.getInt(FIELD_VALUE));
+        } else if (item instanceof SwitchItem) {
+            return OnOffType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof ContactItem) {
+            return OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof RollershutterItem) {
+            return new PercentType(obj.getInt(FIELD_VALUE));
+        } else if (item instanceof DateTimeItem) {
+            return new DateTimeType(
+                    ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
+        } else {
+            return new StringType(obj.getString(FIELD_VALUE));
+        }
+    }
+
     private @Nullable String convertOperator(Operator operator) {
         switch (operator) {
             case EQ:
@@ -444,4 +623,14 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     public List<PersistenceStrategy> getDefaultStrategies() {
         return Collections.emptyList();
     }
+
+    private static class PendingDocument {
+        private final String collectionName;
+        private final DBObject object;
+
+        private PendingDocument(String collectionName, DBObject object) {
+            this.collectionName = collectionName;
+            this.object = object;
+        }
+    }
 }
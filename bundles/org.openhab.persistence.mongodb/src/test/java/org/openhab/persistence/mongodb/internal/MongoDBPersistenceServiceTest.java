@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.osgi.framework.BundleContext;
+
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+import com.mongodb.MongoException;
+import com.mongodb.MongoTimeoutException;
+
+/**
+ * @author Thorsten Hoeger - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBPersistenceServiceTest {
+    private static final long TIMEOUT = 5000;
+
+    private final ItemRegistry itemRegistry = mock(ItemRegistry.class);
+    private final MongoClient client = mock(MongoClient.class);
+    private final DB database = mock(DB.class);
+    private final DBCollection collection = mock(DBCollection.class);
+    private final BulkWriteOperation bulk = mock(BulkWriteOperation.class);
+
+    private final MongoDBPersistenceService service = new MongoDBPersistenceService(itemRegistry) {
+        @Override
+        protected MongoClient createMongoClient(MongoClientURI uri) {
+            return client;
+        }
+    };
+
+    @BeforeEach
+    public void setUp() throws ItemNotFoundException {
+        when(client.getDB("openhab")).thenReturn(database);
+        when(database.getCollection("items")).thenReturn(collection);
+        when(collection.initializeUnorderedBulkOperation()).thenReturn(bulk);
+        // queries only flush the pending documents
+        when(itemRegistry.getItem(anyString())).thenThrow(new ItemNotFoundException("number"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate(0);
+    }
+
+    @Test
+    public void documentsAreInsertedOnceBatchIsComplete() {
+        activate(2, 100);
+
+        store(1);
+        verify(collection, never()).initializeUnorderedBulkOperation();
+
+        store(2);
+        verify(bulk, timeout(TIMEOUT)).execute();
+        assertThat(insertedValues(2), contains(1.0, 2.0));
+    }
+
+    @Test
+    public void documentsAreRequeuedAfterTransientFailure() {
+        when(bulk.execute()).thenThrow(new MongoTimeoutException("timeout")).thenReturn(null);
+        activate(10, 100);
+
+        store(1);
+        store(2);
+        flush();
+        flush();
+
+        verify(bulk, times(2)).execute();
+        assertThat(insertedValues(4), contains(1.0, 2.0, 1.0, 2.0));
+    }
+
+    @Test
+    public void documentsAreDroppedAfterPermanentFailure() {
+        when(bulk.execute()).thenThrow(new MongoException("invalid document"));
+        activate(10, 100);
+
+        store(1);
+        flush();
+        flush();
+
+        verify(bulk, times(1)).execute();
+        assertThat(insertedValues(1), contains(1.0));
+    }
+
+    @Test
+    public void documentsExceedingMaxPendingDocumentsAreDropped() {
+        activate(10, 2);
+
+        store(1);
+        store(2);
+        store(3);
+        flush();
+
+        assertThat(insertedValues(2), contains(1.0, 2.0));
+    }
+
+    private void activate(int writeBatchSize, int maxPendingDocuments) {
+        service.activate(mock(BundleContext.class),
+                Map.of("url", "mongodb://localhost:27017", "database", "openhab", "collection", "items",
+                        "writeBatchSize", writeBatchSize, "writeFlushInterval", 3600000, "maxPendingDocuments",
+                        maxPendingDocuments));
+    }
+
+    private void store(int value) {
+        NumberItem item = new NumberItem("number");
+        item.setState(new DecimalType(value));
+        service.store(item);
+    }
+
+    private void flush() {
+        // a query inserts the pending documents first
+        service.query(new FilterCriteria().setItemName("number"));
+    }
+
+    private List<Double> insertedValues(int count) {
+        ArgumentCaptor<DBObject> captor = ArgumentCaptor.forClass(DBObject.class);
+        verify(bulk, times(count)).insert(captor.capture());
+        return captor.getAllValues().stream().map(object -> (Double) object.get("value")).collect(Collectors.toList());
+    }
+}
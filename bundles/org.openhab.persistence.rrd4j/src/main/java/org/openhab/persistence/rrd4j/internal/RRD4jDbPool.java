@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of open {@link RrdDb} handles, evicting the least recently used handles.
+ *
+ * Handles are reference counted: a handle returned by {@link #acquire(String)} or {@link #add(String, RrdDb)} must be
+ * given back with {@link #release(RrdDb)}. Evicted handles are closed as soon as they are no longer in use.
+ *
+ * The pool does not open databases itself, callers have to make sure that a database is only opened once (e.g. by
+ * holding a lock per database name while acquiring and adding).
+ *
+ * @author Kai Kreuzer - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPool {
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDbPool.class);
+
+    private final int capacity;
+    private final LinkedHashMap<String, PooledDb> pool = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<RrdDb, PooledDb> handles = new IdentityHashMap<>();
+
+    /**
+     * @param capacity maximum number of handles kept open while not in use
+     */
+    public RRD4jDbPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the open handle for the given name, if any, and marks it as used.
+     */
+    public synchronized @Nullable RrdDb acquire(String name) {
+        PooledDb pooledDb = pool.get(name);
+        if (pooledDb == null) {
+            return null;
+        }
+        pooledDb.usageCount++;
+        return pooledDb.db;
+    }
+
+    /**
+     * Adds a newly opened handle to the pool and marks it as used.
+     */
+    public void add(String name, RrdDb db) {
+        List<RrdDb> evicted;
+        synchronized (this) {
+            PooledDb pooledDb = new PooledDb(name, db);
+            pooledDb.usageCount++;
+            PooledDb replaced = pool.put(name, pooledDb);
+            handles.put(db, pooledDb);
+            evicted = new ArrayList<>();
+            if (replaced != null) {
+                evict(replaced, evicted);
+            }
+            Iterator<PooledDb> it = pool.values().iterator();
+            while (pool.size() > capacity && it.hasNext()) {
+                PooledDb eldest = it.next();
+                if (eldest.usageCount == 0) {
+                    it.remove();
+                    evict(eldest, evicted);
+                }
+            }
+        }
+        close(evicted);
+    }
+
+    /**
+     * Gives back a handle obtained from {@link #acquire(String)} or {@link #add(String, RrdDb)}.
+     */
+    public void release(RrdDb db) {
+        List<RrdDb> evicted = new ArrayList<>();
+        synchronized (this) {
+            PooledDb pooledDb = handles.get(db);
+            if (pooledDb == null) {
+                evicted.add(db);
+            } else if (--pooledDb.usageCount == 0) {
+                if (pooledDb.evicted) {
+                    handles.remove(db);
+                    evicted.add(db);
+                } else if (pool.size() > capacity) {
+                    pool.remove(pooledDb.name);
+                    evict(pooledDb, evicted);
+                }
+            }
+        }
+        close(evicted);
+    }
+
+    /**
+     * Closes all handles, handles currently in use are closed when released.
+     */
+    public void clear() {
+        List<RrdDb> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (PooledDb pooledDb : pool.values()) {
+                evict(pooledDb, evicted);
+            }
+            pool.clear();
+        }
+        close(evicted);
+    }
+
+    public synchronized int size() {
+        return pool.size();
+    }
+
+    private void evict(PooledDb pooledDb, List<RrdDb> evicted) {
+        pooledDb.evicted = true;
+        if (pooledDb.usageCount == 0) {
+            handles.remove(pooledDb.db);
+            evicted.add(pooledDb.db);
+        }
+    }
+
+    private void close(List<RrdDb> dbs) {
+        for (RrdDb db : dbs) {
+            try {
+                db.close();
+            } catch (IOException e) {
+                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static class PooledDb {
+        private final String name;
+        private final RrdDb db;
+        private int usageCount;
+        private boolean evicted;
+
+        private PooledDb(String name, RrdDb db) {
+            this.name = name;
+            this.db = db;
+        }
+    }
+}
@@ -17,8 +17,9 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -30,6 +31,8 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
@@ -67,14 +70,18 @@ import org.openhab.core.types.State;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,8 +96,8 @@ import org.slf4j.LoggerFactory;
  * @author Karel Goderis - remove TimerThread dependency
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        RRD4jPersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final String DEFAULT_OTHER = "default_other";
@@ -107,17 +114,43 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final String DATASOURCE_STATE = "state";
 
+    // number of locks shared by all items, values of items using the same lock are stored sequentially
+    private static final int LOCK_STRIPES = 64;
+
+    // number of database files kept open
+    private static final int MAX_OPEN_DATABASES = 128;
+
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_SYNC_INTERVAL = "syncInterval";
+    private static final String BACKEND_NIO = "nio";
+    private static final String BACKEND_FILE = "file";
+    private static final int DEFAULT_SYNC_INTERVAL = 300;
+
     public static final String DB_FOLDER = getUserPersistenceDataFolder() + File.separator + "rrd4j";
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
 
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final RRD4jDbPool dbPool = new RRD4jDbPool(MAX_OPEN_DATABASES);
+
+    private final Map<String, Deque<PendingSample>> pendingSamples = new ConcurrentHashMap<>();
+
+    private @Nullable ScheduledFuture<?> flushJob;
+
+    private volatile @Nullable RrdBackendFactory backendFactory;
+
+    // held for reading as long as a database handle is in use, and for writing while the backend is replaced
+    private final ReadWriteLock backendLock = new ReentrantReadWriteLock();
 
     protected final ItemRegistry itemRegistry;
 
     @Activate
     public RRD4jPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
     }
 
     @Override
@@ -131,95 +164,144 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     @Override
-    public synchronized void store(final Item item, @Nullable final String alias) {
+    public void store(final Item item, @Nullable final String alias) {
         if (!isSupportedItemType(item)) {
             logger.trace("Ignoring item '{}' since its type {} is not supported", item.getName(), item.getType());
             return;
         }
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
+        Double value = getValue(item);
+        if (value == null) {
+            return;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        synchronized (getLock(name)) {
+            Deque<PendingSample> samples = pendingSamples.computeIfAbsent(name, k -> new ArrayDeque<>());
+            PendingSample last = samples.peekLast();
+            if (last != null && last.time == now) {
+                // rrd4j stores at most one value per second
+                last.value = value;
+                logger.trace("Replaced pending value of '{}' with '{}'", name, value);
+            } else {
+                samples.addLast(new PendingSample(now, value));
+            }
+        }
+    }
+
+    private @Nullable Double getValue(Item item) {
+        Double value = null;
+        if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
+            NumberItem nItem = (NumberItem) item;
+            QuantityType<?> qState = (QuantityType<?>) item.getState();
+            Unit<? extends Quantity<?>> unit = nItem.getUnit();
+            if (unit != null) {
+                QuantityType<?> convertedState = qState.toUnit(unit);
+                if (convertedState != null) {
+                    value = convertedState.doubleValue();
+                } else {
+                    logger.warn(
+                            "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
+                            qState, unit);
+                }
+            } else {
+                value = qState.doubleValue();
+            }
+        } else {
+            DecimalType state = item.getStateAs(DecimalType.class);
+            if (state != null) {
+                value = state.toBigDecimal().doubleValue();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Writes the pending samples of all items. If {@code all} is set, the samples of the current second are written as
+     * well, otherwise they are kept, as further values may still replace them.
+     */
+    private void flushPendingSamples(boolean all) {
+        long now = System.currentTimeMillis() / 1000;
+        for (String name : pendingSamples.keySet()) {
+            flushPendingSamples(name, all ? now : now - 1);
+        }
+    }
+
+    /**
+     * Writes the pending samples of an item up to the given time, opening its database only once.
+     */
+    private void flushPendingSamples(String name, long until) {
+        synchronized (getLock(name)) {
+            Deque<PendingSample> samples = pendingSamples.get(name);
+            if (samples == null || samples.isEmpty()) {
+                pendingSamples.remove(name);
+                return;
+            }
+            RrdDb db = getDB(name);
+            if (db == null) {
+                pendingSamples.remove(name);
+                return;
+            }
+            try {
+                writeSamples(db, name, samples, until);
+            } finally {
+                releaseDB(db);
+            }
+            if (samples.isEmpty()) {
+                pendingSamples.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Writes pending samples to the database in the order they were stored, each with its own time, so rrd4j
+     * consolidates all of them. A sample is moved to the second after the last update if the database already has a
+     * value for its second. Samples which would be moved beyond {@code until} are kept to be written later.
+     */
+    void writeSamples(RrdDb db, String name, Deque<PendingSample> samples, long until) {
+        try {
             ConsolFun function = getConsolidationFunction(db);
-            long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
-                try {
+            boolean counter = db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER;
+            long step = db.getHeader().getStep();
+            PendingSample pendingSample;
+            while ((pendingSample = samples.peekFirst()) != null) {
+                long lastUpdateTime = db.getLastUpdateTime();
+                // at least one second step is required between updates
+                long time = Math.max(pendingSample.time, lastUpdateTime + 1);
+                if (time > until) {
+                    logger.trace("Postponing value of '{}' to {}", name, time);
+                    return;
+                }
+                samples.pollFirst();
+                if (function != ConsolFun.AVERAGE) {
                     // we store the last value again, so that the value change
                     // in the database is not interpolated, but
                     // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
+                    if (time - 1 > lastUpdateTime) {
                         // only do it if there is not already a value
                         double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
                         if (!Double.isNaN(lastValue)) {
                             Sample sample = db.createSample();
-                            sample.setTime(now - 1);
+                            sample.setTime(time - 1);
                             sample.setValue(DATASOURCE_STATE, lastValue);
                             sample.update();
                             logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
                         }
                     }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
                 }
-            }
-            try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
-
-                Double value = null;
-
-                if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
-                    NumberItem nItem = (NumberItem) item;
-                    QuantityType<?> qState = (QuantityType<?>) item.getState();
-                    Unit<? extends Quantity<?>> unit = nItem.getUnit();
-                    if (unit != null) {
-                        QuantityType<?> convertedState = qState.toUnit(unit);
-                        if (convertedState != null) {
-                            value = convertedState.doubleValue();
-                        } else {
-                            logger.warn(
-                                    "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
-                                    qState, unit);
-                        }
-                    } else {
-                        value = qState.doubleValue();
-                    }
-                } else {
-                    DecimalType state = item.getStateAs(DecimalType.class);
-                    if (state != null) {
-                        value = state.toBigDecimal().doubleValue();
-                    }
-                }
-                if (value != null) {
-                    if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
-                                                                                          // adjusted by stepsize
-                        value = value * db.getRrdDef().getStep();
-                    }
-                    sample.setValue(DATASOURCE_STATE, value);
-                    sample.update();
-                    logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
-                }
-            } catch (IllegalArgumentException e) {
-                String message = e.getMessage();
-                if (message != null && message.contains("at least one second step is required")) {
-                    // we try to store the value one second later
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
-                    if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
-                    }
-                    job = scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
-                } else {
-                    logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+                double value = pendingSample.value;
+                if (counter) { // counter values must be adjusted by stepsize
+                    value = value * step;
                 }
-            } catch (Exception e) {
-                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
-            }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+                Sample sample = db.createSample();
+                sample.setTime(time);
+                sample.setValue(DATASOURCE_STATE, value);
+                sample.update();
+                logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
             }
+        } catch (Exception e) {
+            logger.warn("Could not persist {} value(s) of '{}' to rrd4j database: {}", samples.size(), name,
+                    e.getMessage());
+            samples.clear();
         }
     }
 
@@ -231,13 +313,57 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
-
-        RrdDb db = getDB(itemName);
-        if (db == null) {
-            logger.debug("Could not find item '{}' in rrd4j database", itemName);
+        if (itemName == null) {
             return List.of();
         }
 
+        synchronized (getLock(itemName)) {
+            // make sure that recently stored values are included
+            flushPendingSamples(itemName, System.currentTimeMillis() / 1000);
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                logger.debug("Could not find item '{}' in rrd4j database", itemName);
+                return List.of();
+            }
+            try {
+                return query(filter, itemName, db);
+            } finally {
+                releaseDB(db);
+            }
+        }
+    }
+
+    /**
+     * Fetches the values of an item between {@code start} and {@code end} (in seconds since the epoch), including the
+     * value waiting to be written. The returned data is a copy, so it can be used without holding any lock.
+     *
+     * @return the data using the consolidation function of the first archive, or null if there is no database for the
+     *         item
+     */
+    public @Nullable FetchData fetchData(String itemName, long start, long end, long resolution) {
+        synchronized (getLock(itemName)) {
+            if (!pendingSamples.containsKey(itemName)
+                    && !new File(DB_FOLDER + File.separator + itemName + ".rrd").exists()) {
+                return null;
+            }
+            flushPendingSamples(itemName, System.currentTimeMillis() / 1000);
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                return null;
+            }
+            try {
+                return db.createFetchRequest(getConsolidationFunction(db), start, end, resolution).fetchData();
+            } catch (IOException e) {
+                logger.warn("Could not fetch data of item '{}' from rrd4j database: {}", itemName, e.getMessage());
+                return null;
+            } finally {
+                releaseDB(db);
+            }
+        }
+    }
+
+    private Iterable<HistoricItem> query(FilterCriteria filter, String itemName, RrdDb db) {
+
         Item item = null;
         Unit<?> unit = null;
         try {
@@ -313,13 +439,35 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias) {
+    /**
+     * Returns the pooled database handle for the given alias, opening or creating the database file if needed. The
+     * lock of the alias must be held by the caller and the handle must be given back with {@link #releaseDB(RrdDb)}.
+     * The backend is not replaced or closed while a handle is in use.
+     */
+    protected @Nullable RrdDb getDB(String alias) {
+        backendLock.readLock().lock();
         RrdDb db = null;
+        try {
+            db = openDB(alias);
+            return db;
+        } finally {
+            if (db == null) {
+                backendLock.readLock().unlock();
+            }
+        }
+    }
+
+    private @Nullable RrdDb openDB(String alias) {
+        RrdDb db = dbPool.acquire(alias);
+        if (db != null) {
+            return db;
+        }
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = RrdDb.of(file.getAbsolutePath());
+                db = RrdDb.getBuilder().setPath(file.getAbsolutePath()).setBackendFactory(getBackendFactory())
+                        .build();
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -328,7 +476,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 RrdDef rrdDef = getRrdDef(alias, file);
                 if (rrdDef != null) {
                     // create a new database file
-                    db = RrdDb.of(rrdDef);
+                    db = RrdDb.getBuilder().setRrdDef(rrdDef).setBackendFactory(getBackendFactory()).build();
                 } else {
                     logger.debug(
                             "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
@@ -341,9 +489,29 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             // this happens if the system is shut down
             logger.debug("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
         }
+        if (db != null) {
+            dbPool.add(alias, db);
+        }
         return db;
     }
 
+    private RrdBackendFactory getBackendFactory() {
+        RrdBackendFactory factory = backendFactory;
+        return factory != null ? factory : RrdBackendFactory.getDefaultFactory();
+    }
+
+    protected void releaseDB(RrdDb db) {
+        try {
+            dbPool.release(db);
+        } finally {
+            backendLock.readLock().unlock();
+        }
+    }
+
+    private Object getLock(String alias) {
+        return locks[(alias.hashCode() & Integer.MAX_VALUE) % locks.length];
+    }
+
     private @Nullable RrdDefConfig getRrdDefConfig(String itemName) {
         RrdDefConfig useRdc = null;
         for (Map.Entry<String, RrdDefConfig> e : rrdDefs.entrySet()) {
@@ -394,7 +562,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     public ConsolFun getConsolidationFunction(RrdDb db) {
         try {
-            return db.getRrdDef().getArcDefs()[0].getConsolFun();
+            return db.getArchive(0).getConsolFun();
         } catch (IOException e) {
             return ConsolFun.MAX;
         }
@@ -441,10 +609,91 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     @Activate
     protected void activate(final Map<String, Object> config) {
         modified(config);
+        flushJob = scheduler.scheduleWithFixedDelay(() -> flushPendingSamples(false), 1, 1, TimeUnit.SECONDS);
+    }
+
+    private void updateBackendFactory(final Map<String, Object> config) {
+        String backend = BACKEND_NIO;
+        Object b = config.get(CONFIG_BACKEND);
+        if (b instanceof String && !((String) b).isBlank()) {
+            backend = ((String) b).trim().toLowerCase();
+        }
+        int syncInterval = DEFAULT_SYNC_INTERVAL;
+        Object si = config.get(CONFIG_SYNC_INTERVAL);
+        if (si != null && !si.toString().isBlank()) {
+            try {
+                syncInterval = Integer.parseInt(si.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal sync interval '{}', using default: {}", si, DEFAULT_SYNC_INTERVAL);
+            }
+            if (syncInterval < 1) {
+                logger.warn("Ignoring illegal sync interval '{}', using default: {}", si, DEFAULT_SYNC_INTERVAL);
+                syncInterval = DEFAULT_SYNC_INTERVAL;
+            }
+        }
+
+        RrdBackendFactory newFactory;
+        if (BACKEND_FILE.equals(backend)) {
+            newFactory = new RrdRandomAccessFileBackendFactory();
+            logger.debug("Using file backend");
+        } else {
+            if (!BACKEND_NIO.equals(backend)) {
+                logger.warn("Unknown backend '{}', using '{}'", backend, BACKEND_NIO);
+            }
+            newFactory = new RrdNioBackendFactory(syncInterval);
+            logger.debug("Using memory-mapped backend with a sync interval of {} s", syncInterval);
+        }
+
+        // pending samples are kept and written with the new backend
+        backendLock.writeLock().lock();
+        try {
+            RrdBackendFactory oldFactory = backendFactory;
+            backendFactory = newFactory;
+            if (oldFactory != null) {
+                // no handle is in use while the write lock is held, so all databases of the previous backend are
+                // closed here
+                dbPool.clear();
+                closeBackendFactory(oldFactory);
+            }
+        } finally {
+            backendLock.writeLock().unlock();
+        }
+    }
+
+    private void closeBackendFactory(RrdBackendFactory factory) {
+        try {
+            factory.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j backend: {}", e.getMessage());
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        flushPendingSamples(true);
+        pendingSamples.clear();
+        scheduler.shutdown();
+        backendLock.writeLock().lock();
+        try {
+            dbPool.clear();
+            RrdBackendFactory factory = backendFactory;
+            if (factory != null) {
+                closeBackendFactory(factory);
+            }
+        } finally {
+            backendLock.writeLock().unlock();
+        }
     }
 
     @Modified
     protected void modified(final Map<String, Object> config) {
+        updateBackendFactory(config);
+
         // clean existing definitions
         rrdDefs.clear();
 
@@ -501,6 +750,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals(CONFIG_BACKEND) || key.equals(CONFIG_SYNC_INTERVAL)) {
+                // already processed
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -552,6 +806,19 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * A value of an item waiting to be written, at most one per second.
+     */
+    static class PendingSample {
+        final long time;
+        double value;
+
+        PendingSample(long time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+
     private class RrdArchiveDef {
         public @Nullable ConsolFun fcn;
         public double xff;
@@ -17,13 +17,19 @@ import static java.util.Map.entry;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.imageio.ImageIO;
 import javax.servlet.Servlet;
@@ -31,6 +37,8 @@ import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -48,8 +56,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.FetchData;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphConstants.FontTag;
 import org.rrd4j.graph.RrdGraphDef;
@@ -66,6 +73,8 @@ import org.slf4j.LoggerFactory;
  * <li>items: A comma separated list of item names to display
  * <li>groups: A comma separated list of group names, whose members should be displayed
  * </ul>
+ * Rendered charts are cached for a short time bucket depending on period and width, and are identified by an ETag,
+ * so that clients refreshing a chart within the same bucket get a "304 Not Modified" response.
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Chris Jackson - a few improvements
@@ -103,16 +112,25 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             entry("Y", Duration.ofDays(365))//
     );
 
+    // minimum time in seconds a rendered chart is served from the cache
+    private static final long MIN_CACHE_BUCKET_SECONDS = 10;
+    private static final int MAX_CACHED_CHARTS = 50;
+
     private final HttpService httpService;
     private final ItemUIRegistry itemUIRegistry;
     private final TimeZoneProvider timeZoneProvider;
+    private final RRD4jPersistenceService persistenceService;
+
+    private final Map<String, CachedChart> chartCache = new ConcurrentHashMap<>();
 
     @Activate
     public RRD4jChartServlet(final @Reference HttpService httpService, final @Reference ItemUIRegistry itemUIRegistry,
-            final @Reference TimeZoneProvider timeZoneProvider) {
+            final @Reference TimeZoneProvider timeZoneProvider,
+            final @Reference RRD4jPersistenceService persistenceService) {
         this.httpService = httpService;
         this.itemUIRegistry = itemUIRegistry;
         this.timeZoneProvider = timeZoneProvider;
+        this.persistenceService = persistenceService;
     }
 
     @Activate
@@ -130,6 +148,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Deactivate
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        chartCache.clear();
     }
 
     @Override
@@ -140,23 +159,73 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         int height = parseInt(req.getParameter("h"), DEFAULT_HEIGHT);
         String periodParam = req.getParameter("period");
         Duration period = periodParam == null ? DEFAULT_PERIOD : PERIODS.getOrDefault(periodParam, DEFAULT_PERIOD);
+        String items = req.getParameter("items");
+        String groups = req.getParameter("groups");
+
+        // Charts are rendered for the end of a time bucket about the duration of one pixel, so that the same image can
+        // be served to all requests within that bucket
+        long bucketSize = Math.max(MIN_CACHE_BUCKET_SECONDS, period.getSeconds() / Math.max(width, 1));
+        long bucket = Instant.now().getEpochSecond() / bucketSize;
+        String key = items + "|" + groups + "|" + period.getSeconds() + "|" + width + "x" + height;
+        String etag = createETag(key, bucket);
+
+        if (req instanceof HttpServletRequest && res instanceof HttpServletResponse
+                && etag.equals(((HttpServletRequest) req).getHeader("If-None-Match"))) {
+            logger.trace("Chart '{}' not modified", key);
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            ((HttpServletResponse) res).setHeader("ETag", etag);
+            return;
+        }
+
+        CachedChart cachedChart = chartCache.get(key);
+        if (cachedChart == null || cachedChart.bucket != bucket) {
+            // Create the start and stop time
+            ZonedDateTime timeEnd = Instant.ofEpochSecond(bucket * bucketSize).atZone(timeZoneProvider.getTimeZone());
+            ZonedDateTime timeBegin = timeEnd.minus(period);
+
+            try {
+                BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, items, groups, null,
+                        null);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(chart, getChartType().toString(), out);
+                cachedChart = new CachedChart(bucket, (bucket + 1) * bucketSize, out.toByteArray());
+                cacheChart(key, cachedChart);
+            } catch (ItemNotFoundException e) {
+                logger.debug("Item not found error while generating chart", e);
+                throw new ServletException("Item not found error while generating chart: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                logger.debug("Illegal argument in chart", e);
+                throw new ServletException("Illegal argument in chart: " + e.getMessage());
+            }
+        } else {
+            logger.trace("Serving chart '{}' from cache", key);
+        }
 
-        // Create the start and stop time
-        ZonedDateTime timeEnd = ZonedDateTime.now(timeZoneProvider.getTimeZone());
-        ZonedDateTime timeBegin = timeEnd.minus(period);
+        // Set the content type to that provided by the chart provider
+        res.setContentType("image/" + getChartType());
+        res.setContentLength(cachedChart.image.length);
+        if (res instanceof HttpServletResponse) {
+            ((HttpServletResponse) res).setHeader("ETag", etag);
+        }
+        res.getOutputStream().write(cachedChart.image);
+    }
 
+    private static String createETag(String key, long bucket) {
         try {
-            BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, req.getParameter("items"),
-                    req.getParameter("groups"), null, null);
-            // Set the content type to that provided by the chart provider
-            res.setContentType("image/" + getChartType());
-            ImageIO.write(chart, getChartType().toString(), res.getOutputStream());
-        } catch (ItemNotFoundException e) {
-            logger.debug("Item not found error while generating chart", e);
-            throw new ServletException("Item not found error while generating chart: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.debug("Illegal argument in chart", e);
-            throw new ServletException("Illegal argument in chart: " + e.getMessage());
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((key + "|" + bucket).getBytes(StandardCharsets.UTF_8));
+            return "\"" + String.format("%064x", new BigInteger(1, digest)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void cacheChart(String key, CachedChart cachedChart) {
+        long now = Instant.now().getEpochSecond();
+        chartCache.values().removeIf(c -> c.validUntil <= now);
+        if (chartCache.size() < MAX_CACHED_CHARTS || chartCache.containsKey(key)) {
+            chartCache.put(key, cachedChart);
         }
     }
 
@@ -180,29 +249,29 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
      * @param graphDef the graph definition to fill
      * @param item the item to add a line for
      * @param counter defines the number of the datasource and is used to determine the line color
+     * @param start start of the chart in seconds since the epoch
+     * @param end end of the chart in seconds since the epoch
+     * @param resolution preferred time span in seconds of one value
      */
-    protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
+    protected void addLine(RrdGraphDef graphDef, Item item, int counter, long start, long end, long resolution) {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jPersistenceService.DB_FOLDER + File.separator + item.getName() + ".rrd";
-        ConsolFun consolFun;
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
-        try {
-            RrdDb db = RrdDb.of(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
-        } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
+        // the data is copied, so rendering does not block the persistence of the item
+        FetchData fetchData = persistenceService.fetchData(item.getName(), start, end, resolution);
+        if (fetchData == null) {
+            logger.debug("No rrd4j data for item '{}', skipping it in chart", item.getName());
+            return;
         }
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), "state", fetchData);
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), "state", fetchData);
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
@@ -250,13 +319,16 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         graphDef.setFont(FontTag.DEFAULT, new Font("SansSerif", Font.PLAIN, 11));
 
         int seriesCounter = 0;
+        long start = startTime.toEpochSecond();
+        long end = endTime.toEpochSecond();
+        long resolution = Math.max(1, (end - start) / Math.max(width, 1));
 
         // Loop through all the items
         if (items != null) {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
                 Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                addLine(graphDef, item, seriesCounter++, start, end, resolution);
             }
         }
 
@@ -268,7 +340,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
                 if (item instanceof GroupItem) {
                     GroupItem groupItem = (GroupItem) item;
                     for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
+                        addLine(graphDef, member, seriesCounter++, start, end, resolution);
                     }
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
@@ -292,4 +364,19 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     public ImageType getChartType() {
         return ImageType.png;
     }
+
+    /**
+     * A rendered chart, valid for one time bucket.
+     */
+    private static class CachedChart {
+        private final long bucket;
+        private final long validUntil;
+        private final byte[] image;
+
+        private CachedChart(long bucket, long validUntil, byte[] image) {
+            this.bucket = bucket;
+            this.validUntil = validUntil;
+            this.image = image;
+        }
+    }
 }
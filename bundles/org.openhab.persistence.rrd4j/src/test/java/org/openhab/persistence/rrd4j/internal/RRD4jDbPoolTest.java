@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdMemoryBackendFactory;
+
+/**
+ * Tests for {@link RRD4jDbPool}.
+ *
+ * @author Kai Kreuzer - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPoolTest {
+
+    private final RrdMemoryBackendFactory backendFactory = new RrdMemoryBackendFactory();
+
+    private RrdDb createDb(String name) throws IOException {
+        RrdDef rrdDef = new RrdDef(name, 10);
+        rrdDef.addDatasource("state", DsType.GAUGE, 600, Double.NaN, Double.NaN);
+        rrdDef.addArchive(ConsolFun.LAST, 0.5, 1, 10);
+        return RrdDb.getBuilder().setRrdDef(rrdDef).setBackendFactory(backendFactory).build();
+    }
+
+    @Test
+    public void acquireReturnsAddedHandle() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2);
+        RrdDb db = createDb("a");
+        pool.add("a", db);
+        pool.release(db);
+
+        assertThat(pool.acquire("a"), is(sameInstance(db)));
+        assertThat(pool.acquire("b"), is(nullValue()));
+        pool.release(db);
+        assertThat(db.isClosed(), is(false));
+    }
+
+    @Test
+    public void leastRecentlyUsedHandleIsClosedWhenCapacityIsExceeded() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2);
+        RrdDb a = createDb("a");
+        RrdDb b = createDb("b");
+        RrdDb c = createDb("c");
+        pool.add("a", a);
+        pool.release(a);
+        pool.add("b", b);
+        pool.release(b);
+        // use "a" again, so that "b" is the least recently used handle
+        assertThat(pool.acquire("a"), is(sameInstance(a)));
+        pool.release(a);
+        pool.add("c", c);
+        pool.release(c);
+
+        assertThat(pool.size(), is(2));
+        assertThat(b.isClosed(), is(true));
+        assertThat(a.isClosed(), is(false));
+        assertThat(c.isClosed(), is(false));
+        assertThat(pool.acquire("b"), is(nullValue()));
+    }
+
+    @Test
+    public void handleInUseIsNotEvicted() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(1);
+        RrdDb a = createDb("a");
+        RrdDb b = createDb("b");
+        pool.add("a", a);
+        pool.add("b", b);
+
+        // both handles are in use, so the pool grows beyond its capacity
+        assertThat(pool.size(), is(2));
+        assertThat(a.isClosed(), is(false));
+
+        pool.release(a);
+        assertThat(a.isClosed(), is(true));
+        assertThat(pool.size(), is(1));
+        pool.release(b);
+        assertThat(b.isClosed(), is(false));
+    }
+
+    @Test
+    public void clearClosesHandlesInUseWhenReleased() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2);
+        RrdDb a = createDb("a");
+        RrdDb b = createDb("b");
+        pool.add("a", a);
+        pool.release(a);
+        pool.add("b", b);
+
+        pool.clear();
+        assertThat(pool.size(), is(0));
+        assertThat(a.isClosed(), is(true));
+        assertThat(b.isClosed(), is(false));
+
+        pool.release(b);
+        assertThat(b.isClosed(), is(true));
+    }
+
+    @Test
+    public void handleIsCountedPerAcquire() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2);
+        RrdDb a = createDb("a");
+        pool.add("a", a);
+        pool.acquire("a");
+        pool.clear();
+
+        pool.release(a);
+        assertThat(a.isClosed(), is(false));
+        pool.release(a);
+        assertThat(a.isClosed(), is(true));
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.rrd4j.internal.RRD4jPersistenceService.PendingSample;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.RrdDb;
+
+/**
+ * Tests for the sample coalescing and the backend handling of {@link RRD4jPersistenceService}.
+ *
+ * @author Kai Kreuzer - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class RRD4jPersistenceServiceTest {
+
+    private static final String ITEM_NAME = "RRD4jPersistenceServiceTest_Number";
+
+    private @Mock @NonNullByDefault({}) ItemRegistry itemRegistry;
+
+    private @NonNullByDefault({}) RRD4jPersistenceService service;
+    private final NumberItem item = new NumberItem(ITEM_NAME);
+
+    @BeforeAll
+    public static void setUpUserData() {
+        // use temp folder for userdata folder
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        System.setProperty("openhab.userdata", tmpDir != null ? tmpDir : "/tmp");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        deleteDatabase();
+        service = new RRD4jPersistenceService(itemRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate();
+        deleteDatabase();
+    }
+
+    private void deleteDatabase() {
+        new File(RRD4jPersistenceService.DB_FOLDER, ITEM_NAME + ".rrd").delete();
+    }
+
+    private void activate(Map<String, Object> config) throws ItemNotFoundException {
+        when(itemRegistry.getItem(ITEM_NAME)).thenReturn(item);
+        service.activate(config);
+    }
+
+    private List<HistoricItem> queryLastValue() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(ITEM_NAME);
+        filter.setOrdering(Ordering.DESCENDING);
+        filter.setPageSize(1);
+        List<HistoricItem> result = new ArrayList<>();
+        service.query(filter).forEach(result::add);
+        return result;
+    }
+
+    private static double fetchAverage(RrdDb db, long time) throws IOException {
+        FetchData data = db.createFetchRequest(ConsolFun.AVERAGE, time, time).fetchData();
+        long[] timestamps = data.getTimestamps();
+        for (int i = 0; i < timestamps.length; i++) {
+            if (timestamps[i] == time) {
+                return data.getValues("state")[i];
+            }
+        }
+        throw new AssertionError("No row for " + time);
+    }
+
+    @Test
+    public void everySampleIsConsolidatedByRrd4j() throws IOException {
+        service.activate(
+                Map.of("test.def", "GAUGE,600,U,U,10", "test.archives", "AVERAGE,0.5,1,360", "test.items", ITEM_NAME));
+        RrdDb db = Objects.requireNonNull(service.getDB(ITEM_NAME));
+        try {
+            long start = (db.getLastUpdateTime() / 10 + 1) * 10;
+            Deque<PendingSample> samples = new ArrayDeque<>(List.of(new PendingSample(start, 0.0),
+                    new PendingSample(start + 1, 10.0), new PendingSample(start + 10, 0.0)));
+
+            service.writeSamples(db, ITEM_NAME, samples, start + 10);
+
+            assertThat(samples.isEmpty(), is(true));
+            assertThat(db.getLastUpdateTime(), is(start + 10));
+            // 10 for one second and 0 for nine seconds of the step
+            assertThat(fetchAverage(db, start + 10), is(1.0));
+        } finally {
+            service.releaseDB(db);
+        }
+    }
+
+    @Test
+    public void sampleOfAnUpdatedSecondIsPostponed() throws IOException, ItemNotFoundException {
+        activate(Map.of());
+        RrdDb db = Objects.requireNonNull(service.getDB(ITEM_NAME));
+        try {
+            long lastUpdateTime = db.getLastUpdateTime();
+            Deque<PendingSample> samples = new ArrayDeque<>(List.of(new PendingSample(lastUpdateTime, 42.0)));
+
+            service.writeSamples(db, ITEM_NAME, samples, lastUpdateTime);
+            assertThat(samples.size(), is(1));
+            assertThat(db.getLastUpdateTime(), is(lastUpdateTime));
+
+            service.writeSamples(db, ITEM_NAME, samples, lastUpdateTime + 1);
+            assertThat(samples.isEmpty(), is(true));
+            assertThat(db.getLastUpdateTime(), is(lastUpdateTime + 1));
+            assertThat(db.getLastDatasourceValue("state"), is(42.0));
+        } finally {
+            service.releaseDB(db);
+        }
+    }
+
+    @Test
+    public void pendingValueIsIncludedInQuery() throws ItemNotFoundException {
+        activate(Map.of());
+        item.setState(new DecimalType(10));
+        service.store(item);
+        item.setState(new DecimalType(42));
+        service.store(item);
+
+        List<HistoricItem> result = queryLastValue();
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(new DecimalType(42)));
+    }
+
+    @Test
+    public void backendIsNotReplacedWhileHandleIsInUse() throws Exception {
+        activate(Map.of("backend", "nio"));
+        item.setState(new DecimalType(42));
+        service.store(item);
+
+        RrdDb db = Objects.requireNonNull(service.getDB(ITEM_NAME));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> switching = executor.submit(() -> service.modified(Map.of("backend", "file")));
+
+            // the switch has to wait for the handle, which stays usable meanwhile
+            assertThrows(TimeoutException.class, () -> switching.get(200, TimeUnit.MILLISECONDS));
+            assertThat(db.isClosed(), is(false));
+            db.getLastUpdateTime();
+
+            service.releaseDB(db);
+            switching.get(10, TimeUnit.SECONDS);
+            assertThat(db.isClosed(), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the pending value survives the switch and is written with the new backend
+        List<HistoricItem> result = queryLastValue();
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(new DecimalType(42)));
+    }
+}
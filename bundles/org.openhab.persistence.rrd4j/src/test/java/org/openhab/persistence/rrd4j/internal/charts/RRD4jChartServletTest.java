@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.i18n.TimeZoneProvider;
+import org.openhab.core.ui.items.ItemUIRegistry;
+import org.openhab.persistence.rrd4j.internal.RRD4jPersistenceService;
+import org.osgi.service.http.HttpService;
+
+/**
+ * Tests for the chart cache and the ETag handling of {@link RRD4jChartServlet}.
+ *
+ * @author Kai Kreuzer - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class RRD4jChartServletTest {
+
+    private @Mock @NonNullByDefault({}) HttpService httpService;
+    private @Mock @NonNullByDefault({}) ItemUIRegistry itemUIRegistry;
+    private @Mock @NonNullByDefault({}) TimeZoneProvider timeZoneProvider;
+    private @Mock @NonNullByDefault({}) RRD4jPersistenceService persistenceService;
+
+    private @NonNullByDefault({}) CountingChartServlet servlet;
+
+    /**
+     * Counts the rendered charts instead of reading from the persistence service.
+     */
+    private static class CountingChartServlet extends RRD4jChartServlet {
+        private int renderCount;
+
+        private CountingChartServlet(HttpService httpService, ItemUIRegistry itemUIRegistry,
+                TimeZoneProvider timeZoneProvider, RRD4jPersistenceService persistenceService) {
+            super(httpService, itemUIRegistry, timeZoneProvider, persistenceService);
+        }
+
+        @Override
+        public BufferedImage createChart(@Nullable String service, @Nullable String theme, ZonedDateTime startTime,
+                ZonedDateTime endTime, int height, int width, @Nullable String items, @Nullable String groups,
+                @Nullable Integer dpi, @Nullable Boolean legend) {
+            renderCount++;
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        servlet = new CountingChartServlet(httpService, itemUIRegistry, timeZoneProvider, persistenceService);
+    }
+
+    private HttpServletRequest createRequest(String width, @Nullable String ifNoneMatch) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getParameter("w")).thenReturn(width);
+        when(request.getParameter("period")).thenReturn("Y");
+        when(request.getParameter("items")).thenReturn("Item1");
+        when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        return request;
+    }
+
+    private HttpServletResponse createResponse() throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        lenient().when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+        return response;
+    }
+
+    private String getETag(HttpServletResponse response) {
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        verify(response).setHeader(eq("ETag"), etag.capture());
+        return etag.getValue();
+    }
+
+    @Test
+    public void chartIsRenderedOncePerBucket() throws ServletException, IOException {
+        when(timeZoneProvider.getTimeZone()).thenReturn(ZoneId.of("UTC"));
+        HttpServletResponse first = createResponse();
+        HttpServletResponse second = createResponse();
+
+        servlet.service(createRequest("10", null), first);
+        servlet.service(createRequest("10", null), second);
+
+        assertThat(servlet.renderCount, is(1));
+        assertThat(getETag(second), is(getETag(first)));
+        verify(second.getOutputStream()).write(any(byte[].class));
+    }
+
+    @Test
+    public void notModifiedResponseRepeatsETag() throws ServletException, IOException {
+        when(timeZoneProvider.getTimeZone()).thenReturn(ZoneId.of("UTC"));
+        HttpServletResponse first = createResponse();
+        servlet.service(createRequest("10", null), first);
+        String etag = getETag(first);
+
+        HttpServletResponse second = createResponse();
+        servlet.service(createRequest("10", etag), second);
+
+        verify(second).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(getETag(second), is(etag));
+        verify(second, never()).getOutputStream();
+        assertThat(servlet.renderCount, is(1));
+    }
+
+    @Test
+    public void chartsWithDifferentParametersAreRenderedSeparately() throws ServletException, IOException {
+        when(timeZoneProvider.getTimeZone()).thenReturn(ZoneId.of("UTC"));
+        HttpServletResponse first = createResponse();
+        HttpServletResponse second = createResponse();
+
+        servlet.service(createRequest("10", null), first);
+        servlet.service(createRequest("20", null), second);
+
+        assertThat(servlet.renderCount, is(2));
+        assertThat(getETag(second), is(not(getETag(first))));
+    }
+}
@@ -13,12 +13,11 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -32,12 +31,21 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
 import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
 import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Templates are parsed once and the resulting node trees are cached, keyed by the template text.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -45,10 +53,22 @@ import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private final JinjavaConfig config = JinjavaConfig.newBuilder().withFailOnUnknownTokens(true).build();
     private final Jinjava jinjava = new Jinjava(config);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Node> cachedTemplates = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, Node> eldest) {
+            return size() > MAX_CACHED_TEMPLATES;
+        }
+    };
 
     /**
      * Transforms the input <code>value</code> by Jinja template.
@@ -67,15 +87,24 @@ public class JinjaTransformationService implements TransformationService {
         bindings.put("value", value);
 
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
+            JsonNode tree = objectMapper.readTree(value);
+            bindings.put("value_json", LazyJsonBinding.toObject(tree));
         } catch (IOException e) {
             // ok, then value_json is null...
         }
 
         try {
-            transformationResult = jinjava.render(template, bindings);
-        } catch (FatalTemplateErrorsException e) {
+            Node root = getTemplate(template);
+            JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava,
+                    new Context(jinjava.getGlobalContext(), bindings), config);
+            JinjavaInterpreter.pushCurrent(interpreter);
+            try {
+                transformationResult = interpreter.render(root);
+                checkErrors(template, interpreter);
+            } finally {
+                JinjavaInterpreter.popCurrent();
+            }
+        } catch (FatalTemplateErrorsException | InterpretException e) {
             throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
         }
 
@@ -84,33 +113,36 @@ public class JinjaTransformationService implements TransformationService {
         return transformationResult;
     }
 
-    private static @Nullable Object toObject(JsonNode node) {
-        switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
-                }
-                return result;
+    /**
+     * Returns the parsed template, parsing it only if it is not cached yet. Templates with syntax errors are not
+     * cached.
+     */
+    private Node getTemplate(String template) {
+        Node root;
+        synchronized (cachedTemplates) {
+            root = cachedTemplates.get(template);
+        }
+        if (root == null) {
+            JinjavaInterpreter interpreter = jinjava.newInterpreter();
+            JinjavaInterpreter.pushCurrent(interpreter);
+            try {
+                root = interpreter.parse(template);
+                checkErrors(template, interpreter);
+            } finally {
+                JinjavaInterpreter.popCurrent();
             }
-            case NUMBER:
-                return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
-                }
-                return result;
+            synchronized (cachedTemplates) {
+                cachedTemplates.put(template, root);
             }
-            case STRING:
-                return node.asText();
-            case BOOLEAN:
-                return node.asBoolean();
-            case NULL:
-            default:
-                return null;
+        }
+        return root;
+    }
+
+    private void checkErrors(String template, JinjavaInterpreter interpreter) {
+        List<TemplateError> fatalErrors = interpreter.getErrors().stream()
+                .filter(error -> error.getSeverity() == ErrorType.FATAL).collect(Collectors.toList());
+        if (!fatalErrors.isEmpty()) {
+            throw new FatalTemplateErrorsException(template, fatalErrors);
         }
     }
 }
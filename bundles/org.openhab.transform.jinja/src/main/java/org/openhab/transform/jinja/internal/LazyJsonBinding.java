@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jinja.internal;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Exposes a Jackson {@link JsonNode} tree to templates as plain Java values. Objects and arrays are wrapped as
+ * {@link Map} and {@link java.util.List} views which convert their children only when a template accesses them, so
+ * the parts of a large document a template doesn't use are never converted.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+final class LazyJsonBinding {
+
+    private LazyJsonBinding() {
+        // static utility class
+    }
+
+    static @Nullable Object toObject(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                return new JsonArrayList(node);
+            case NUMBER:
+                return node.decimalValue();
+            case OBJECT:
+                return new JsonObjectMap(node);
+            case STRING:
+                return node.asText();
+            case BOOLEAN:
+                return node.asBoolean();
+            case NULL:
+            default:
+                return null;
+        }
+    }
+
+    private static class JsonObjectMap extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+        private final Map<String, @Nullable Object> converted = new HashMap<>();
+
+        JsonObjectMap(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            String name = (String) key;
+            if (converted.containsKey(name)) {
+                return converted.get(name);
+            }
+            JsonNode child = node.get(name);
+            if (child == null) {
+                return null;
+            }
+            Object value = toObject(child);
+            converted.put(name, value);
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, @Nullable Object>> iterator() {
+                    Iterator<String> names = node.fieldNames();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, @Nullable Object> next() {
+                            String name = names.next();
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
+
+    private static class JsonArrayList extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+        private final @Nullable Object[] converted;
+        private final boolean[] isConverted;
+
+        JsonArrayList(JsonNode node) {
+            this.node = node;
+            this.converted = new Object[node.size()];
+            this.isConverted = new boolean[node.size()];
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= converted.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + converted.length);
+            }
+            if (!isConverted[index]) {
+                converted[index] = toObject(node.get(index));
+                isConverted[index] = true;
+            }
+            return converted[index];
+        }
+
+        @Override
+        public int size() {
+            return converted.length;
+        }
+    }
+}
@@ -115,4 +115,23 @@ public class JinjaTransformationServiceTest {
         // then map key is defined
         assertEquals("true", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+        String template = "{{ value_json.list[1].name }} {{ value_json.list | length }}";
+
+        assertEquals("b 2",
+                processor.transform(template, "{\"list\": [{\"name\": \"a\"}, {\"name\": \"b\"}]}"));
+        assertEquals("d 3", processor.transform(template,
+                "{\"list\": [{\"name\": \"c\"}, {\"name\": \"d\"}, {\"name\": \"e\"}]}"));
+    }
+
+    @Test
+    public void testTemplateErrorIsNotCached() {
+        String template = "Hello {{{ value_json.string }}!";
+        String value = "{\"string\": \"world\"}";
+
+        assertThrows(TransformationException.class, () -> processor.transform(template, value));
+        assertThrows(TransformationException.class, () -> processor.transform(template, value));
+    }
 }
@@ -12,7 +12,10 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +27,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -33,6 +37,11 @@ import com.jayway.jsonpath.PathNotFoundException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
  *
+ * <p>
+ * Compiled expressions and the most recently parsed documents are cached, so several channels applying different
+ * expressions to the same payload share a single parse. Only documents up to {@value #MAX_CACHED_DOCUMENT_LENGTH}
+ * characters are cached, as the payload is kept as the key next to its parsed form.
+ *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
  *
@@ -41,8 +50,15 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(property = { "openhab.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_PATHS = 256;
+    private static final int MAX_CACHED_DOCUMENTS = 16;
+    private static final int MAX_CACHED_DOCUMENT_LENGTH = 16384;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> cachedPaths = new LruMap<>(MAX_CACHED_PATHS);
+    private final Map<String, DocumentContext> cachedDocuments = new LruMap<>(MAX_CACHED_DOCUMENTS);
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -59,8 +75,76 @@ public class JSonPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
+        return read(parse(source), jsonPathExpression, source);
+    }
+
+    /**
+     * Transforms the input <code>source</code> by several JSonPath expressions, parsing it only once.
+     *
+     * @param jsonPathExpressions JsonPath expressions
+     * @param source String which contains JSON
+     * @return the results in the order of the expressions
+     * @throws TransformationException If the source is no valid JSON or any of the expressions is invalid or doesn't
+     *             match
+     */
+    public List<@Nullable String> transform(List<String> jsonPathExpressions, String source)
+            throws TransformationException {
+        logger.debug("about to transform '{}' by the functions '{}'", source, jsonPathExpressions);
+
+        DocumentContext document = parse(source);
+        List<@Nullable String> results = new ArrayList<>(jsonPathExpressions.size());
+        for (String jsonPathExpression : jsonPathExpressions) {
+            results.add(read(document, jsonPathExpression, source));
+        }
+        return results;
+    }
+
+    private DocumentContext parse(String source) throws TransformationException {
+        boolean cacheable = source.length() <= MAX_CACHED_DOCUMENT_LENGTH;
+        DocumentContext document = null;
+        if (cacheable) {
+            synchronized (cachedDocuments) {
+                document = cachedDocuments.get(source);
+            }
+        }
+        if (document == null) {
+            try {
+                document = JsonPath.parse(source);
+            } catch (InvalidJsonException e) {
+                throw new TransformationException("An error occurred while transforming JSON expression.", e);
+            }
+            if (cacheable) {
+                synchronized (cachedDocuments) {
+                    cachedDocuments.put(source, document);
+                }
+            }
+        }
+        return document;
+    }
+
+    private JsonPath compile(String jsonPathExpression) throws TransformationException {
+        JsonPath path;
+        synchronized (cachedPaths) {
+            path = cachedPaths.get(jsonPathExpression);
+        }
+        if (path == null) {
+            try {
+                path = JsonPath.compile(jsonPathExpression);
+            } catch (InvalidPathException e) {
+                throw new TransformationException("An error occurred while transforming JSON expression.", e);
+            }
+            synchronized (cachedPaths) {
+                cachedPaths.put(jsonPathExpression, path);
+            }
+        }
+        return path;
+    }
+
+    private @Nullable String read(DocumentContext document, String jsonPathExpression, String source)
+            throws TransformationException {
+        JsonPath path = compile(jsonPathExpression);
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = document.read(path);
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -100,4 +184,20 @@ public class JSonPathTransformationService implements TransformationService {
     private String createStringList(List<?> list) {
         return list.stream().map(n -> "\"" + String.valueOf(n) + "\"").collect(Collectors.joining(", ", "[", "]"));
     }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
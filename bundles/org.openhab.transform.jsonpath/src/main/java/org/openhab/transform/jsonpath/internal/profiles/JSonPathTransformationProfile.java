@@ -12,7 +12,13 @@
  */
 package org.openhab.transform.jsonpath.internal.profiles;
 
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.profiles.ProfileCallback;
 import org.openhab.core.thing.profiles.ProfileContext;
@@ -24,6 +30,7 @@ import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
+import org.openhab.transform.jsonpath.internal.JSonPathTransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +53,14 @@ public class JSonPathTransformationProfile implements StateProfile {
 
     private static final String FUNCTION_PARAM = "function";
     private static final String SOURCE_FORMAT_PARAM = "sourceFormat";
+    private static final String RESULT_FORMAT_PARAM = "resultFormat";
 
     @NonNullByDefault({})
     private final String function;
     @NonNullByDefault({})
     private final String sourceFormat;
+    private final List<String> functions;
+    private final @Nullable String resultFormat;
 
     public JSonPathTransformationProfile(ProfileCallback callback, ProfileContext context,
             TransformationService service) {
@@ -59,6 +69,7 @@ public class JSonPathTransformationProfile implements StateProfile {
 
         Object paramFunction = context.getConfiguration().get(FUNCTION_PARAM);
         Object paramSource = context.getConfiguration().get(SOURCE_FORMAT_PARAM);
+        Object paramResult = context.getConfiguration().get(RESULT_FORMAT_PARAM);
 
         logger.debug("Profile configured with '{}'='{}', '{}'={}", FUNCTION_PARAM, paramFunction, SOURCE_FORMAT_PARAM,
                 paramSource);
@@ -75,6 +86,11 @@ public class JSonPathTransformationProfile implements StateProfile {
             function = null;
             sourceFormat = null;
         }
+        // several expressions, one per line, are evaluated against a single parsed document
+        functions = function == null ? List.of()
+                : Stream.of(function.split("\\R")).map(String::trim).filter(f -> !f.isEmpty())
+                        .collect(Collectors.toList());
+        resultFormat = paramResult instanceof String ? (String) paramResult : null;
     }
 
     @Override
@@ -118,7 +134,11 @@ public class JSonPathTransformationProfile implements StateProfile {
     private Type transformState(Type state) {
         String result = state.toFullString();
         try {
-            result = TransformationHelper.transform(service, function, sourceFormat, state.toFullString());
+            if (functions.size() > 1 && service instanceof JSonPathTransformationService) {
+                result = transformMultiple((JSonPathTransformationService) service, state);
+            } else {
+                result = TransformationHelper.transform(service, function, sourceFormat, state.toFullString());
+            }
         } catch (TransformationException e) {
             logger.warn("Could not transform state '{}' with function '{}' and format '{}'", state, function,
                     sourceFormat);
@@ -127,4 +147,19 @@ public class JSonPathTransformationProfile implements StateProfile {
         logger.debug("Transformed '{}' into '{}'", state, resultType);
         return resultType;
     }
+
+    private String transformMultiple(JSonPathTransformationService jsonPathService, Type state)
+            throws TransformationException {
+        String format = resultFormat;
+        try {
+            String source = String.format(sourceFormat, state.toFullString());
+            List<@Nullable String> results = jsonPathService.transform(functions, source);
+            if (format == null || format.isBlank()) {
+                return results.stream().map(String::valueOf).collect(Collectors.joining(" "));
+            }
+            return String.format(format, results.toArray());
+        } catch (IllegalFormatException e) {
+            throw new TransformationException("Invalid format '" + sourceFormat + "' or '" + format + "'", e);
+        }
+    }
 }
@@ -14,6 +14,8 @@ package org.openhab.transform.jsonpath.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
@@ -127,4 +129,33 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testMultiplePaths() throws TransformationException {
+        List<String> results = processor.transform(List.of("$[0].name", "$[1].id", "$[0].empty"), jsonArray);
+        assertEquals(3, results.size());
+        assertEquals("bob", results.get(0));
+        assertEquals("2", results.get(1));
+        assertNull(results.get(2));
+    }
+
+    @Test
+    public void testMultiplePathsInvalidPathThrowsException() {
+        assertThrows(TransformationException.class, () -> processor.transform(List.of("$[0].name", "$$"), jsonArray));
+    }
+
+    @Test
+    public void testCachedDocumentWithDifferentPaths() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+    }
+
+    @Test
+    public void testLargeDocumentWithDifferentPaths() throws TransformationException {
+        // too large to be cached, so it is parsed for every transformation
+        String json = "{\"padding\":\"" + "x".repeat(20000) + "\",\"id\":1,\"name\":\"bob\"}";
+        assertEquals("bob", processor.transform("$.name", json));
+        assertEquals("1", processor.transform("$.id", json));
+    }
 }
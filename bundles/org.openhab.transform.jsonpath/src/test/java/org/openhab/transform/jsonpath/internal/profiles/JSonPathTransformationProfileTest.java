@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal.profiles;
+
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.thing.profiles.ProfileCallback;
+import org.openhab.core.thing.profiles.ProfileContext;
+import org.openhab.transform.jsonpath.internal.JSonPathTransformationService;
+
+/**
+ * Tests the {@link JSonPathTransformationProfile}, in particular with several expressions.
+ *
+ * @author Stefan Triller - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class JSonPathTransformationProfileTest {
+
+    private static final String JSON = "{\"temperature\":21.5,\"humidity\":48,\"status\":\"ok\"}";
+
+    private @Mock @NonNullByDefault({}) ProfileCallback callback;
+    private @Mock @NonNullByDefault({}) ProfileContext context;
+
+    private final JSonPathTransformationService service = new JSonPathTransformationService();
+    private final Map<String, Object> configuration = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(context.getConfiguration()).thenAnswer(invocation -> new Configuration(configuration));
+    }
+
+    private JSonPathTransformationProfile profile(String function) {
+        configuration.put("function", function);
+        return new JSonPathTransformationProfile(callback, context, service);
+    }
+
+    @Test
+    public void singleExpression() {
+        profile("$.temperature").onStateUpdateFromHandler(new StringType(JSON));
+
+        verify(callback).sendUpdate(new StringType("21.5"));
+    }
+
+    @Test
+    public void severalExpressionsAreJoinedWithSpaces() {
+        profile("$.temperature\n$.humidity\r\n  $.status  \n").onStateUpdateFromHandler(new StringType(JSON));
+
+        verify(callback).sendUpdate(new StringType("21.5 48 ok"));
+    }
+
+    @Test
+    public void severalExpressionsAreFormattedByResultFormat() {
+        configuration.put("resultFormat", "%1$s °C, %2$s %%");
+
+        profile("$.temperature\n$.humidity").onStateUpdateFromHandler(new StringType(JSON));
+
+        verify(callback).sendUpdate(new StringType("21.5 °C, 48 %"));
+    }
+
+    @Test
+    public void severalExpressionsAreAppliedToFormattedSource() {
+        configuration.put("sourceFormat", "{\"device\":%s}");
+
+        profile("$.device.humidity\n$.device.status").onCommandFromHandler(new StringType(JSON));
+
+        verify(callback).sendCommand(new StringType("48 ok"));
+    }
+
+    @Test
+    public void stateIsKeptIfAnExpressionDoesNotMatch() {
+        profile("$.temperature\n$.pressure").onStateUpdateFromHandler(new StringType(JSON));
+
+        verify(callback).sendUpdate(new StringType(JSON));
+    }
+
+    @Test
+    public void stateIsKeptIfResultFormatIsInvalid() {
+        configuration.put("resultFormat", "%d");
+
+        profile("$.temperature\n$.humidity").onStateUpdateFromHandler(new StringType(JSON));
+
+        verify(callback).sendUpdate(new StringType(JSON));
+    }
+}
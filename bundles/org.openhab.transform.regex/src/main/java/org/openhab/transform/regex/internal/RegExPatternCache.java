@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A bounded cache of compiled {@link Pattern}s which evicts the least recently used pattern when it is full.
+ * Patterns are compiled outside of the lock, so a slow compilation doesn't block lookups of other threads.
+ *
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final int maxSize;
+    private final Map<Key, Pattern> patterns;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RegExPatternCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public RegExPatternCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.patterns = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<Key, Pattern> eldest) {
+                return size() > RegExPatternCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled pattern for the given regular expression and flags, compiling it on a cache miss.
+     *
+     * @param regex the regular expression
+     * @param flags the match flags as in {@link Pattern#compile(String, int)}
+     * @return the compiled pattern
+     * @throws PatternSyntaxException if the regular expression is invalid
+     */
+    public Pattern getPattern(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Pattern pattern;
+        synchronized (patterns) {
+            pattern = patterns.get(key);
+        }
+        if (pattern != null) {
+            hits.incrementAndGet();
+            return pattern;
+        }
+        misses.incrementAndGet();
+        pattern = Pattern.compile(regex, flags);
+        synchronized (patterns) {
+            Pattern existing = patterns.putIfAbsent(key, pattern);
+            return existing != null ? existing : pattern;
+        }
+    }
+
+    public int size() {
+        synchronized (patterns) {
+            return patterns.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public void clear() {
+        synchronized (patterns) {
+            patterns.clear();
+        }
+    }
+
+    private static class Key {
+        private final String regex;
+        private final int flags;
+
+        private Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
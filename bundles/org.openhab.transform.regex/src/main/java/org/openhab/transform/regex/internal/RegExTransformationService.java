@@ -14,6 +14,7 @@ package org.openhab.transform.regex.internal;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -40,6 +41,8 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private final RegExPatternCache patternCache = new RegExPatternCache();
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -56,17 +59,18 @@ public class RegExTransformationService implements TransformationService {
             String regex = substMatcher.group(1);
             String substitution = substMatcher.group(2);
             String options = substMatcher.group(3);
+            Matcher regexMatcher = getPattern(regex, 0).matcher(source.trim());
             if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+                result = regexMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
+                result = regexMatcher.replaceFirst(substitution);
             }
             if (result != null) {
                 return result;
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = getPattern("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -94,4 +98,22 @@ public class RegExTransformationService implements TransformationService {
 
         return result;
     }
+
+    /**
+     * Returns the cache of compiled patterns, which is also used by the REGEX profiles as they delegate to this
+     * service.
+     *
+     * @return the pattern cache
+     */
+    public RegExPatternCache getPatternCache() {
+        return patternCache;
+    }
+
+    private Pattern getPattern(String regex, int flags) throws TransformationException {
+        try {
+            return patternCache.getPattern(regex, flags);
+        } catch (PatternSyntaxException e) {
+            throw new TransformationException("the given regex '" + regex + "' is invalid: " + e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCacheTest {
+
+    @Test
+    public void testPatternIsCompiledOnce() {
+        RegExPatternCache cache = new RegExPatternCache();
+
+        Pattern first = cache.getPattern("^(.*)$", Pattern.DOTALL);
+        Pattern second = cache.getPattern("^(.*)$", Pattern.DOTALL);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testFlagsArePartOfTheKey() {
+        RegExPatternCache cache = new RegExPatternCache();
+
+        Pattern dotAll = cache.getPattern("a.b", Pattern.DOTALL);
+        Pattern plain = cache.getPattern("a.b", 0);
+
+        assertNotSame(dotAll, plain);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPatternIsEvicted() {
+        RegExPatternCache cache = new RegExPatternCache(2);
+
+        Pattern a = cache.getPattern("a", 0);
+        cache.getPattern("b", 0);
+        // touch "a" so "b" becomes the eldest entry
+        cache.getPattern("a", 0);
+        cache.getPattern("c", 0);
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.getPattern("a", 0));
+        long misses = cache.getMissCount();
+        cache.getPattern("b", 0);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidPatternIsNotCached() {
+        RegExPatternCache cache = new RegExPatternCache();
+
+        assertThrows(PatternSyntaxException.class, () -> cache.getPattern("(", 0));
+        assertEquals(0, cache.size());
+    }
+}
@@ -75,4 +75,20 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_usesPatternCache() throws TransformationException {
+        processor.transform(".*?<current_conditions>.*?<temp_c data=\"(.*?)\".*", source);
+        String transformedResponse = processor.transform(".*?<current_conditions>.*?<temp_c data=\"(.*?)\".*",
+                source);
+
+        assertEquals("8", transformedResponse);
+        assertEquals(1, processor.getPatternCache().getMissCount());
+        assertEquals(1, processor.getPatternCache().getHitCount());
+    }
+
+    @Test
+    public void testTransformByRegex_invalidRegex() {
+        assertThrows(TransformationException.class, () -> processor.transform("(", source));
+    }
 }
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A compiled scale configuration.
+ *
+ * The limits of all ranges split the number line into elementary segments: the limits themselves and the open
+ * intervals between them. Every range either contains a segment completely or not at all, so the label of the first
+ * matching range (in the order of the configuration) is resolved once per segment. A lookup is then a binary search
+ * over the limits.
+ *
+ * @author Gaël L'hopital - Initial contribution
+ */
+@NonNullByDefault
+public class ScaleDefinition {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    /** Sorted, distinct limits of all ranges */
+    private final BigDecimal[] limits;
+
+    /**
+     * Labels of the segments: index 2*i+1 is the label of limits[i], index 2*i the label of the open interval
+     * below limits[i] and the last index the label of the open interval above the highest limit
+     */
+    private final @Nullable String[] labels;
+
+    private final @Nullable String nonNumericLabel;
+    private final OutputTemplate template;
+
+    /**
+     * @param ranges the ranges and their labels in the order of the configuration
+     * @param nonNumericLabel the label for non-numeric input or <code>null</code>
+     * @param format the output format with the %value% and %label% placeholders
+     */
+    public ScaleDefinition(LinkedHashMap<Range, String> ranges, @Nullable String nonNumericLabel, String format) {
+        TreeSet<BigDecimal> limitSet = new TreeSet<>();
+        for (Range range : ranges.keySet()) {
+            if (range.min != null) {
+                limitSet.add(range.min);
+            }
+            if (range.max != null) {
+                limitSet.add(range.max);
+            }
+        }
+        limits = limitSet.toArray(new BigDecimal[0]);
+        labels = new String[2 * limits.length + 1];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = firstMatch(ranges, representative(i));
+        }
+        this.nonNumericLabel = nonNumericLabel;
+        this.template = new OutputTemplate(format);
+    }
+
+    /**
+     * Returns the label of the first range containing the value.
+     *
+     * @param value the value to look up
+     * @return the label or <code>null</code> if no range contains the value
+     */
+    public @Nullable String getLabel(BigDecimal value) {
+        int index = Arrays.binarySearch(limits, value);
+        return labels[index >= 0 ? 2 * index + 1 : 2 * (-index - 1)];
+    }
+
+    public @Nullable String getNonNumericLabel() {
+        return nonNumericLabel;
+    }
+
+    /**
+     * Formats the result with the output format of this scale.
+     *
+     * @param source the original input
+     * @param label the label of the matching range
+     * @return the formatted result
+     */
+    public String format(String source, String label) {
+        return template.format(source, label);
+    }
+
+    private BigDecimal representative(int segment) {
+        if (limits.length == 0) {
+            return BigDecimal.ZERO;
+        }
+        if (segment % 2 == 1) {
+            return limits[segment / 2];
+        }
+        int upper = segment / 2;
+        if (upper == 0) {
+            return limits[0].subtract(BigDecimal.ONE);
+        }
+        if (upper == limits.length) {
+            return limits[limits.length - 1].add(BigDecimal.ONE);
+        }
+        // dividing by two always has an exact result
+        return limits[upper - 1].add(limits[upper]).divide(TWO);
+    }
+
+    private static @Nullable String firstMatch(Map<Range, String> ranges, BigDecimal value) {
+        for (Map.Entry<Range, String> entry : ranges.entrySet()) {
+            if (entry.getKey().contains(value)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Output format split into literal text and placeholders once, so formatting a result is a simple concatenation.
+     */
+    private static class OutputTemplate {
+        private static final String FORMAT_VALUE = "%value%";
+        private static final String FORMAT_LABEL = "%label%";
+
+        @FunctionalInterface
+        private interface Part {
+            void append(StringBuilder result, String source, String label);
+        }
+
+        private final List<Part> parts = new ArrayList<>();
+        private final boolean labelOnly;
+
+        OutputTemplate(String format) {
+            labelOnly = FORMAT_LABEL.equals(format);
+            int start = 0;
+            while (start < format.length()) {
+                int value = format.indexOf(FORMAT_VALUE, start);
+                int label = format.indexOf(FORMAT_LABEL, start);
+                int next = value < 0 ? label : label < 0 ? value : Math.min(value, label);
+                if (next < 0) {
+                    String literal = format.substring(start);
+                    parts.add((result, source, lbl) -> result.append(literal));
+                    break;
+                }
+                if (next > start) {
+                    String literal = format.substring(start, next);
+                    parts.add((result, source, lbl) -> result.append(literal));
+                }
+                if (next == value) {
+                    parts.add((result, source, lbl) -> result.append(source));
+                    start = next + FORMAT_VALUE.length();
+                } else {
+                    parts.add((result, source, lbl) -> result.append(lbl));
+                    start = next + FORMAT_LABEL.length();
+                }
+            }
+        }
+
+        String format(String source, String label) {
+            if (labelOnly) {
+                return label;
+            }
+            StringBuilder result = new StringBuilder();
+            for (Part part : parts) {
+                part.append(result, source, label);
+            }
+            return result.toString();
+        }
+    }
+}
@@ -72,14 +72,11 @@ public class ScaleTransformationService
 
     private static final String NON_NUMBER = "NaN";
     private static final String FORMAT = "format";
-    private static final String FORMAT_VALUE = "%value%";
     private static final String FORMAT_LABEL = "%label%";
 
-    /** Inaccessible range used to store presentation format ]0..0[ */
-    private static final Range FORMAT_RANGE = Range.range(BigDecimal.ZERO, false, BigDecimal.ZERO, false);
     private final TransformationConfigurationRegistry transformationConfigurationRegistry;
 
-    private final Map<String, Map<@Nullable Range, String>> cachedTransformations = new ConcurrentHashMap<>();
+    private final Map<String, ScaleDefinition> cachedTransformations = new ConcurrentHashMap<>();
 
     @Activate
     public ScaleTransformationService(
@@ -151,27 +148,21 @@ public class ScaleTransformationService
             if (!cachedTransformations.containsKey(transformationConfiguration.getUID())) {
                 importConfiguration(transformationConfiguration);
             }
-            Map<@Nullable Range, String> data = cachedTransformations.get(function);
+            ScaleDefinition data = cachedTransformations.get(function);
 
             if (data != null) {
                 String target;
 
-                try {
-                    final BigDecimal value = new BigDecimal(source);
+                BigDecimal value = toBigDecimal(source);
+                if (value != null) {
                     target = formatResult(data, source, value);
-                } catch (NumberFormatException e) {
-                    // Scale can only be used with numeric inputs, so lets try to see if ever its a valid quantity type
-                    try {
-                        final QuantityType<?> quantity = new QuantityType<>(source);
-                        return formatResult(data, source, quantity.toBigDecimal());
-                    } catch (IllegalArgumentException e2) {
-                        String nonNumeric = data.get(null);
-                        if (nonNumeric != null) {
-                            target = nonNumeric;
-                        } else {
-                            throw new TransformationException(
-                                    "Scale must be used with numeric inputs, valid quantity types or a 'NaN' entry.");
-                        }
+                } else {
+                    String nonNumeric = data.getNonNumericLabel();
+                    if (nonNumeric != null) {
+                        target = nonNumeric;
+                    } else {
+                        throw new TransformationException(
+                                "Scale must be used with numeric inputs, valid quantity types or a 'NaN' entry.");
                     }
                 }
                 logger.debug("Transformation resulted in '{}'", target);
@@ -182,25 +173,57 @@ public class ScaleTransformationService
         throw new TransformationException("Could not find configuration '" + function + "' or failed to parse it.");
     }
 
-    private String formatResult(Map<@Nullable Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        String format = data.get(FORMAT_RANGE);
-        String result = getScaleResult(data, source, value);
-        return format.replaceAll(FORMAT_VALUE, source).replaceAll(FORMAT_LABEL, result);
+    /**
+     * Converts the source into a number. Plain numbers are parsed directly, so the exception of a failed
+     * {@link BigDecimal} parse is only paid for input which may be a quantity.
+     *
+     * @param source the input
+     * @return the numeric value or <code>null</code> if the input is neither a number nor a valid quantity
+     */
+    private @Nullable BigDecimal toBigDecimal(String source) {
+        if (isPlainNumber(source)) {
+            try {
+                return new BigDecimal(source);
+            } catch (NumberFormatException e) {
+                // fall through and try to parse it as a quantity
+            }
+        }
+        // Scale can only be used with numeric inputs, so lets try to see if ever its a valid quantity type
+        try {
+            return new QuantityType<>(source).toBigDecimal();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPlainNumber(String source) {
+        if (source.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private String getScaleResult(Map<@Nullable Range, String> data, String source, final BigDecimal value)
+    private String formatResult(ScaleDefinition data, String source, final BigDecimal value)
             throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey() != null && entry.getKey().contains(value))
-                .findFirst().map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+        String result = data.getLabel(value);
+        if (result == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return data.format(source, result);
     }
 
     private void importConfiguration(@Nullable TransformationConfiguration configuration) {
         if (configuration != null) {
             try {
-                final Map<@Nullable Range, String> data = new LinkedHashMap<>();
-                data.put(FORMAT_RANGE, FORMAT_LABEL);
+                final LinkedHashMap<Range, String> ranges = new LinkedHashMap<>();
+                @Nullable String nonNumeric = null;
+                String format = FORMAT_LABEL;
                 final OrderedProperties properties = new OrderedProperties();
                 properties.load(new StringReader(configuration.getContent()));
 
@@ -219,12 +242,12 @@ public class ScaleTransformationService
                         final BigDecimal highValue = highLimit.isEmpty() ? null : new BigDecimal(highLimit);
                         final Range range = Range.range(lowValue, lowerInclusive, highValue, upperInclusive);
 
-                        data.put(range, value);
+                        ranges.put(range, value);
                     } else {
                         if (NON_NUMBER.equals(entry)) {
-                            data.put(null, value);
+                            nonNumeric = value;
                         } else if (FORMAT.equals(entry)) {
-                            data.put(FORMAT_RANGE, value);
+                            format = value;
                         } else {
                             logger.warn(
                                     "Scale transformation configuration '{}' does not comply with syntax for entry : '{}', '{}'",
@@ -233,7 +256,7 @@ public class ScaleTransformationService
                     }
                 }
 
-                cachedTransformations.put(configuration.getUID(), data);
+                cachedTransformations.put(configuration.getUID(), new ScaleDefinition(ranges, nonNumeric, format));
             } catch (IOException | NumberFormatException ignored) {
             }
         }
@@ -188,4 +188,28 @@ public class ScaleTransformServiceTest {
         String source = "200";
         assertThrows(TransformationException.class, () -> processor.transform(existingscale, source));
     }
+
+    @Test
+    public void testEvaluationOrderAtLimits() throws TransformationException {
+        String evaluationOrder = "scale/evaluationorder.scale";
+
+        assertEquals("first", processor.transform(evaluationOrder, "-1000"));
+        assertEquals("first", processor.transform(evaluationOrder, "14.99"));
+        // excluded by the first range, included by the second one
+        assertEquals("second", processor.transform(evaluationOrder, "15"));
+        assertEquals("second", processor.transform(evaluationOrder, "16.5"));
+        assertEquals("last", processor.transform(evaluationOrder, "17"));
+        assertEquals("last", processor.transform(evaluationOrder, "1E6"));
+    }
+
+    @Test
+    public void testTransformByScaleInclusiveLimits() throws TransformationException {
+        String existingscale = "scale/humidex.scale";
+
+        assertEquals("no significant", processor.transform(existingscale, "-40"));
+        assertEquals("no significant", processor.transform(existingscale, "20.0"));
+        assertEquals("comfortable", processor.transform(existingscale, "20.01"));
+        assertEquals("heat stroke imminent", processor.transform(existingscale, "100"));
+        assertThrows(TransformationException.class, () -> processor.transform(existingscale, "-40.01"));
+    }
 }
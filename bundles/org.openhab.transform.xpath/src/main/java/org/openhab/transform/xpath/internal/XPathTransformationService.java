@@ -13,12 +13,17 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,14 +40,25 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Neither {@link DocumentBuilder} nor {@link XPathExpression} are thread-safe. Parsers are taken from a small pool and
+ * returned after use, compiled expressions are cached for all threads and evaluated by one thread at a time.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_EXPRESSIONS = 64;
+    private static final int MAX_POOLED_DOCUMENT_BUILDERS = 4;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final BlockingQueue<DocumentBuilder> documentBuilders = new ArrayBlockingQueue<>(
+            MAX_POOLED_DOCUMENT_BUILDERS);
+    private final Map<String, XPathExpression> expressions = new ConcurrentHashMap<>();
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,40 +67,66 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
-
-        try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
-            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            domFactory.setXIncludeAware(false);
-            domFactory.setExpandEntityReferences(false);
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+        try (StringReader stringReader = new StringReader(source)) {
+            DocumentBuilder builder = getDocumentBuilder();
 
-            stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            Document doc;
+            try {
+                doc = builder.parse(inputSource);
+            } finally {
+                builder.reset();
+                // the pool is full if more threads than pooled parsers transformed at the same time
+                documentBuilders.offer(builder);
+            }
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = getExpression(xpathExpression);
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            String transformationResult;
+            synchronized (expr) {
+                transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
+        }
+    }
+
+    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = documentBuilders.poll();
+        if (builder == null) {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
+            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            domFactory.setXIncludeAware(false);
+            domFactory.setExpandEntityReferences(false);
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            builder = domFactory.newDocumentBuilder();
+        }
+        return builder;
+    }
+
+    private XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+        XPathExpression expr = expressions.get(xpathExpression);
+        if (expr == null) {
+            // items use a few fixed expressions, so only expressions built at runtime, e.g. by rules, fill the cache
+            if (expressions.size() >= MAX_CACHED_EXPRESSIONS) {
+                expressions.clear();
+            }
+            expr = XPathFactory.newInstance().newXPath().compile(xpathExpression);
+            XPathExpression existing = expressions.putIfAbsent(xpathExpression, expr);
+            if (existing != null) {
+                expr = existing;
             }
         }
+        return expr;
     }
 }
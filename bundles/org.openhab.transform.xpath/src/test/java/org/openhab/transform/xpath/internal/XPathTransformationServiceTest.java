@@ -14,6 +14,12 @@ package org.openhab.transform.xpath.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
@@ -38,4 +44,38 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXPathRepeatedly() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test
+    public void testTransformByXPathAfterInvalidSource() throws TransformationException {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("//current_conditions/temp_c/@data", "<invalid"));
+
+        // the pooled parser must still be usable
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test
+    public void testTransformByXPathConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String expression = i % 2 == 0 ? "//current_conditions/temp_c/@data"
+                        : "//current_conditions/temp_f/@data";
+                results.add(executor.submit(() -> processor.transform(expression, source)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? "8" : "46", results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
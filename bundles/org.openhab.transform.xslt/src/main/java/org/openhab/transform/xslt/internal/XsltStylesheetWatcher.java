@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xslt.internal;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchEvent.Kind;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.service.AbstractWatchService;
+import org.openhab.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link XsltStylesheetWatcher} watches the transformation directory and removes modified or deleted
+ * stylesheets from the cache of the {@link XsltTransformationService}.
+ *
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+@Component
+public class XsltStylesheetWatcher extends AbstractWatchService {
+    private static final String TRANSFORM_FOLDER = OpenHAB.getConfigFolder() + File.separator
+            + TransformationService.TRANSFORM_FOLDER_NAME;
+
+    private final Logger logger = LoggerFactory.getLogger(XsltStylesheetWatcher.class);
+
+    private final XsltTransformationService service;
+
+    @Activate
+    public XsltStylesheetWatcher(final @Reference XsltTransformationService service) {
+        super(TRANSFORM_FOLDER);
+        this.service = service;
+    }
+
+    @Override
+    protected boolean watchSubDirectories() {
+        return true;
+    }
+
+    @Override
+    protected Kind<?>[] getWatchEventKinds(Path directory) {
+        return new Kind<?>[] { ENTRY_DELETE, ENTRY_MODIFY };
+    }
+
+    @Override
+    protected void processWatchEvent(WatchEvent<?> event, Kind<?> kind, Path path) {
+        logger.debug("New watch event {} for path {}.", kind, path);
+
+        if (kind == OVERFLOW) {
+            return;
+        }
+
+        service.removeFromCache(path);
+    }
+}
@@ -12,12 +12,15 @@
  */
 package org.openhab.transform.xslt.internal;
 
-import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -35,14 +38,21 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * Compiled stylesheets are cached as {@link Templates}, which are thread-safe. The {@link XsltStylesheetWatcher}
+ * removes them from the cache when the stylesheet files change.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=XSLT" })
+@Component(service = { TransformationService.class, XsltTransformationService.class }, property = {
+        "openhab.transform=XSLT" })
 public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final Map<Path, Templates> cachedTemplates = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,12 +70,10 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        Path path;
 
         try {
-            String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
-                    + File.separator + filename;
-            xsl = new StreamSource(new File(path));
+            path = getStylesheetPath(filename);
         } catch (Exception e) {
             String message = "opening file '" + filename + "' throws exception";
 
@@ -73,15 +81,13 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException(message, e);
         }
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, path);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            Transformer transformer = getTemplates(path).newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
@@ -92,4 +98,35 @@ public class XsltTransformationService implements TransformationService {
 
         return out.toString();
     }
+
+    /**
+     * Removes the compiled stylesheet of the given file from the cache. If the file is not a cached stylesheet it
+     * may be included by one, so the whole cache is cleared.
+     *
+     * @param path the changed or deleted file
+     */
+    public void removeFromCache(Path path) {
+        if (cachedTemplates.remove(path.toAbsolutePath().normalize()) == null) {
+            cachedTemplates.clear();
+        }
+    }
+
+    private Path getStylesheetPath(String filename) {
+        return Path.of(OpenHAB.getConfigFolder(), TransformationService.TRANSFORM_FOLDER_NAME, filename)
+                .toAbsolutePath().normalize();
+    }
+
+    private Templates getTemplates(Path path) throws TransformerConfigurationException {
+        Templates templates = cachedTemplates.get(path);
+        if (templates == null) {
+            // TransformerFactory is not thread-safe, so a new one is used for each compilation
+            templates = TransformerFactory.newInstance().newTemplates(new StreamSource(path.toFile()));
+            Templates existing = cachedTemplates.putIfAbsent(path, templates);
+            if (existing != null) {
+                templates = existing;
+            }
+            logger.debug("compiled stylesheet '{}'", path);
+        }
+        return templates;
+    }
 }
@@ -14,8 +14,15 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.transform.TransformationException;
 
 /**
@@ -23,13 +30,28 @@ import org.openhab.core.transform.TransformationException;
  */
 public class XsltTransformationServiceTest extends AbstractTransformationServiceTest {
 
+    private @TempDir Path configFolder;
+
+    private Path stylesheet;
+
     private XsltTransformationService processor;
 
     @BeforeEach
-    public void init() {
+    public void init() throws IOException {
+        Path httpFolder = Files.createDirectories(configFolder.resolve(Path.of("transform", "http")));
+        Files.copy(Path.of("conf", "transform", "http", "google_weather.xsl"),
+                httpFolder.resolve("google_weather.xsl"));
+        stylesheet = httpFolder.resolve("cache_test.xsl");
+        System.setProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT, configFolder.toString());
+
         processor = new XsltTransformationService();
     }
 
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT);
+    }
+
     @Test
     public void testTransformByXSLT() throws TransformationException {
         // method under test
@@ -38,4 +60,41 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXSLTAfterCacheInvalidation() throws IOException, TransformationException {
+        writeStylesheet("first");
+        assertEquals("first", processor.transform("http/cache_test.xsl", source));
+
+        // the compiled stylesheet is used until it is removed from the cache
+        writeStylesheet("second");
+        assertEquals("first", processor.transform("http/cache_test.xsl", source));
+
+        processor.removeFromCache(stylesheet);
+
+        assertEquals("second", processor.transform("http/cache_test.xsl", source));
+    }
+
+    @Test
+    public void testTransformByXSLTAfterIncludedFileChanged() throws IOException, TransformationException {
+        writeStylesheet("first");
+        assertEquals("first", processor.transform("http/cache_test.xsl", source));
+        writeStylesheet("second");
+
+        processor.removeFromCache(stylesheet.resolveSibling("included.xsl"));
+
+        assertEquals("second", processor.transform("http/cache_test.xsl", source));
+    }
+
+    @Test
+    public void testTransformByMissingXSLT() {
+        assertThrows(TransformationException.class, () -> processor.transform("http/missing.xsl", source));
+    }
+
+    private void writeStylesheet(String output) throws IOException {
+        Files.writeString(stylesheet,
+                "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+                        + "<xsl:output method=\"text\"/><xsl:template match=\"/\">" + output
+                        + "</xsl:template></xsl:stylesheet>");
+    }
 }